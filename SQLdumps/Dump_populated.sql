@@ -17,6 +17,29 @@ USE `management`;
 /*!40101 SET @OLD_SQL_MODE=@@SQL_MODE, SQL_MODE='NO_AUTO_VALUE_ON_ZERO' */;
 /*!40111 SET @OLD_SQL_NOTES=@@SQL_NOTES, SQL_NOTES=0 */;
 
+--
+-- Table structure for table `appliedcommand`
+--
+
+DROP TABLE IF EXISTS `appliedcommand`;
+/*!40101 SET @saved_cs_client     = @@character_set_client */;
+/*!50503 SET character_set_client = utf8mb4 */;
+CREATE TABLE `appliedcommand` (
+  `firstposition` int(11) NOT NULL,
+  `lastposition` int(11) NOT NULL,
+  PRIMARY KEY (`firstposition`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+/*!40101 SET character_set_client = @saved_cs_client */;
+
+--
+-- Dumping data for table `appliedcommand`
+--
+
+LOCK TABLES `appliedcommand` WRITE;
+/*!40000 ALTER TABLE `appliedcommand` DISABLE KEYS */;
+/*!40000 ALTER TABLE `appliedcommand` ENABLE KEYS */;
+UNLOCK TABLES;
+
 --
 -- Table structure for table `client`
 --
@@ -25,11 +48,12 @@ DROP TABLE IF EXISTS `client`;
 /*!40101 SET @saved_cs_client     = @@character_set_client */;
 /*!50503 SET character_set_client = utf8mb4 */;
 CREATE TABLE `client` (
-  `idclient` int(11) NOT NULL,
+  `idclient` int(11) NOT NULL AUTO_INCREMENT,
   `name` varchar(45) NOT NULL,
   `address` varchar(45) NOT NULL,
   `deleted` int(11) DEFAULT NULL,
-  PRIMARY KEY (`idclient`)
+  PRIMARY KEY (`idclient`),
+  KEY `name_idx` (`name`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
 /*!40101 SET character_set_client = @saved_cs_client */;
 
@@ -43,6 +67,31 @@ INSERT INTO `client` VALUES (1,'Ion Popescu','Bucuresti',0),(2,'Luca George','Bu
 /*!40000 ALTER TABLE `client` ENABLE KEYS */;
 UNLOCK TABLES;
 
+--
+-- Table structure for table `failedorder`
+--
+
+DROP TABLE IF EXISTS `failedorder`;
+/*!40101 SET @saved_cs_client     = @@character_set_client */;
+/*!50503 SET character_set_client = utf8mb4 */;
+CREATE TABLE `failedorder` (
+  `position` int(11) NOT NULL,
+  `client` varchar(45) NOT NULL,
+  `product` varchar(45) NOT NULL,
+  `quantity` int(11) NOT NULL,
+  PRIMARY KEY (`position`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+/*!40101 SET character_set_client = @saved_cs_client */;
+
+--
+-- Dumping data for table `failedorder`
+--
+
+LOCK TABLES `failedorder` WRITE;
+/*!40000 ALTER TABLE `failedorder` DISABLE KEYS */;
+/*!40000 ALTER TABLE `failedorder` ENABLE KEYS */;
+UNLOCK TABLES;
+
 --
 -- Table structure for table `order`
 --
@@ -51,11 +100,12 @@ DROP TABLE IF EXISTS `order`;
 /*!40101 SET @saved_cs_client     = @@character_set_client */;
 /*!50503 SET character_set_client = utf8mb4 */;
 CREATE TABLE `order` (
-  `idorder` int(11) NOT NULL,
+  `idorder` int(11) NOT NULL AUTO_INCREMENT,
   `idclient` int(11) NOT NULL,
   `total` float NOT NULL,
   `deleted` int(11) DEFAULT NULL,
-  PRIMARY KEY (`idorder`)
+  PRIMARY KEY (`idorder`),
+  UNIQUE KEY `idclient_UNIQUE` (`idclient`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
 /*!40101 SET character_set_client = @saved_cs_client */;
 
@@ -80,7 +130,9 @@ CREATE TABLE `orderitem` (
   `idorder` int(11) NOT NULL,
   `idproduct` int(11) NOT NULL,
   `quantity` int(11) NOT NULL,
-  `deleted` int(11) DEFAULT NULL
+  `deleted` int(11) DEFAULT NULL,
+  PRIMARY KEY (`idorder`,`idproduct`),
+  KEY `idproduct_idx` (`idproduct`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
 /*!40101 SET character_set_client = @saved_cs_client */;
 
@@ -102,7 +154,7 @@ DROP TABLE IF EXISTS `product`;
 /*!40101 SET @saved_cs_client     = @@character_set_client */;
 /*!50503 SET character_set_client = utf8mb4 */;
 CREATE TABLE `product` (
-  `idproduct` int(11) NOT NULL,
+  `idproduct` int(11) NOT NULL AUTO_INCREMENT,
   `name` varchar(45) NOT NULL,
   `price` float NOT NULL,
   `quantity` int(11) NOT NULL,
@@ -121,6 +173,30 @@ LOCK TABLES `product` WRITE;
 INSERT INTO `product` VALUES (1,'apple',1,35,0),(2,'peach',2,50,0),(3,'orange',1.5,40,0),(4,'lemon',2,65,0);
 /*!40000 ALTER TABLE `product` ENABLE KEYS */;
 UNLOCK TABLES;
+
+--
+-- Table structure for table `stockdelta`
+--
+
+DROP TABLE IF EXISTS `stockdelta`;
+/*!40101 SET @saved_cs_client     = @@character_set_client */;
+/*!50503 SET character_set_client = utf8mb4 */;
+CREATE TABLE `stockdelta` (
+  `idstockdelta` int(11) NOT NULL AUTO_INCREMENT,
+  `idproduct` int(11) NOT NULL,
+  `quantity` int(11) NOT NULL,
+  PRIMARY KEY (`idstockdelta`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+/*!40101 SET character_set_client = @saved_cs_client */;
+
+--
+-- Dumping data for table `stockdelta`
+--
+
+LOCK TABLES `stockdelta` WRITE;
+/*!40000 ALTER TABLE `stockdelta` DISABLE KEYS */;
+/*!40000 ALTER TABLE `stockdelta` ENABLE KEYS */;
+UNLOCK TABLES;
 /*!40103 SET TIME_ZONE=@OLD_TIME_ZONE */;
 
 /*!40101 SET SQL_MODE=@OLD_SQL_MODE */;
@@ -0,0 +1,5 @@
+-- Adds an index on client.name, used by ClientDAO.findByName
+-- product.name is already covered by its UNIQUE key
+USE `management`;
+
+ALTER TABLE `client` ADD INDEX `name_idx` (`name`);
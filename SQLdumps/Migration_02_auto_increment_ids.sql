@@ -0,0 +1,7 @@
+-- Lets the database generate the ids of clients, orders and products (AUTO_INCREMENT)
+-- the DAOs read them back through RETURN_GENERATED_KEYS instead of counting the rows of the table
+USE `management`;
+
+ALTER TABLE `client` MODIFY `idclient` int(11) NOT NULL AUTO_INCREMENT;
+ALTER TABLE `order` MODIFY `idorder` int(11) NOT NULL AUTO_INCREMENT;
+ALTER TABLE `product` MODIFY `idproduct` int(11) NOT NULL AUTO_INCREMENT;
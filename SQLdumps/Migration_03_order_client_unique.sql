@@ -0,0 +1,5 @@
+-- Each client has a single order, which accumulates the total of everything the client ordered
+-- the unique key lets OrderDAO.addToTotal create or update that order in one INSERT ... ON DUPLICATE KEY UPDATE
+USE `management`;
+
+ALTER TABLE `order` ADD UNIQUE KEY `idclient_UNIQUE` (`idclient`);
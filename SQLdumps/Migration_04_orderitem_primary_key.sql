@@ -0,0 +1,12 @@
+-- Gives the orderitem table a composite primary key (idorder, idproduct) and a secondary index on idproduct
+-- an item is then updated / deleted by its full key, touching exactly one row; rows of the same order and product are merged first
+USE `management`;
+
+CREATE TEMPORARY TABLE `orderitem_merged` AS
+    SELECT idorder, idproduct, SUM(quantity) AS quantity, MIN(deleted) AS deleted FROM `orderitem` GROUP BY idorder, idproduct;
+DELETE FROM `orderitem`;
+INSERT INTO `orderitem` (idorder, idproduct, quantity, deleted)
+    SELECT idorder, idproduct, quantity, deleted FROM `orderitem_merged`;
+DROP TEMPORARY TABLE `orderitem_merged`;
+
+ALTER TABLE `orderitem` ADD PRIMARY KEY (`idorder`, `idproduct`), ADD KEY `idproduct_idx` (`idproduct`);
@@ -0,0 +1,17 @@
+-- Adds the command log of the journaled runs: the positions of the applied commands, kept as ranges, and the refused orders
+-- a command writes its position in the transaction of its changes, so an interrupted run is resumed from exactly what the database has
+USE `management`;
+
+CREATE TABLE IF NOT EXISTS `appliedcommand` (
+  `firstposition` int(11) NOT NULL,
+  `lastposition` int(11) NOT NULL,
+  PRIMARY KEY (`firstposition`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
+
+CREATE TABLE IF NOT EXISTS `failedorder` (
+  `position` int(11) NOT NULL,
+  `client` varchar(45) NOT NULL,
+  `product` varchar(45) NOT NULL,
+  `quantity` int(11) NOT NULL,
+  PRIMARY KEY (`position`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
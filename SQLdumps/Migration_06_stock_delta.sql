@@ -0,0 +1,10 @@
+-- Adds the stock deltas of the stock ledger: the quantity of each order admitted by the ledger, written in the transaction of the order
+-- the ledger subtracts them from the product table and deletes them in one transaction, so a crash before a flush loses no stock
+USE `management`;
+
+CREATE TABLE IF NOT EXISTS `stockdelta` (
+  `idstockdelta` int(11) NOT NULL AUTO_INCREMENT,
+  `idproduct` int(11) NOT NULL,
+  `quantity` int(11) NOT NULL,
+  PRIMARY KEY (`idstockdelta`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci;
@@ -0,0 +1,108 @@
+package benchmarks;
+
+import bll.ClientBLL;
+import bll.DatabaseBLL;
+import bll.OrderBLL;
+import bll.ProductBLL;
+import model.Client;
+import model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import storage.StorageFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of OrderBLL.insertOrder end to end: name lookups, stock check, order total and order item, in one transaction
+ * the storage is chosen by the fork of each subclass; the in-memory storage plays the embedded database, and the JDBC storage can be measured
+ * against a MySQL server by overriding the fork arguments, e.g. -jvmArgsAppend -Dmanagement.storage=jdbc
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public abstract class AbstractOrderBenchmark {
+
+    /**
+     * the number of clients placing orders
+     */
+    private static final int CLIENTS = 1000;
+    /**
+     * the number of ordered products
+     */
+    private static final int PRODUCTS = 1000;
+    /**
+     * the initial stock of each product, large enough never to run out during a run
+     */
+    private static final int STOCK = 1_000_000_000;
+
+    /**
+     * the names of the clients
+     */
+    private String[] clients;
+    /**
+     * the names of the products
+     */
+    private String[] products;
+    /**
+     * the BLL placing the orders
+     */
+    private OrderBLL oBLL;
+
+    /**
+     * method used to empty the database and insert the clients and products
+     */
+    @Setup(Level.Trial)
+    public void setup(){
+        new DatabaseBLL().deleteAll();
+        clients = new String[CLIENTS];
+        List<Client> clientRows = new ArrayList<>();
+        for(int i = 0; i < CLIENTS; i++){
+            clients[i] = "Client " + i;
+            clientRows.add(new Client(clients[i], "Street " + i, 0));
+        }
+        new ClientBLL().insertClients(clientRows);
+        products = new String[PRODUCTS];
+        List<Product> productRows = new ArrayList<>();
+        for(int i = 0; i < PRODUCTS; i++){
+            products[i] = "product" + i;
+            productRows.add(new Product(products[i], 1.5f, STOCK, 0));
+        }
+        new ProductBLL().insertProducts(productRows);
+        oBLL = new OrderBLL();
+    }
+
+    /**
+     * method used to write the stock kept by the ledger, if enabled, and to release the storage
+     */
+    @TearDown(Level.Trial)
+    public void tearDown(){
+        if(ProductBLL.getLedger() != null){
+            ProductBLL.getLedger().shutdown();
+        }
+        StorageFactory.getStorage().shutdown();
+    }
+
+    /**
+     * @return the result of placing an order of a random client for a random product
+     */
+    @Benchmark
+    public int insertOrder(){
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return oBLL.insertOrder(clients[random.nextInt(CLIENTS)], products[random.nextInt(PRODUCTS)], 1);
+    }
+}
@@ -0,0 +1,100 @@
+package benchmarks;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Forward-only ResultSet over rows kept in memory, used to measure the row mappers without the cost of a database
+ * only the methods used by the mappers are implemented: next, isBeforeFirst, findColumn, getInt, getFloat, getString and getObject
+ */
+
+class ArrayResultSet implements InvocationHandler {
+
+    /**
+     * the names of the columns, in order
+     */
+    private final String[] columns;
+    /**
+     * the values of the rows, one array per row
+     */
+    private final Object[][] rows;
+    /**
+     * the index of the current row; -1 before the first call to next()
+     */
+    private int row = -1;
+
+    /**
+     * constructor containing all the fields
+     * @param columns the names of the columns
+     * @param rows the values of the rows
+     */
+    private ArrayResultSet(String[] columns, Object[][] rows){
+        this.columns = columns;
+        this.rows = rows;
+    }
+
+    /**
+     * method used to create a ResultSet positioned before its first row
+     * @param columns the names of the columns
+     * @param rows the values of the rows, one array per row, in column order
+     * @return the ResultSet
+     */
+    static ResultSet of(String[] columns, Object[][] rows){
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class}, new ArrayResultSet(columns, rows));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws SQLException {
+        switch(method.getName()){
+            case "next":
+                return ++row < rows.length;
+            case "isBeforeFirst":
+                return row == -1 && rows.length > 0;
+            case "findColumn":
+                return findColumn((String) args[0]);
+            case "getInt":
+                return ((Number) value(args[0])).intValue();
+            case "getFloat":
+                return ((Number) value(args[0])).floatValue();
+            case "getString":
+                return (String) value(args[0]);
+            case "getObject":
+                return value(args[0]);
+            case "close":
+                return null;
+            case "isClosed":
+                return false;
+            default:
+                throw new SQLException("Not supported by ArrayResultSet: " + method.getName());
+        }
+    }
+
+    /**
+     * method used to find the index of a column by its name, ignoring the case, as MySQL does
+     * @param name String representing the name of the column
+     * @return the 1-based index of the column
+     * @throws SQLException if there is no such column
+     */
+    private int findColumn(String name) throws SQLException {
+        for(int i = 0; i < columns.length; i++){
+            if(columns[i].equalsIgnoreCase(name)){
+                return i + 1;
+            }
+        }
+        throw new SQLException("Column not found: " + name);
+    }
+
+    /**
+     * method used to read a value of the current row
+     * @param column Integer (1-based index) or String (name) identifying the column
+     * @return the value
+     * @throws SQLException if there is no such column
+     */
+    private Object value(Object column) throws SQLException {
+        int index = column instanceof Integer ? (Integer) column : findColumn((String) column);
+        return rows[row][index - 1];
+    }
+}
@@ -0,0 +1,155 @@
+package benchmarks;
+
+import dao.AbstractDAO;
+import model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the DAO layer without a database: the mapping of a ResultSet into objects (AbstractDAO.createObjects) and the building of
+ * the INSERT / UPDATE queries, each compared with the original reflective implementation kept in LegacyDAO
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DaoBenchmark {
+
+    /**
+     * the number of rows of the mapped ResultSet
+     */
+    @Param({"1", "1000"})
+    public int rows;
+
+    /**
+     * the column names of the mapped ResultSet, as returned by the Product table
+     */
+    private static final String[] COLUMNS = {"idProduct", "name", "price", "quantity", "deleted"};
+
+    /**
+     * the values of the mapped rows
+     */
+    private Object[][] data;
+    /**
+     * the current DAO, exposing its protected methods
+     */
+    private ExposedProductDAO dao;
+    /**
+     * the original reflective DAO
+     */
+    private LegacyDAO<Product> legacy;
+    /**
+     * the product whose queries are built
+     */
+    private Product product;
+
+    /**
+     * method used to generate the rows and create the DAOs
+     */
+    @Setup
+    public void setup(){
+        data = new Object[rows][];
+        for(int i = 0; i < rows; i++){
+            data[i] = new Object[]{i + 1, "product" + i, 1.5f + i, 100 + i, 0};
+        }
+        dao = new ExposedProductDAO();
+        legacy = new LegacyDAO<>(Product.class);
+        product = new Product(42, "apple", 2.5f, 100, 0);
+    }
+
+    /**
+     * @return the products mapped by the current DAO, through the cached metadata
+     */
+    @Benchmark
+    public List<Product> mapRows(){
+        return dao.map(ArrayResultSet.of(COLUMNS, data));
+    }
+
+    /**
+     * @return the products mapped by the original reflective DAO
+     * @throws Exception if a product cannot be mapped
+     */
+    @Benchmark
+    public List<Product> mapRowsLegacy() throws Exception {
+        return legacy.createObjects(ArrayResultSet.of(COLUMNS, data));
+    }
+
+    /**
+     * @return the parameterized INSERT query of the current DAO
+     */
+    @Benchmark
+    public String insertQuery(){
+        return dao.insertQuery();
+    }
+
+    /**
+     * @return the INSERT query of the product, built by the original DAO
+     * @throws IllegalAccessException if a field cannot be read
+     */
+    @Benchmark
+    public String insertQueryLegacy() throws IllegalAccessException {
+        return legacy.createInsertQuery(product);
+    }
+
+    /**
+     * @return the parameterized UPDATE query of the current DAO
+     */
+    @Benchmark
+    public String updateQuery(){
+        return dao.updateQuery();
+    }
+
+    /**
+     * @return the UPDATE query of the product, built by the original DAO
+     * @throws IllegalAccessException if a field cannot be read
+     */
+    @Benchmark
+    public String updateQueryLegacy() throws IllegalAccessException {
+        return legacy.createUpdateQuery(product);
+    }
+
+    /**
+     * DAO of the Product table exposing the protected methods which are measured
+     * it extends AbstractDAO directly, since the type of the objects is read from the generic superclass
+     */
+    static class ExposedProductDAO extends AbstractDAO<Product> {
+
+        /**
+         * @param resultSet the ResultSet to be mapped
+         * @return the mapped products
+         */
+        List<Product> map(ResultSet resultSet){
+            return createObjects(resultSet);
+        }
+
+        /**
+         * @return the INSERT query
+         */
+        String insertQuery(){
+            return createInsertQuery();
+        }
+
+        /**
+         * @return the UPDATE query
+         */
+        String updateQuery(){
+            return createUpdateQuery();
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Fork;
+
+/**
+ * insertOrder on the in-memory storage, with the stock checked by the in-process stock ledger
+ */
+
+@Fork(value = 1, jvmArgsAppend = {"-Dmanagement.storage=memory", "-Dmanagement.stock.ledger=true"})
+public class LedgerOrderBenchmark extends AbstractOrderBenchmark {
+}
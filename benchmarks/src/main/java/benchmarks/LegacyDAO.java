@@ -0,0 +1,94 @@
+package benchmarks;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Baseline reproducing the original reflective AbstractDAO, against which the current DAO layer is measured
+ * the row mapper builds a PropertyDescriptor and looks up the setter for every field of every row, and the queries are built
+ * for every object, with its values written in the SQL text
+ * @param <T> the type of the mapped objects
+ */
+
+class LegacyDAO<T> {
+
+    /**
+     * the class of the mapped objects
+     */
+    private final Class<T> type;
+
+    /**
+     * constructor containing all the fields
+     * @param type the class of the mapped objects
+     */
+    LegacyDAO(Class<T> type){
+        this.type = type;
+    }
+
+    /**
+     * method which transforms a given ResultSet into the corresponding list of objects, as the original AbstractDAO did
+     * @param resultSet the ResultSet to be mapped; its column names are the names of the fields
+     * @return a list of objects T
+     * @throws Exception if an object cannot be created or a setter fails
+     */
+    List<T> createObjects(ResultSet resultSet) throws Exception {
+        List<T> list = new ArrayList<T>();
+        while(resultSet.next()){
+            T instance = type.getDeclaredConstructor().newInstance();
+            for(Field field : type.getDeclaredFields()){
+                field.setAccessible(true);
+                Object value = resultSet.getObject(field.getName());
+                PropertyDescriptor propertyDescriptor = new PropertyDescriptor(field.getName(), type);
+                Method method = propertyDescriptor.getWriteMethod();
+                method.invoke(instance, value);
+            }
+            list.add(instance);
+        }
+        return list;
+    }
+
+    /**
+     * method to create the INSERT query of an object, as the original AbstractDAO did
+     * @param t the object to be inserted
+     * @return a String representing the INSERT query, with the values of the object
+     * @throws IllegalAccessException if a field cannot be read
+     */
+    String createInsertQuery(T t) throws IllegalAccessException {
+        StringBuilder sb = new StringBuilder();
+        sb.append("INSERT INTO ");
+        sb.append("`" + type.getSimpleName() + "`");
+        sb.append(" VALUES (");
+        for(Field field : type.getDeclaredFields()){
+            field.setAccessible(true);
+            sb.append("'" + field.get(t) + "'" + ",");
+        }
+        sb.setCharAt(sb.length()-1, ')');
+        return sb.toString();
+    }
+
+    /**
+     * method to create the UPDATE query of an object, as the original AbstractDAO did
+     * @param t the object to be updated
+     * @return a String representing the UPDATE query, with the values of the object
+     * @throws IllegalAccessException if a field cannot be read
+     */
+    String createUpdateQuery(T t) throws IllegalAccessException {
+        StringBuilder sb = new StringBuilder();
+        sb.append("UPDATE ");
+        sb.append("`" + type.getSimpleName() + "`");
+        sb.append(" SET ");
+        for(Field field : type.getDeclaredFields()){
+            field.setAccessible(true);
+            sb.append(field.getName() + "='" + field.get(t) + "',");
+        }
+        sb.setCharAt(sb.length()-1, ' ');
+        Field id = type.getDeclaredFields()[0];
+        id.setAccessible(true);
+        sb.append("WHERE " + id.getName() + "=" + id.get(t));
+        return sb.toString();
+    }
+}
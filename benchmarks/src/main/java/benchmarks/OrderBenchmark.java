@@ -0,0 +1,11 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Fork;
+
+/**
+ * insertOrder on the in-memory storage, with the stock checked in the Product table
+ */
+
+@Fork(value = 1, jvmArgsAppend = {"-Dmanagement.storage=memory"})
+public class OrderBenchmark extends AbstractOrderBenchmark {
+}
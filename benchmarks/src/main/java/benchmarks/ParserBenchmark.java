@@ -0,0 +1,146 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import presentation.View;
+import utils.CommandParser;
+import utils.CommandText;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the reading of the input file: View.readFile over a whole file, CommandParser on lines already in memory,
+ * and the original String.split / regex parsing for comparison; the scores are in lines per second
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+
+    /**
+     * the number of lines of the parsed input
+     */
+    private static final int LINES = 100_000;
+
+    /**
+     * the lines of the input
+     */
+    private String[] lines;
+    /**
+     * the input file read by View.readFile
+     */
+    private Path file;
+
+    /**
+     * method used to generate the input, with the mix of commands of a typical run: mostly orders, then inserts, deletes and reports
+     * @throws IOException if the input file cannot be written
+     */
+    @Setup
+    public void setup() throws IOException {
+        lines = new String[LINES];
+        for(int i = 0; i < LINES; i++){
+            switch(i % 10){
+                case 0:
+                    lines[i] = "Insert client: Client " + i + ", Street " + i;
+                    break;
+                case 1:
+                    lines[i] = "Insert product: product" + i + ", " + (i % 500) + ", " + (i % 97) + ".5";
+                    break;
+                case 2:
+                    lines[i] = (i % 100 == 2 ? "Delete client: Client " : "Delete product: product") + (i - 2);
+                    break;
+                case 3:
+                    lines[i] = i % 1000 == 3 ? "Report product" : "Order: Client " + (i - 3) + ", product" + (i - 2) + ", " + (i % 7 + 1);
+                    break;
+                default:
+                    lines[i] = "Order: Client " + (i - i % 10) + ", product" + (i - i % 10 + 1) + ", " + (i % 7 + 1);
+            }
+        }
+        file = Files.createTempFile("commands", ".txt");
+        Files.write(file, Arrays.asList(lines), Charset.defaultCharset());
+    }
+
+    /**
+     * method used to delete the input file
+     * @throws IOException if the file cannot be deleted
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * @return the commands read from the input file by the View
+     */
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public List<CommandText> readFile(){
+        return new View().readFile(file.toString());
+    }
+
+    /**
+     * method parsing the lines with the hand-written CommandParser
+     * @param blackhole consumes the parsed commands
+     */
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void parse(Blackhole blackhole){
+        for(String line : lines){
+            blackhole.consume(CommandParser.parse(line));
+        }
+    }
+
+    /**
+     * method parsing the lines as the original View and Logic did, with String.split on ": ", " " and ", "
+     * @param blackhole consumes the parsed fields
+     */
+    @Benchmark
+    @OperationsPerInvocation(LINES)
+    public void parseLegacy(Blackhole blackhole){
+        for(String input : lines){
+            String[] line = input.split(": ");
+            String[] aux = line[0].toLowerCase().split(" ");
+            switch(aux[0]){
+                case "insert":
+                    String[] data = line[1].split(", ");
+                    if(aux[1].equals("product")){
+                        blackhole.consume(Integer.parseInt(data[1]));
+                        blackhole.consume(Float.parseFloat(data[2]));
+                    }
+                    blackhole.consume(data);
+                    break;
+                case "order":
+                    String[] order = line[1].split(", ");
+                    blackhole.consume(Integer.parseInt(order[2]));
+                    blackhole.consume(order);
+                    break;
+                case "delete":
+                    blackhole.consume(line[1].split(", "));
+                    break;
+                default:
+                    blackhole.consume(aux);
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package benchmarks;
+
+import bll.ClientBLL;
+import bll.DatabaseBLL;
+import bll.ProductBLL;
+import model.Client;
+import model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import presentation.Controller;
+import storage.StorageFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of the PDF reports of the Controller over tables of up to 1M rows, on the in-memory storage
+ * the reports are streamed one row at a time, so with -prof gc the allocation rate grows with the rows while the heap needed only grows
+ * by the keys of the table (8 bytes per row), read at once by the in-memory storage
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Dmanagement.storage=memory", "-Xmx2g"})
+public class ReportBenchmark {
+
+    /**
+     * the time stamp of the generated reports, chosen so that they do not overwrite the reports of a normal run
+     */
+    private static final int REPORT_ID = 9999;
+
+    /**
+     * the number of rows of the Client and Product tables
+     */
+    @Param({"10000", "1000000"})
+    public int rows;
+
+    /**
+     * the Controller generating the reports
+     */
+    private Controller controller;
+
+    /**
+     * method used to empty the database and fill the Client and Product tables
+     */
+    @Setup(Level.Trial)
+    public void setup(){
+        new DatabaseBLL().deleteAll();
+        List<Client> clients = new ArrayList<>(rows);
+        List<Product> products = new ArrayList<>(rows);
+        for(int i = 0; i < rows; i++){
+            clients.add(new Client("Client " + i, "Street " + i, 0));
+            products.add(new Product("product" + i, 1.5f + i % 100, 100 + i % 1000, 0));
+        }
+        new ClientBLL().insertClients(clients);
+        new ProductBLL().insertProducts(products);
+        controller = new Controller();
+    }
+
+    /**
+     * method used to delete the generated reports and release the storage
+     * @throws IOException if a report cannot be deleted
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(Paths.get("Client Report Time" + REPORT_ID + ".pdf"));
+        Files.deleteIfExists(Paths.get("Product Report Time" + REPORT_ID + ".pdf"));
+        StorageFactory.getStorage().shutdown();
+    }
+
+    /**
+     * method generating the report of the Client table
+     */
+    @Benchmark
+    public void clientReport(){
+        controller.generateClientReport(REPORT_ID);
+    }
+
+    /**
+     * method generating the report of the Product table
+     */
+    @Benchmark
+    public void productReport(){
+        controller.generateProductReport(REPORT_ID);
+    }
+}
@@ -0,0 +1,23 @@
+package annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation giving the name of the column corresponding to a field of a model class
+ * if a field is not annotated, the name of the field is used
+ */
+
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface Column {
+
+    /**
+     * @return the name of the column
+     */
+    String value();
+}
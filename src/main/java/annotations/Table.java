@@ -0,0 +1,23 @@
+package annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation giving the name of the table corresponding to a model class
+ * if a model class is not annotated, the simple name of the class is used
+ */
+
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Table {
+
+    /**
+     * @return the name of the table
+     */
+    String value();
+}
@@ -1,10 +1,22 @@
 package bll;
 
 import model.Client;
-import dao.ClientDAO;
-import model.Order;
+import storage.Checkpoint;
+import storage.ClientStore;
+import storage.OrderStore;
+import storage.Storage;
+import storage.StorageFactory;
+import storage.Transaction;
 
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Business Logic class for the Client table, implementing methods used to further enhance the usage of the SQL queries
@@ -13,60 +25,89 @@ import java.util.List;
 public class ClientBLL {
 
     /**
-     * instance of the ClientDAO class
+     * the Storage holding the tables
      */
-    private ClientDAO cDAO = new ClientDAO();
+    private Storage storage = StorageFactory.getStorage();
+    /**
+     * the Client table of the storage
+     */
+    private ClientStore cDAO = storage.clients();
+    /**
+     * the Order table of the storage, used to delete the order of a deleted client
+     */
+    private OrderStore oDAO = storage.orders();
+    /**
+     * case-insensitive index from the name of a client to its id, shared by all the instances of the class
+     */
+    private static final NameIndex NAME_INDEX = new NameIndex();
+    /**
+     * read-through cache of the clients, keyed by their id, shared by all the instances of the class
+     */
+    private static final EntityCache<Client> CACHE = new EntityCache<>();
+    /**
+     * used to generate the log message in case of a warning
+     */
+    private static final Logger LOGGER = Logger.getLogger(ClientBLL.class.getName());
 
     /**
-     * method to retrieve the largest id present in the Client table, to avoid overwriting data
-     * @return the largest id in the Client table
+     * method used to retrieve the cache of the clients, e.g. to read its hit / miss / eviction counters
+     * @return the EntityCache of the Client table
      */
-    private int getCurrentId(){
-        if(cDAO.findAll() == null){
-            return 1;
-        }
-        return cDAO.findAll().size()+1;
+    public static EntityCache<Client> getCache(){
+        return CACHE;
+    }
+
+    /**
+     * method used to clear the name index and the cache, after the table was changed as a whole, e.g. when the database is reset
+     */
+    static void clearCaches(){
+        NAME_INDEX.clear();
+        CACHE.clear();
     }
 
     /**
      * method used to find a certain client with a specified name
+     * the id is taken from the in-process name index or, if the name is not indexed yet, from the Client table through its name index
      * @param name String representing the name of the client to be searched
      * @return an int representing the id of the client with the given name or -1 in case the client is not found
      */
     public int findClientByName(String name){
-        if(cDAO.findAll() != null){
-            for(Client c : cDAO.findAll()){
-                if(name.equalsIgnoreCase(c.getName())){
-                    return c.getIdClient();
-                }
-            }
+        int id = NAME_INDEX.get(name);
+        if(id != -1){
+            return id;
         }
-        return -1;
+        Client client = cDAO.findByName(name);
+        if(client == null){
+            return -1;
+        }
+        NAME_INDEX.put(client.getName(), client.getIdClient());
+        return client.getIdClient();
     }
 
     /**
      * method used to find a certain client with a specified id
      * @param id int representing the id of the client to be searched
+     * the client is taken from the cache, if present; the returned object is shared, so it must not be changed
      * @return a Client object representing the corresponding client or null, if the client was not found
      */
     public Client findClientById(int id){
-        Client client = cDAO.findById(id);
-        if(client == null){
-            return null;
-        }
-        return client;
+        return CACHE.get(id, cDAO::findById);
     }
 
     /**
      * method used to retrieve all the clients from the table
-     * @return a list of Client objects or null, in case the table is empty
+     * @return a list of Client objects; empty, in case the table is empty
      */
     public List<Client> findAllClients(){
-        List<Client> clients = cDAO.findAll();
-        if(clients == null){
-            return null;
-        }
-        return clients;
+        return cDAO.findAll();
+    }
+
+    /**
+     * method used to pass all the clients from the table to an action, one at a time, without loading the whole table in memory
+     * @param action Consumer called for each Client object
+     */
+    public void forEachClient(Consumer<Client> action){
+        cDAO.forEach(action);
     }
 
     /**
@@ -77,34 +118,131 @@ public class ClientBLL {
      * @return -1 if the client already exists, 1 if it does not
      */
     public int insertClient(String name, String address){
-        boolean exists = false;
-        if(cDAO.findAll() != null){
-            for(Client c : cDAO.findAll()){
-                if(name.equalsIgnoreCase(c.getName())){
-                    exists = true;
-                    c.setAddress(address);
-                    c.setDeleted(0);
-                    cDAO.update(c);
-                    return -1;
-                }
+        int id = findClientByName(name);
+        if(id != -1){
+            Client c = cDAO.findById(id);
+            if(c != null){
+                c.setAddress(address);
+                c.setDeleted(0);
+                cDAO.update(c);
+                CACHE.invalidate(id);
+                return -1;
             }
+            NAME_INDEX.remove(name);
         }
-        if(exists == false){
-            int id = getCurrentId();
-            cDAO.insert(new Client(id, name, address, 0));
+        id = cDAO.insert(new Client(name, address, 0));
+        if(id != -1){
+            NAME_INDEX.put(name, id);
         }
         return 0;
     }
 
+    /**
+     * method used to insert several clients in the database, with the same effect as calling insertClient() for each of them
+     * only the rows named in the batch are read, and the new / changed clients are written in batches, in a single transaction
+     * @param data list of Client objects containing the name and the address of each client to be inserted
+     */
+    public void insertClients(List<Client> data){
+        insertClients(data, Checkpoint.NONE);
+    }
+
+    /**
+     * method used to insert several clients in the database, like insertClients(List), together with a checkpoint
+     * the new and changed clients and the checkpoint are written in a single transaction; the name index and the cache are only
+     * updated once it is committed
+     * @param data list of Client objects containing the name and the address of each client to be inserted
+     * @param checkpoint the Checkpoint written in the same transaction
+     * @return true if the clients were written, false if the transaction was rolled back
+     */
+    public boolean insertClients(List<Client> data, Checkpoint checkpoint){
+        Map<String, Client> existing = findExisting(data);
+        Map<String, Client> inserts = new LinkedHashMap<>();
+        Map<String, Client> updates = new LinkedHashMap<>();
+        for(Client d : data){
+            String key = d.getName().toLowerCase();
+            Client c = existing.get(key);
+            if(c == null){
+                c = new Client(d.getName(), d.getAddress(), 0);
+                existing.put(key, c);
+                inserts.put(key, c);
+            }
+            else{
+                c.setAddress(d.getAddress());
+                c.setDeleted(0);
+                if(!inserts.containsKey(key)){
+                    updates.put(key, c);
+                }
+            }
+        }
+        try(Transaction tx = storage.begin()){
+            cDAO.insertAll(tx, new ArrayList<>(inserts.values()));
+            cDAO.updateAll(tx, new ArrayList<>(updates.values()));
+            checkpoint.write(tx);
+            tx.commit();
+        }catch(SQLException e){
+            LOGGER.log(Level.WARNING, "ClientBLL:insertClients " + e.getMessage());
+            return false;
+        }finally{
+            for(Client c : updates.values()){
+                CACHE.invalidate(c.getIdClient());
+            }
+        }
+        for(Client c : inserts.values()){
+            NAME_INDEX.put(c.getName(), c.getIdClient());
+        }
+        return true;
+    }
+
+    /**
+     * method used to read the existing rows of the clients named in a batch, instead of the whole table
+     * the names in the name index are read by their ids, the others by their names, so a batch costs at most two lookups
+     * @param data list of Client objects containing the names to be searched
+     * @return the existing clients, by their lower-case name
+     */
+    private Map<String, Client> findExisting(List<Client> data){
+        Map<String, String> names = new LinkedHashMap<>();
+        for(Client d : data){
+            names.putIfAbsent(d.getName().toLowerCase(), d.getName());
+        }
+        List<Integer> ids = new ArrayList<>();
+        for(String name : names.values()){
+            int id = NAME_INDEX.get(name);
+            if(id != -1){
+                ids.add(id);
+            }
+        }
+        Map<String, Client> existing = new HashMap<>();
+        if(!ids.isEmpty()){
+            for(Client c : cDAO.findAllByIds(ids)){
+                existing.putIfAbsent(c.getName().toLowerCase(), c);
+            }
+        }
+        List<String> misses = new ArrayList<>();
+        for(Map.Entry<String, String> e : names.entrySet()){
+            if(!existing.containsKey(e.getKey())){
+                misses.add(e.getValue());
+            }
+        }
+        if(!misses.isEmpty()){
+            for(Client c : cDAO.findAllByNames(misses)){
+                if(existing.putIfAbsent(c.getName().toLowerCase(), c) == null){
+                    NAME_INDEX.put(c.getName(), c.getIdClient());
+                }
+            }
+        }
+        return existing;
+    }
+
     /**
      * method to update an existing client from the database
      * @param client Client to be updated
      */
     public void updateClient(Client client){
-        if(cDAO.findById(client.getIdClient()) == null){
+        if(findClientById(client.getIdClient()) == null){
             return;
         }
         cDAO.update(client);
+        CACHE.invalidate(client.getIdClient());
     }
 
     /**
@@ -112,10 +250,12 @@ public class ClientBLL {
      * @param client Client to be deleted from the database
      */
     public void deleteClient(Client client){
-        if(cDAO.findById(client.getIdClient()) == null){
+        if(findClientById(client.getIdClient()) == null){
             return;
         }
         cDAO.delete(client);
+        CACHE.invalidate(client.getIdClient());
+        NAME_INDEX.remove(client.getName());
         OrderBLL oBLL = new OrderBLL();
         if(oBLL.findOrderByIdClient(client.getIdClient()) != null){
             oBLL.deleteOrder(oBLL.findOrderByIdClient(client.getIdClient()));
@@ -125,21 +265,40 @@ public class ClientBLL {
     /**
      * method to apparently delete a client from the database
      * does not truly delete the client, but it changes the "deleted" flag from 0 to 1
+     * the client and its order are flagged by two set-based updates, in a single transaction
      * @param name the name of the client to be deleted from the database
      */
     public void deleteClientByFlag(String name){
+        deleteClientByFlag(name, Checkpoint.NONE);
+    }
+
+    /**
+     * method to apparently delete a client from the database, like deleteClientByFlag(String), together with a checkpoint
+     * the checkpoint is written in the transaction flagging the client, or in a transaction of its own if there is no such client
+     * @param name the name of the client to be deleted from the database
+     * @param checkpoint the Checkpoint written in the same transaction
+     * @return true if the transaction was committed, false if it was rolled back
+     */
+    public boolean deleteClientByFlag(String name, Checkpoint checkpoint){
         int id = findClientByName(name);
-        if(id == -1){
-            return;
+        if(id == -1 && checkpoint == Checkpoint.NONE){
+            return true;
         }
-        Client client = cDAO.findById(id);
-        client.setDeleted(1);
-        cDAO.update(client);
-        OrderBLL oBLL = new OrderBLL();
-        Order o = oBLL.findOrderByIdClient(client.getIdClient());
-        if(o != null){
-            o.setDeleted(1);
-            oBLL.updateOrder(o);
+        try(Transaction tx = storage.begin()){
+            if(id != -1){
+                cDAO.markDeleted(tx, id);
+                oDAO.markDeletedByClient(tx, id);
+            }
+            checkpoint.write(tx);
+            tx.commit();
+            return true;
+        }catch(SQLException e){
+            LOGGER.log(Level.WARNING, "ClientBLL:deleteClientByFlag " + e.getMessage());
+        }finally{
+            if(id != -1){
+                CACHE.invalidate(id);
+            }
         }
+        return false;
     }
 }
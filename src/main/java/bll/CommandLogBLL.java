@@ -0,0 +1,152 @@
+package bll;
+
+import model.AppliedCommand;
+import model.FailedOrder;
+import storage.Checkpoint;
+import storage.EntityStore;
+import storage.Storage;
+import storage.StorageFactory;
+import storage.Transaction;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Business Logic class for the command log of a journaled run: the AppliedCommand and FailedOrder tables
+ * every command records its position in the input in the same transaction as its changes, through the Checkpoint returned by applied()
+ * or refused(), so after a crash the database itself tells exactly which commands were applied and which orders were refused
+ */
+
+public class CommandLogBLL {
+
+    /**
+     * the Storage holding the tables
+     */
+    private Storage storage = StorageFactory.getStorage();
+    /**
+     * the AppliedCommand table of the storage
+     */
+    private EntityStore<AppliedCommand> acDAO = storage.appliedCommands();
+    /**
+     * the FailedOrder table of the storage
+     */
+    private EntityStore<FailedOrder> foDAO = storage.failedOrders();
+    /**
+     * used to generate the log message in case of a warning
+     */
+    private static final Logger LOGGER = Logger.getLogger(CommandLogBLL.class.getName());
+
+    /**
+     * method used to create the checkpoint recording that a command was applied
+     * @param position int representing the position of the command in the input
+     * @return the Checkpoint to be written in the transaction of the command
+     */
+    public Checkpoint applied(int position){
+        return tx -> acDAO.insert(tx, new AppliedCommand(position, position));
+    }
+
+    /**
+     * method used to create the checkpoint recording that several commands, e.g. the inserts of a batch, were applied
+     * @param positions the PositionSet containing the positions of the commands in the input
+     * @return the Checkpoint to be written in the transaction of the commands, inserting one row for each range of positions
+     */
+    public Checkpoint applied(PositionSet positions){
+        List<AppliedCommand> rows = positions.toRows();
+        return tx -> acDAO.insertAll(tx, rows);
+    }
+
+    /**
+     * method used to create the checkpoint recording that an order was refused because of insufficient stock
+     * the order is stored with its position, so that its notification can be restored, and its position is recorded as applied
+     * @param position int representing the position of the order in the input
+     * @param client String representing the name of the client
+     * @param product String representing the name of the product
+     * @param quantity int representing the ordered quantity
+     * @return the Checkpoint to be written in the transaction refusing the order
+     */
+    public Checkpoint refused(int position, String client, String product, int quantity){
+        return tx -> {
+            foDAO.insert(tx, new FailedOrder(position, client, product, quantity));
+            acDAO.insert(tx, new AppliedCommand(position, position));
+        };
+    }
+
+    /**
+     * method used to write a checkpoint in a transaction of its own, for the commands which do not change any table, e.g. the reports
+     * @param checkpoint the Checkpoint to be written
+     * @return true if the checkpoint was committed, false otherwise
+     */
+    public boolean write(Checkpoint checkpoint){
+        try(Transaction tx = storage.begin()){
+            checkpoint.write(tx);
+            tx.commit();
+            return true;
+        }catch(SQLException e){
+            LOGGER.log(Level.WARNING, "CommandLogBLL:write " + e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * method used to read the positions of all the applied commands
+     * @return a PositionSet containing the positions recorded in the AppliedCommand table
+     */
+    public PositionSet findApplied(){
+        PositionSet applied = new PositionSet();
+        acDAO.forEach(a -> applied.add(a.getFirstPosition(), a.getLastPosition()));
+        return applied;
+    }
+
+    /**
+     * method used to read all the refused orders
+     * @return a list of FailedOrder objects, in position order
+     */
+    public List<FailedOrder> findFailedOrders(){
+        return foDAO.findAll();
+    }
+
+    /**
+     * method used to merge the rows of the AppliedCommand table into one row for each range of consecutive positions
+     * the rows which are read are deleted by their keys, in the same transaction which inserts the merged ones, so the rows written
+     * meanwhile by other threads are kept; the table then stays small however many commands are applied
+     * @return true if the table was compacted or did not need it, false if the transaction was rolled back
+     */
+    public boolean compact(){
+        List<AppliedCommand> rows = acDAO.findAll();
+        PositionSet merged = new PositionSet();
+        for(AppliedCommand a : rows){
+            merged.add(a.getFirstPosition(), a.getLastPosition());
+        }
+        List<AppliedCommand> ranges = merged.toRows();
+        if(ranges.size() == rows.size()){
+            return true;
+        }
+        try(Transaction tx = storage.begin()){
+            acDAO.deleteAll(tx, rows);
+            acDAO.insertAll(tx, ranges);
+            tx.commit();
+            return true;
+        }catch(SQLException e){
+            LOGGER.log(Level.WARNING, "CommandLogBLL:compact " + e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * method used to empty the command log, before a new run is journaled
+     * @return true if the tables were emptied, false if the transaction was rolled back
+     */
+    public boolean deleteAll(){
+        try(Transaction tx = storage.begin()){
+            foDAO.deleteAll(tx);
+            acDAO.deleteAll(tx);
+            tx.commit();
+            return true;
+        }catch(SQLException e){
+            LOGGER.log(Level.WARNING, "CommandLogBLL:deleteAll " + e.getMessage());
+        }
+        return false;
+    }
+}
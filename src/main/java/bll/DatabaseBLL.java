@@ -0,0 +1,79 @@
+package bll;
+
+import storage.Storage;
+import storage.StorageFactory;
+import storage.Transaction;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Business Logic class for the whole database, implementing the operations which affect all the tables at once
+ */
+
+public class DatabaseBLL {
+
+    /**
+     * the Storage holding the tables
+     */
+    private Storage storage = StorageFactory.getStorage();
+
+    /**
+     * used to generate the log message in case of a warning
+     */
+    private static final Logger LOGGER = Logger.getLogger(DatabaseBLL.class.getName());
+
+    /**
+     * method used to empty all the tables, in dependency order (order items, orders, clients, products, then the stock deltas and the command log),
+     * in a single transaction
+     * the name indexes and caches of the clients and products are cleared afterwards
+     * @return true if the tables were emptied, false if the transaction was rolled back
+     */
+    public boolean deleteAll(){
+        try(Transaction tx = storage.begin()){
+            storage.orderItems().deleteAll(tx);
+            storage.orders().deleteAll(tx);
+            storage.clients().deleteAll(tx);
+            storage.products().deleteAll(tx);
+            storage.stockDeltas().deleteAll(tx);
+            storage.failedOrders().deleteAll(tx);
+            storage.appliedCommands().deleteAll(tx);
+            tx.commit();
+            return true;
+        }catch(SQLException e){
+            LOGGER.log(Level.WARNING, "DatabaseBLL:deleteAll " + e.getMessage());
+        }finally{
+            clearCaches();
+        }
+        return false;
+    }
+
+    /**
+     * method used to restore the database from a snapshot script, e.g. SQLdumps/Dump_empty.sql, which recreates the tables and their data
+     * the name indexes and caches of the clients and products are cleared afterwards
+     * @param snapshot String representing the path of the SQL script
+     * @return true if the whole script was executed, false otherwise, e.g. if the storage cannot execute SQL scripts
+     */
+    public boolean restore(String snapshot){
+        try{
+            storage.restore(Paths.get(snapshot));
+            return true;
+        }catch(IOException | SQLException | UnsupportedOperationException e){
+            LOGGER.log(Level.WARNING, "DatabaseBLL:restore " + snapshot + " " + e.getMessage());
+        }finally{
+            clearCaches();
+        }
+        return false;
+    }
+
+    /**
+     * method used to forget the clients and products kept in memory, after the tables were changed as a whole
+     */
+    private void clearCaches(){
+        ClientBLL.clearCaches();
+        ProductBLL.clearCaches();
+    }
+}
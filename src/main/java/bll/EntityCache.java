@@ -0,0 +1,208 @@
+package bll;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+/**
+ * Bounded, in-process read-through cache of the rows of a table, keyed by their id
+ * the least recently used entry is evicted once the cache holds maxSize entries, and an entry older than ttl milliseconds is reloaded
+ * the BLL classes invalidate an entry whenever they change the corresponding row, so the cache never serves a row older than the last write made through them
+ * @param <T> the type of the cached objects
+ */
+
+public class EntityCache<T> {
+
+    /**
+     * the default maximum number of entries of a cache; can be changed with -Dmanagement.cache.maxSize
+     */
+    private static final int DEFAULT_MAX_SIZE = Integer.getInteger("management.cache.maxSize", 10000);
+    /**
+     * the default time, in milliseconds, after which an entry is reloaded; can be changed with -Dmanagement.cache.ttl
+     */
+    private static final long DEFAULT_TTL = Long.getLong("management.cache.ttl", 60000L);
+
+    /**
+     * the maximum number of entries kept in the cache
+     */
+    private final int maxSize;
+    /**
+     * the time, in nanoseconds, after which an entry is reloaded from the table
+     */
+    private final long ttlNanos;
+    /**
+     * the cached entries, in access order
+     */
+    private final LinkedHashMap<Integer, CachedRow<T>> entries;
+    /**
+     * incremented by every invalidation, so that a row loaded before an invalidation is not cached after it
+     */
+    private long version = 0;
+
+    /**
+     * the number of lookups answered from the cache
+     */
+    private final AtomicLong hits = new AtomicLong();
+    /**
+     * the number of lookups which had to read the table
+     */
+    private final AtomicLong misses = new AtomicLong();
+    /**
+     * the number of entries removed because the cache was full or because they expired
+     */
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * constructor creating an empty cache with the default size and time to live
+     */
+    EntityCache(){
+        this(DEFAULT_MAX_SIZE, DEFAULT_TTL);
+    }
+
+    /**
+     * constructor creating an empty cache
+     * @param maxSize int representing the maximum number of entries
+     * @param ttl long representing the time, in milliseconds, after which an entry is reloaded
+     */
+    EntityCache(int maxSize, long ttl){
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl * 1_000_000L;
+        this.entries = new LinkedHashMap<Integer, CachedRow<T>>(16, 0.75f, true){
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, CachedRow<T>> eldest){
+                if(size() > EntityCache.this.maxSize){
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * method used to find the object with a given id, reading it through the loader if it is not cached or has expired
+     * the returned object is shared by all the callers, so it must not be changed
+     * @param id int representing the id of the object
+     * @param loader function reading the object with the given id from the table, returning null if it does not exist
+     * @return the object with the given id or null, if it does not exist; missing rows are not cached
+     */
+    T get(int id, IntFunction<T> loader){
+        long loadVersion;
+        synchronized(this){
+            CachedRow<T> entry = entries.get(id);
+            if(entry != null){
+                if(System.nanoTime() - entry.loadedAt < ttlNanos){
+                    hits.incrementAndGet();
+                    return entry.value;
+                }
+                entries.remove(id);
+                evictions.incrementAndGet();
+            }
+            loadVersion = version;
+        }
+        misses.incrementAndGet();
+        T value = loader.apply(id);
+        if(value != null){
+            synchronized(this){
+                if(version == loadVersion){
+                    entries.put(id, new CachedRow<>(value, System.nanoTime()));
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * method used to remove the object with a given id, after the corresponding row was changed
+     * @param id int representing the id of the changed row
+     */
+    synchronized void invalidate(int id){
+        version++;
+        entries.remove(id);
+    }
+
+    /**
+     * method used to remove all the objects, e.g. after the table was emptied
+     */
+    synchronized void clear(){
+        version++;
+        entries.clear();
+    }
+
+    /**
+     * @return the number of entries currently in the cache
+     */
+    public synchronized int getSize(){
+        return entries.size();
+    }
+
+    /**
+     * @return the maximum number of entries kept in the cache
+     */
+    public int getMaxSize(){
+        return maxSize;
+    }
+
+    /**
+     * @return the number of lookups answered from the cache
+     */
+    public long getHitCount(){
+        return hits.get();
+    }
+
+    /**
+     * @return the number of lookups which had to read the table
+     */
+    public long getMissCount(){
+        return misses.get();
+    }
+
+    /**
+     * @return the number of entries removed because the cache was full or because they expired
+     */
+    public long getEvictionCount(){
+        return evictions.get();
+    }
+
+    /**
+     * @return the fraction of the lookups answered from the cache, between 0 and 1
+     */
+    public double getHitRatio(){
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    @Override
+    public String toString(){
+        return "EntityCache[size=" + getSize() + ", max=" + maxSize + ", hits=" + getHitCount() + ", misses=" + getMissCount()
+                + ", evictions=" + getEvictionCount() + "]";
+    }
+
+    /**
+     * A cached object, together with the time it was read
+     * @param <T> the type of the cached object
+     */
+    private static class CachedRow<T> {
+
+        /**
+         * the cached object
+         */
+        private final T value;
+        /**
+         * the System.nanoTime() at which the object was read from the table
+         */
+        private final long loadedAt;
+
+        /**
+         * constructor containing all the fields
+         * @param value the cached object
+         * @param loadedAt long representing the time at which the object was read
+         */
+        private CachedRow(T value, long loadedAt){
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package bll;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process, case-insensitive index from the name of a client / product to its id
+ * it only holds names already seen in the database, so a missing name still has to be searched in the table
+ */
+
+class NameIndex {
+
+    /**
+     * the ids, keyed by the lower-case name
+     */
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+
+    /**
+     * method used to find the id associated with a name
+     * @param name String representing the name to be searched
+     * @return an int representing the id associated with the name or -1, in case the name is not indexed
+     */
+    int get(String name){
+        Integer id = ids.get(key(name));
+        if(id == null){
+            return -1;
+        }
+        return id;
+    }
+
+    /**
+     * method used to associate a name with an id
+     * @param name String representing the name
+     * @param id int representing the id
+     */
+    void put(String name, int id){
+        ids.put(key(name), id);
+    }
+
+    /**
+     * method used to remove a name from the index, e.g. after the corresponding row was deleted
+     * @param name String representing the name to be removed
+     */
+    void remove(String name){
+        ids.remove(key(name));
+    }
+
+    /**
+     * method used to remove all the names from the index
+     */
+    void clear(){
+        ids.clear();
+    }
+
+    /**
+     * method used to normalize a name, so that the lookups are case-insensitive
+     * @param name String representing the name
+     * @return the lower-case name
+     */
+    private static String key(String name){
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
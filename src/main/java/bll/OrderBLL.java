@@ -1,12 +1,22 @@
 package bll;
 
-import dao.OrderDAO;
 import model.Order;
 import model.OrderItem;
-import model.Product;
+import model.StockDelta;
+import storage.Checkpoint;
+import storage.EntityStore;
+import storage.OrderItemStore;
+import storage.OrderStore;
+import storage.ProductStore;
+import storage.Storage;
+import storage.StorageFactory;
+import storage.Transaction;
 
+import java.sql.SQLException;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Business Logic class for the Order table, implementing methods used to further enhance the usage of the SQL queries
@@ -15,20 +25,30 @@ import java.util.NoSuchElementException;
 public class OrderBLL {
 
     /**
-     * instance of the OrderDAO class
+     * the Storage holding the tables
      */
-    private OrderDAO oDAO = new OrderDAO();
+    private Storage storage = StorageFactory.getStorage();
+    /**
+     * the Order table of the storage
+     */
+    private OrderStore oDAO = storage.orders();
+    /**
+     * the Product table of the storage, used to update the stock when an order is placed
+     */
+    private ProductStore pDAO = storage.products();
+    /**
+     * the OrderItem table of the storage, used to store the items of a placed order
+     */
+    private OrderItemStore oiDAO = storage.orderItems();
+    /**
+     * the StockDelta table of the storage, used to store the stock taken by the orders admitted by the stock ledger
+     */
+    private EntityStore<StockDelta> sdDAO = storage.stockDeltas();
 
     /**
-     * method to retrieve the largest id present in the Order table, to avoid overwriting data
-     * @return the largest id in the Order table
+     * used to generate the log message in case of a warning
      */
-    private int getCurrentId(){
-        if(oDAO.findAll() == null){
-            return 1;
-        }
-        return oDAO.findAll().size()+1;
-    }
+    private static final Logger LOGGER = Logger.getLogger(OrderBLL.class.getName());
 
     /**
      * method used to find a certain order with a specified id
@@ -44,14 +64,10 @@ public class OrderBLL {
 
     /**
      * method used to retrieve all the orders from the table
-     * @return a list of Order objects or null, in case the table is empty
+     * @return a list of Order objects; empty, in case the table is empty
      */
     public List<Order> findAllOrders(){
-        List<Order> orders = oDAO.findAll();
-        if(orders == null){
-            return null;
-        }
-        return orders;
+        return oDAO.findAll();
     }
 
     /**
@@ -70,12 +86,30 @@ public class OrderBLL {
     /**
      * method used to insert an order in the database
      * if the order exists, it will update the existing order
-     * @param name String representing the name of the order to be inserted
-     * @param product String representing the address of the order to be inserted
+     * the stock check and decrement, the order total and the order item are written in a single transaction
+     * if the stock ledger is enabled, the stock is checked and taken in memory instead, and written to the table later by the ledger;
+     * the stock of the products whose ids are too large for the ledger is still checked and taken in the table
+     * @param name String representing the name of the client who placed the order
+     * @param product String representing the name of the ordered product
      * @param quantity int representing the quantity of the product in the order
-     * @return -1 if the client already exists, 1 if it does not
+     * @return 0 if the order was placed, -1 if there are not enough products in stock, -2 if the order could not be stored
      */
     public int insertOrder(String name, String product, int quantity){
+        return insertOrder(name, product, quantity, Checkpoint.NONE, Checkpoint.NONE);
+    }
+
+    /**
+     * method used to insert an order in the database, like insertOrder(String, String, int), recording its outcome with a checkpoint
+     * the placed checkpoint is written in the transaction of the order; the refused checkpoint is written and committed in a transaction
+     * of its own if there are not enough products in stock, so that a refused order is recorded as well
+     * @param name String representing the name of the client who placed the order
+     * @param product String representing the name of the ordered product
+     * @param quantity int representing the quantity of the product in the order
+     * @param placed the Checkpoint written if the order is placed
+     * @param refused the Checkpoint written if there are not enough products in stock
+     * @return 0 if the order was placed, -1 if there are not enough products in stock, -2 if the order or its checkpoint could not be stored
+     */
+    public int insertOrder(String name, String product, int quantity, Checkpoint placed, Checkpoint refused){
         ProductBLL pBLL = new ProductBLL();
         ClientBLL cBLL = new ClientBLL();
         int pId = pBLL.findProductByName(product);
@@ -83,25 +117,70 @@ public class OrderBLL {
         if(pId == -1 || cId == -1){
             throw new NoSuchElementException("Client / Product with name " + name + " / " + product + " not found");
         }
-        if(pBLL.findProductById(pId).getQuantity() < quantity){
-            return -1;
+        StockLedger ledger = ProductBLL.getLedger();
+        if(ledger != null && StockLedger.holds(pId)){
+            return insertAdmittedOrder(ledger, cId, pId, quantity, placed, refused);
         }
-        Product p = pBLL.findProductById(pId);
-        Order o = oDAO.findByIdClient(cId);
-        OrderItemBLL oiBLL = new OrderItemBLL();
-        if(o != null){
-            o.setTotal(o.getTotal() + (p.getPrice() * quantity));
-            oDAO.update(o);
-            oiBLL.insertOrderItem(new OrderItem(o.getIdOrder(), pId, quantity, 0));
+        try(Transaction tx = storage.begin()){
+            if(!pDAO.decrementStock(tx, pId, quantity)){
+                refused.write(tx);
+                tx.commit();
+                return -1;
+            }
+            int oId = oDAO.addToTotal(tx, cId, pId, quantity);
+            oiDAO.addQuantity(tx, oId, pId, quantity);
+            placed.write(tx);
+            tx.commit();
+            ProductBLL.invalidate(pId);
+            return 0;
+        }catch(SQLException e){
+            LOGGER.log(Level.WARNING, "OrderBLL:insertOrder " + e.getMessage());
         }
-        else{
-            int id = getCurrentId();
-            oDAO.insert(new Order(id, cId, p.getPrice() * quantity, 0));
-            oiBLL.insertOrderItem(new OrderItem(id, pId, quantity, 0));
+        return -2;
+    }
+
+    /**
+     * method used to place an order whose stock is checked by the stock ledger: the order total, the order item and the stock delta are written,
+     * and the ledger subtracts the delta from the Product table later
+     * @param ledger the StockLedger admitting the order
+     * @param cId int representing the id of the client
+     * @param pId int representing the id of the product
+     * @param quantity int representing the ordered quantity
+     * @param placed the Checkpoint written in the transaction of the order
+     * @param refused the Checkpoint written in a transaction of its own if there are not enough products in stock
+     * @return 0 if the order was placed, -1 if there are not enough products in stock, -2 if the order or its checkpoint could not be stored
+     */
+    private int insertAdmittedOrder(StockLedger ledger, int cId, int pId, int quantity, Checkpoint placed, Checkpoint refused){
+        if(!ledger.reserve(pId, quantity)){
+            if(refused == Checkpoint.NONE){
+                return -1;
+            }
+            try(Transaction tx = storage.begin()){
+                refused.write(tx);
+                tx.commit();
+                return -1;
+            }catch(SQLException e){
+                LOGGER.log(Level.WARNING, "OrderBLL:insertOrder " + e.getMessage());
+            }
+            return -2;
         }
-        p.setQuantity(p.getQuantity() - quantity);
-        pBLL.updateProduct(p);
-        return 0;
+        boolean stored = false;
+        try(Transaction tx = storage.begin()){
+            int oId = oDAO.addToTotal(tx, cId, pId, quantity);
+            oiDAO.addQuantity(tx, oId, pId, quantity);
+            sdDAO.insert(tx, new StockDelta(pId, quantity));
+            placed.write(tx);
+            tx.commit();
+            stored = true;
+            return 0;
+        }catch(SQLException e){
+            LOGGER.log(Level.WARNING, "OrderBLL:insertOrder " + e.getMessage());
+        }finally{
+            if(!stored){
+                ledger.release(pId, quantity);
+            }
+        }
+        return -2;
     }
 
     /**
@@ -136,20 +215,20 @@ public class OrderBLL {
     /**
      * method to apparently delete an order from the database
      * does not truly delete the order, but it changes the "deleted" flag from 0 to 1
+     * the order and all its items are flagged by two set-based updates, in a single transaction
      * @param order the Order to be deleted from the database
      */
     public void deleteOrderByFlag(Order order){
-        if(oDAO.findById(order.getIdOrder()) == null){
-            return;
-        }
-        order.setDeleted(1);
-        oDAO.update(order);
-        OrderItemBLL oiBLL = new OrderItemBLL();
-        if(oiBLL.findAllOrdersByOrderId(order.getIdOrder()) != null){
-            for(OrderItem oi : oiBLL.findAllOrdersByOrderId(order.getIdOrder())){
-                oi.setDeleted(1);
-                oiBLL.updateOrderItem(oi);
+        try(Transaction tx = storage.begin()){
+            if(oDAO.markDeleted(tx, order.getIdOrder()) == 0){
+                tx.rollback();
+                return;
             }
+            oiDAO.markDeletedByOrder(tx, order.getIdOrder());
+            tx.commit();
+            order.setDeleted(1);
+        }catch(SQLException e){
+            LOGGER.log(Level.WARNING, "OrderBLL:deleteOrderByFlag " + e.getMessage());
         }
     }
 }
@@ -1,9 +1,12 @@
 package bll;
 
-import dao.OrderItemDAO;
 import model.OrderItem;
+import storage.OrderItemStore;
+import storage.OrderReportHandler;
+import storage.StorageFactory;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Business Logic class for the OrderItem table, implementing methods used to further enhance the usage of the SQL queries
@@ -12,20 +15,24 @@ import java.util.List;
 public class OrderItemBLL {
 
     /**
-     * instance of the OrderItemDAO class
+     * the OrderItem table of the storage
      */
-    private OrderItemDAO oiDAO = new OrderItemDAO();
+    private OrderItemStore oiDAO = StorageFactory.getStorage().orderItems();
 
     /**
      * method used to retrieve all the orderIteams from the table
-     * @return a list of OrdetItem objects or null, in case the table is empty
+     * @return a list of OrdetItem objects; empty, in case the table is empty
      */
     public List<OrderItem> findAllOrderItems(){
-        List<OrderItem> orders = oiDAO.findAll();
-        if(orders == null){
-            return null;
-        }
-        return orders;
+        return oiDAO.findAll();
+    }
+
+    /**
+     * method used to pass all the orderItems from the table to an action, one at a time, without loading the whole table in memory
+     * @param action Consumer called for each OrderItem object
+     */
+    public void forEachOrderItem(Consumer<OrderItem> action){
+        oiDAO.forEach(action);
     }
 
     /**
@@ -54,6 +61,15 @@ public class OrderItemBLL {
         return orderItems;
     }
 
+    /**
+     * method to pass every row of the order report to a handler: the id of the order, the client, the product and the quantity
+     * only the items of clients and products which are not deleted are reported
+     * @param handler the OrderReportHandler receiving the rows
+     */
+    public void forEachOrderReportRow(OrderReportHandler handler){
+        oiDAO.forEachReportRow(handler);
+    }
+
     /**
      * method used to insert an orderItem in tha database
      * @param orderItem OrderItem object to be inserted
@@ -64,12 +80,10 @@ public class OrderItemBLL {
 
     /**
      * method to update an existing OrderItem from the database
+     * the item is selected by its (idorder, idproduct) primary key, so only that row is changed; a missing item is left unchanged
      * @param orderItem OrderItem to be updated
      */
     public void updateOrderItem(OrderItem orderItem){
-        if(oiDAO.findAllByIdOrder(orderItem.getIdOrder()) == null || oiDAO.findAllByIdProduct(orderItem.getIdProduct()) == null){
-            return;
-        }
         oiDAO.update(orderItem);
     }
 
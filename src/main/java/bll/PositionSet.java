@@ -0,0 +1,103 @@
+package bll;
+
+import model.AppliedCommand;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Set of command positions, kept as sorted, disjoint and non-adjacent ranges, so that a run of consecutive positions takes one entry
+ * used for the positions of the applied and of the journaled commands, which are mostly consecutive
+ */
+
+public class PositionSet {
+
+    /**
+     * the last position of each range, keyed by the first position of the range
+     */
+    private final TreeMap<Integer, Integer> ranges = new TreeMap<>();
+    /**
+     * the number of positions in the set
+     */
+    private long size = 0;
+
+    /**
+     * method used to add a position to the set
+     * @param position int representing the added position
+     */
+    public void add(int position){
+        add(position, position);
+    }
+
+    /**
+     * method used to add a range of positions to the set, merging it with the ranges it overlaps or touches
+     * @param first int representing the first added position
+     * @param last int representing the last added position, not lower than first
+     */
+    public void add(int first, int last){
+        Map.Entry<Integer, Integer> before = ranges.floorEntry(first);
+        if(before != null && before.getValue() >= first - 1){
+            if(before.getValue() >= last){
+                return;
+            }
+            first = before.getKey();
+            size -= before.getValue() - before.getKey() + 1;
+            ranges.remove(first);
+        }
+        Map.Entry<Integer, Integer> after = ranges.ceilingEntry(first);
+        while(after != null && after.getKey() <= last + 1){
+            last = Math.max(last, after.getValue());
+            size -= after.getValue() - after.getKey() + 1;
+            ranges.remove(after.getKey());
+            after = ranges.ceilingEntry(first);
+        }
+        ranges.put(first, last);
+        size += last - first + 1;
+    }
+
+    /**
+     * method to check if a position is in the set
+     * @param position int representing the position
+     * @return true if the position was added, false otherwise
+     */
+    public boolean contains(int position){
+        Map.Entry<Integer, Integer> range = ranges.floorEntry(position);
+        return range != null && range.getValue() >= position;
+    }
+
+    /**
+     * @return the number of positions in the set
+     */
+    public long size(){
+        return size;
+    }
+
+    /**
+     * @return true if the set contains no position
+     */
+    public boolean isEmpty(){
+        return size == 0;
+    }
+
+    /**
+     * method used to remove all the positions
+     */
+    public void clear(){
+        ranges.clear();
+        size = 0;
+    }
+
+    /**
+     * method to retrieve the ranges of the set as rows of the AppliedCommand table
+     * @return a list of AppliedCommand objects, one for each range, in position order
+     */
+    public List<AppliedCommand> toRows(){
+        List<AppliedCommand> rows = new ArrayList<>(ranges.size());
+        for(Map.Entry<Integer, Integer> range : ranges.entrySet()){
+            rows.add(new AppliedCommand(range.getKey(), range.getValue()));
+        }
+        return rows;
+    }
+}
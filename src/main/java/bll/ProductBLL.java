@@ -1,10 +1,23 @@
 package bll;
 
-import dao.ProductDAO;
 import model.OrderItem;
 import model.Product;
+import storage.Checkpoint;
+import storage.OrderItemStore;
+import storage.ProductStore;
+import storage.Storage;
+import storage.StorageFactory;
+import storage.Transaction;
 
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Business Logic class for the Product table, implementing methods used to further enhance the usage of the SQL queries
@@ -13,61 +26,151 @@ import java.util.List;
 public class ProductBLL {
 
     /**
-     * instance of the ProductDAO class
+     * the Storage holding the tables
      */
-    private ProductDAO pDAO = new ProductDAO();
+    private Storage storage = StorageFactory.getStorage();
+    /**
+     * the Product table of the storage
+     */
+    private ProductStore pDAO = storage.products();
+    /**
+     * the OrderItem table of the storage, used to delete the items of a deleted product
+     */
+    private OrderItemStore oiDAO = storage.orderItems();
+    /**
+     * case-insensitive index from the name of a product to its id, shared by all the instances of the class
+     */
+    private static final NameIndex NAME_INDEX = new NameIndex();
+    /**
+     * read-through cache of the products, keyed by their id, shared by all the instances of the class
+     */
+    private static final EntityCache<Product> CACHE = new EntityCache<>();
+    /**
+     * in-process ledger admitting the orders, enabled with -Dmanagement.stock.ledger=true; null if the stock is checked in the table,
+     * in which case the stock deltas left by a run with the ledger are written to the table when the class is loaded
+     */
+    private static final StockLedger LEDGER = Boolean.getBoolean("management.stock.ledger") ? new StockLedger(StorageFactory.getStorage()) : null;
+    /**
+     * used to generate the log message in case of a warning
+     */
+    private static final Logger LOGGER = Logger.getLogger(ProductBLL.class.getName());
+
+    static{
+        if(LEDGER == null){
+            StockLedger.applyStoredDeltas(StorageFactory.getStorage());
+        }
+    }
+
+    /**
+     * method used to retrieve the cache of the products, e.g. to read its hit / miss / eviction counters
+     * @return the EntityCache of the Product table
+     */
+    public static EntityCache<Product> getCache(){
+        return CACHE;
+    }
+
+    /**
+     * method used to retrieve the stock ledger, e.g. to read its counters or to flush it at the end of the execution
+     * @return the StockLedger or null, if it is not enabled
+     */
+    public static StockLedger getLedger(){
+        return LEDGER;
+    }
+
+    /**
+     * method used to clear the name index, the cache and the stock ledger, after the table was changed as a whole, e.g. when the database is reset
+     */
+    static void clearCaches(){
+        NAME_INDEX.clear();
+        CACHE.clear();
+        if(LEDGER != null){
+            LEDGER.clear();
+        }
+    }
+
+    /**
+     * method used to stop the flushes of the stock ledger, if enabled, before product rows are read and written back
+     * must be followed by endStockWrite()
+     */
+    private static void beginStockWrite(){
+        if(LEDGER != null){
+            LEDGER.beginWrite();
+        }
+    }
+
+    /**
+     * method used to update the stock ledger, if enabled, with the products changed since beginStockWrite()
+     * @param ids the ids of the changed products
+     */
+    private static void endStockWrite(int... ids){
+        if(LEDGER != null){
+            LEDGER.endWrite(ids);
+        }
+    }
 
     /**
-     * method to retrieve the largest id present in the Product table, to avoid overwriting data
-     * @return the largest id in the Product table
+     * method used to write the stock taken by the orders admitted by the ledger to the table, before the products are read from it
      */
-    private int getCurrentId(){
-        if(pDAO.findAll() == null){
-            return 1;
+    private static void flushStock(){
+        if(LEDGER != null){
+            LEDGER.flush();
         }
-        return pDAO.findAll().size()+1;
+    }
+
+    /**
+     * method used to remove a product from the cache, after its row was changed outside this class, e.g. when its stock is decremented
+     * @param id int representing the id of the changed product
+     */
+    static void invalidate(int id){
+        CACHE.invalidate(id);
     }
 
     /**
      * method used to find a certain product with a specified name
+     * the id is taken from the in-process name index or, if the name is not indexed yet, from the Product table through its name index
      * @param name String representing teh name of the product to be searched
      * @return an int representing the id of the product with the given name or -1 in case the product is not found
      */
     public int findProductByName(String name){
-        if(pDAO.findAll() != null)
-        {
-            for(Product p : pDAO.findAll()){
-                if(name.equalsIgnoreCase(p.getName())){
-                    return p.getIdProduct();
-                }
-            }
+        int id = NAME_INDEX.get(name);
+        if(id != -1){
+            return id;
         }
-        return -1;
+        Product product = pDAO.findByName(name);
+        if(product == null){
+            return -1;
+        }
+        NAME_INDEX.put(product.getName(), product.getIdProduct());
+        return product.getIdProduct();
     }
 
     /**
      * method used to find a certain product with a specified id
      * @param id int representing the id of the product to be searched
+     * the product is taken from the cache, if present; the returned object is shared, so it must not be changed
      * @return a Product object representing the corresponding product or null, if the product was not found
      */
     public Product findProductById(int id){
-        Product product = pDAO.findById(id);
-        if(product == null){
-            return null;
-        }
-        return product;
+        flushStock();
+        return CACHE.get(id, pDAO::findById);
     }
 
     /**
      * method used to retrieve all the products from the table
-     * @return a list of Product objects or null, in case the table is empty
+     * @return a list of Product objects; empty, in case the table is empty
      */
     public List<Product> findAllProducts(){
-        List<Product> products = pDAO.findAll();
-        if(products == null){
-            return null;
-        }
-        return products;
+        flushStock();
+        return pDAO.findAll();
+    }
+
+    /**
+     * method used to pass all the products from the table to an action, one at a time, without loading the whole table in memory
+     * @param action Consumer called for each Product object
+     */
+    public void forEachProduct(Consumer<Product> action){
+        flushStock();
+        pDAO.forEach(action);
     }
 
     /**
@@ -79,24 +182,149 @@ public class ProductBLL {
      * @return -1 if the client already exists, 1 if it does not
      */
     public int insertProduct(String name, int quantity, float price){
-        boolean exists = false;
-        if(pDAO.findAll() != null){
-            for(Product p : pDAO.findAll()){
-                if(name.equalsIgnoreCase(p.getName())){
-                    exists = true;
+        int id = -1;
+        beginStockWrite();
+        try{
+            id = findProductByName(name);
+            if(id != -1){
+                Product p = pDAO.findById(id);
+                if(p != null){
                     p.setPrice(price);
                     p.setQuantity(p.getQuantity() + quantity);
                     p.setDeleted(0);
                     pDAO.update(p);
+                    CACHE.invalidate(id);
                     return -1;
                 }
+                NAME_INDEX.remove(name);
+            }
+            id = pDAO.insert(new Product(name, price, quantity, 0));
+            if(id != -1){
+                NAME_INDEX.put(name, id);
+            }
+            return 0;
+        }finally{
+            endStockWrite(id);
+        }
+    }
+
+    /**
+     * method used to insert several products in the database, with the same effect as calling insertProduct() for each of them
+     * only the rows named in the batch are read, and the new / changed products are written in batches, in a single transaction
+     * @param data list of Product objects containing the name, the quantity and the price of each product to be inserted
+     */
+    public void insertProducts(List<Product> data){
+        insertProducts(data, Checkpoint.NONE);
+    }
+
+    /**
+     * method used to insert several products in the database, like insertProducts(List), together with a checkpoint
+     * the new and changed products and the checkpoint are written in a single transaction; the name index is only updated once it is committed
+     * @param data list of Product objects containing the name, the quantity and the price of each product to be inserted
+     * @param checkpoint the Checkpoint written in the same transaction
+     * @return true if the products were written, false if the transaction was rolled back
+     */
+    public boolean insertProducts(List<Product> data, Checkpoint checkpoint){
+        beginStockWrite();
+        Map<String, Product> updates = new LinkedHashMap<>();
+        try{
+            return upsertProducts(data, updates, checkpoint);
+        }finally{
+            int[] changed = new int[updates.size()];
+            int i = 0;
+            for(Product p : updates.values()){
+                changed[i++] = p.getIdProduct();
+            }
+            endStockWrite(changed);
+        }
+    }
+
+    /**
+     * method used to write the products of insertProducts(), once the flushes of the stock ledger are stopped
+     * @param data list of Product objects containing the name, the quantity and the price of each product to be inserted
+     * @param updates the map receiving the existing products which are updated, by their lower-case name
+     * @param checkpoint the Checkpoint written in the same transaction
+     * @return true if the products were written, false if the transaction was rolled back
+     */
+    private boolean upsertProducts(List<Product> data, Map<String, Product> updates, Checkpoint checkpoint){
+        Map<String, Product> existing = findExisting(data);
+        Map<String, Product> inserts = new LinkedHashMap<>();
+        for(Product d : data){
+            String key = d.getName().toLowerCase();
+            int quantity = d.getQuantity();
+            float price = d.getPrice();
+            Product p = existing.get(key);
+            if(p == null){
+                p = new Product(d.getName(), price, quantity, 0);
+                existing.put(key, p);
+                inserts.put(key, p);
+            }
+            else{
+                p.setPrice(price);
+                p.setQuantity(p.getQuantity() + quantity);
+                p.setDeleted(0);
+                if(!inserts.containsKey(key)){
+                    updates.put(key, p);
+                }
+            }
+        }
+        try(Transaction tx = storage.begin()){
+            pDAO.insertAll(tx, new ArrayList<>(inserts.values()));
+            pDAO.updateAll(tx, new ArrayList<>(updates.values()));
+            checkpoint.write(tx);
+            tx.commit();
+        }catch(SQLException e){
+            LOGGER.log(Level.WARNING, "ProductBLL:insertProducts " + e.getMessage());
+            return false;
+        }finally{
+            for(Product p : updates.values()){
+                CACHE.invalidate(p.getIdProduct());
+            }
+        }
+        for(Product p : inserts.values()){
+            NAME_INDEX.put(p.getName(), p.getIdProduct());
+        }
+        return true;
+    }
+
+    /**
+     * method used to read the existing rows of the products named in a batch, instead of the whole table
+     * the names in the name index are read by their ids, the others by their names, so a batch costs at most two lookups
+     * @param data list of Product objects containing the names to be searched
+     * @return the existing products, by their lower-case name
+     */
+    private Map<String, Product> findExisting(List<Product> data){
+        Map<String, String> names = new LinkedHashMap<>();
+        for(Product d : data){
+            names.putIfAbsent(d.getName().toLowerCase(), d.getName());
+        }
+        List<Integer> ids = new ArrayList<>();
+        for(String name : names.values()){
+            int id = NAME_INDEX.get(name);
+            if(id != -1){
+                ids.add(id);
             }
         }
-        if(exists == false){
-            int id = getCurrentId();
-            pDAO.insert(new Product(id, name, price, quantity, 0));
+        Map<String, Product> existing = new HashMap<>();
+        if(!ids.isEmpty()){
+            for(Product p : pDAO.findAllByIds(ids)){
+                existing.putIfAbsent(p.getName().toLowerCase(), p);
+            }
+        }
+        List<String> misses = new ArrayList<>();
+        for(Map.Entry<String, String> e : names.entrySet()){
+            if(!existing.containsKey(e.getKey())){
+                misses.add(e.getValue());
+            }
+        }
+        if(!misses.isEmpty()){
+            for(Product p : pDAO.findAllByNames(misses)){
+                if(existing.putIfAbsent(p.getName().toLowerCase(), p) == null){
+                    NAME_INDEX.put(p.getName(), p.getIdProduct());
+                }
+            }
         }
-        return 0;
+        return existing;
     }
 
     /**
@@ -104,10 +332,16 @@ public class ProductBLL {
      * @param product Product to be updated
      */
     public void updateProduct(Product product){
-        if(pDAO.findById(product.getIdProduct()) == null){
+        if(findProductById(product.getIdProduct()) == null){
             return;
         }
-        pDAO.update(product);
+        beginStockWrite();
+        try{
+            pDAO.update(product);
+            CACHE.invalidate(product.getIdProduct());
+        }finally{
+            endStockWrite(product.getIdProduct());
+        }
     }
 
     /**
@@ -115,10 +349,17 @@ public class ProductBLL {
      * @param product Product to be selected from the database
      */
     public void deleteProduct(Product product){
-        if(pDAO.findById(product.getIdProduct()) == null){
+        if(findProductById(product.getIdProduct()) == null){
             return;
         }
-        pDAO.delete(product);
+        beginStockWrite();
+        try{
+            pDAO.delete(product);
+            CACHE.invalidate(product.getIdProduct());
+        }finally{
+            endStockWrite(product.getIdProduct());
+        }
+        NAME_INDEX.remove(product.getName());
         OrderBLL oBLL = new OrderBLL();
         OrderItemBLL oiBLL = new OrderItemBLL();
         if(oiBLL.findAllOrdersByProductId(product.getIdProduct()) != null){
@@ -131,22 +372,40 @@ public class ProductBLL {
     /**
      * method to apparently delete a product from the database
      * does not truly delete the product, but it changes the "deleted" flag from 0 to 1
+     * the product and all its order items are flagged by two set-based updates, in a single transaction
      * @param name the name of the product to be deleted from the database
      */
     public void deleteProductByFlag(String name){
+        deleteProductByFlag(name, Checkpoint.NONE);
+    }
+
+    /**
+     * method to apparently delete a product from the database, like deleteProductByFlag(String), together with a checkpoint
+     * the checkpoint is written in the transaction flagging the product, or in a transaction of its own if there is no such product
+     * @param name the name of the product to be deleted from the database
+     * @param checkpoint the Checkpoint written in the same transaction
+     * @return true if the transaction was committed, false if it was rolled back
+     */
+    public boolean deleteProductByFlag(String name, Checkpoint checkpoint){
         int id = findProductByName(name);
-        if(id == -1){
-            return;
+        if(id == -1 && checkpoint == Checkpoint.NONE){
+            return true;
         }
-        Product product = pDAO.findById(id);
-        product.setDeleted(1);
-        pDAO.update(product);
-        OrderItemBLL oiBLL = new OrderItemBLL();
-        if(oiBLL.findAllOrdersByProductId(product.getIdProduct()) != null){
-            for(OrderItem oi : oiBLL.findAllOrdersByProductId(product.getIdProduct())){
-                oi.setDeleted(1);
-                oiBLL.updateOrderItem(oi);
+        try(Transaction tx = storage.begin()){
+            if(id != -1){
+                pDAO.markDeleted(tx, id);
+                oiDAO.markDeletedByProduct(tx, id);
+            }
+            checkpoint.write(tx);
+            tx.commit();
+            return true;
+        }catch(SQLException e){
+            LOGGER.log(Level.WARNING, "ProductBLL:deleteProductByFlag " + e.getMessage());
+        }finally{
+            if(id != -1){
+                CACHE.invalidate(id);
             }
         }
+        return false;
     }
 }
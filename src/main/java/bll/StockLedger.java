@@ -0,0 +1,495 @@
+package bll;
+
+import model.Product;
+import model.StockDelta;
+import storage.ProductStore;
+import storage.Storage;
+import storage.Transaction;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * In-process ledger of the stock of the products, used to admit or reject orders without a round trip to the Product table
+ * the stock is kept in primitive arrays indexed by the id of the product, one long per product holding the available quantity (high half)
+ * and the quantity taken by admitted orders but not yet written to the table (low half), so that both change in one compare-and-set
+ * every stored order also writes its quantity to the StockDelta table, in its own transaction; a background thread subtracts these deltas from
+ * the Product table every FLUSH_MILLIS milliseconds and deletes them, in one transaction, and then takes them out of the pending quantities
+ * the tables stay the reference: the ledger is loaded from them when created, after the deltas left by a run which stopped abruptly are written,
+ * and a product is reloaded after the BLL changes its row
+ */
+
+public class StockLedger {
+
+    /**
+     * the time, in milliseconds, between two flushes of the pending quantities; can be changed with -Dmanagement.ledger.flushMillis
+     */
+    private static final long FLUSH_MILLIS = Long.getLong("management.ledger.flushMillis", 100L);
+    /**
+     * the slots are allocated in chunks of 2^CHUNK_BITS products
+     */
+    private static final int CHUNK_BITS = 12;
+    /**
+     * the number of products in a chunk
+     */
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    /**
+     * the maximum number of chunks; the ledger holds the products with ids below MAX_CHUNKS * CHUNK_SIZE
+     */
+    private static final int MAX_CHUNKS = 1 << 15;
+    /**
+     * the state of a slot whose product was not loaded from the table
+     */
+    private static final long UNKNOWN = Long.MIN_VALUE;
+
+    /**
+     * the Storage in which the flushes are written
+     */
+    private final Storage storage;
+    /**
+     * the Product table of the storage
+     */
+    private final ProductStore store;
+    /**
+     * the chunks of slots, created when a product of the chunk is first loaded
+     */
+    private final AtomicReferenceArray<AtomicLongArray> chunks = new AtomicReferenceArray<>(MAX_CHUNKS);
+    /**
+     * held while the pending quantities are written and while the BLL changes a product row, so that the two never overlap
+     */
+    private final ReentrantLock writeLock = new ReentrantLock();
+    /**
+     * the quantity taken by the admitted orders and not yet written to the Product table, over all the products;
+     * the flusher does not read the StockDelta table while it is 0
+     */
+    private final AtomicLong unflushed = new AtomicLong();
+    /**
+     * the thread flushing the pending quantities
+     */
+    private final ScheduledExecutorService flusher;
+
+    /**
+     * the number of admitted orders
+     */
+    private final AtomicLong admitted = new AtomicLong();
+    /**
+     * the number of orders rejected because of insufficient stock
+     */
+    private final AtomicLong rejected = new AtomicLong();
+    /**
+     * the number of flushes which wrote deltas to the table
+     */
+    private final AtomicLong flushes = new AtomicLong();
+    /**
+     * the number of product rows updated by the flushes
+     */
+    private final AtomicLong flushedRows = new AtomicLong();
+
+    /**
+     * used to generate the log message in case of a warning
+     */
+    private static final Logger LOGGER = Logger.getLogger(StockLedger.class.getName());
+
+    /**
+     * constructor loading the stock of all the products from the table and starting the flusher thread
+     * @param storage the Storage holding the Product table
+     */
+    StockLedger(Storage storage){
+        this.storage = storage;
+        this.store = storage.products();
+        reconcile();
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "stock-ledger-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, FLUSH_MILLIS, FLUSH_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * method used to check whether the ledger can hold the stock of a product; the stock of the other products is checked and taken
+     * in the table, as without the ledger
+     * @param id int representing the id of the product
+     * @return true if the id is in the range held by the ledger
+     */
+    static boolean holds(int id){
+        return id > 0 && (id >>> CHUNK_BITS) < MAX_CHUNKS;
+    }
+
+    /**
+     * method used to take a quantity out of the stock of a product, if enough items are available
+     * the product is loaded from the table the first time it is ordered
+     * @param id int representing the id of the product, which must be held by the ledger
+     * @param quantity int representing the ordered quantity
+     * @return true if the order was admitted, false if there are not enough items in stock or the product does not exist
+     */
+    boolean reserve(int id, int quantity){
+        AtomicLongArray chunk = chunk(id, true);
+        int slot = id & (CHUNK_SIZE - 1);
+        while(true){
+            long state = chunk.get(slot);
+            if(state == UNKNOWN){
+                if(!load(chunk, id)){
+                    rejected.incrementAndGet();
+                    return false;
+                }
+                continue;
+            }
+            if(available(state) < quantity){
+                rejected.incrementAndGet();
+                return false;
+            }
+            if(chunk.compareAndSet(slot, state, state(available(state) - quantity, pending(state) + quantity))){
+                admitted.incrementAndGet();
+                unflushed.addAndGet(quantity);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * method used to give back a quantity taken by reserve(), when the order could not be stored
+     * @param id int representing the id of the product
+     * @param quantity int representing the quantity given back
+     */
+    void release(int id, int quantity){
+        AtomicLongArray chunk = chunk(id, false);
+        if(chunk == null){
+            return;
+        }
+        int slot = id & (CHUNK_SIZE - 1);
+        long state;
+        do{
+            state = chunk.get(slot);
+            if(state == UNKNOWN){
+                return;
+            }
+        }while(!chunk.compareAndSet(slot, state, state(available(state) + quantity, pending(state) - quantity)));
+        unflushed.addAndGet(-quantity);
+        admitted.decrementAndGet();
+    }
+
+    /**
+     * method used to stop the flushes, before the BLL changes product rows; must be followed by endWrite()
+     */
+    void beginWrite(){
+        writeLock.lock();
+    }
+
+    /**
+     * method used to read again the stock of the changed products and to allow the flushes again
+     * @param ids the ids of the products whose rows were changed since beginWrite()
+     */
+    void endWrite(int... ids){
+        try{
+            for(int id : ids){
+                if(id > 0){
+                    reload(id);
+                }
+            }
+        }finally{
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * method used to forget all the products and their pending quantities, after the table was changed as a whole
+     */
+    void clear(){
+        writeLock.lock();
+        try{
+            for(int i = 0; i < MAX_CHUNKS; i++){
+                chunks.set(i, null);
+            }
+            unflushed.set(0);
+        }finally{
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * method used to write the stock deltas of the stored orders to the table, in one transaction which also deletes them
+     * only the deltas of committed orders are written; the quantities of the orders still being stored stay pending for the next flush
+     * if the write fails, the deltas stay in their table and are written by the next flush
+     * @return true if the deltas were written, false if the write failed
+     */
+    public boolean flush(){
+        if(unflushed.get() == 0){
+            return true;
+        }
+        writeLock.lock();
+        try{
+            int[][] written;
+            try{
+                written = applyDeltas(storage);
+            }catch(SQLException | RuntimeException e){
+                LOGGER.log(Level.WARNING, "StockLedger:flush " + e.getMessage());
+                return false;
+            }
+            int[] ids = written[0];
+            int[] quantities = written[1];
+            if(ids.length == 0){
+                return true;
+            }
+            long total = 0;
+            for(int i = 0; i < ids.length; i++){
+                takePending(ids[i], quantities[i]);
+                total += quantities[i];
+                ProductBLL.invalidate(ids[i]);
+            }
+            unflushed.addAndGet(-total);
+            flushes.incrementAndGet();
+            flushedRows.addAndGet(ids.length);
+            return true;
+        }finally{
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * method used to write the stock deltas left in the table by a run which stopped before flushing them
+     * called when the ledger is created, and by ProductBLL when the ledger is not enabled, so that the Product table shows the stock taken by
+     * all the stored orders
+     * @param storage the Storage holding the tables
+     * @return true if no delta is left, false if they could not be written
+     */
+    static boolean applyStoredDeltas(Storage storage){
+        try{
+            int[][] written = applyDeltas(storage);
+            if(written[0].length > 0){
+                LOGGER.log(Level.INFO, "StockLedger: wrote the stock deltas of a previous run for " + written[0].length + " products");
+            }
+            return true;
+        }catch(SQLException | RuntimeException e){
+            LOGGER.log(Level.WARNING, "StockLedger:applyStoredDeltas " + e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * method used to subtract the rows of the StockDelta table from the Product table and to delete them, in one transaction
+     * the rows are summed by product, so each product row is updated once
+     * @param storage the Storage holding the tables
+     * @return the ids of the updated products, in ascending order, and the quantities subtracted from them: {ids, quantities}
+     * @throws SQLException if the transaction fails; nothing is written then
+     */
+    private static int[][] applyDeltas(Storage storage) throws SQLException {
+        List<StockDelta> rows = storage.stockDeltas().findAll();
+        TreeMap<Integer, Integer> sums = new TreeMap<>();
+        for(StockDelta d : rows){
+            sums.merge(d.getIdProduct(), d.getQuantity(), Integer::sum);
+        }
+        int[] ids = new int[sums.size()];
+        int[] quantities = new int[sums.size()];
+        int i = 0;
+        for(Map.Entry<Integer, Integer> e : sums.entrySet()){
+            ids[i] = e.getKey();
+            quantities[i] = e.getValue();
+            i++;
+        }
+        if(!rows.isEmpty()){
+            try(Transaction tx = storage.begin()){
+                storage.products().subtractStock(tx, ids, quantities);
+                storage.stockDeltas().deleteAll(tx, rows);
+                tx.commit();
+            }
+        }
+        return new int[][]{ids, quantities};
+    }
+
+    /**
+     * method used to stop the flusher thread and write the last pending quantities, at the end of the execution
+     */
+    public void shutdown(){
+        flusher.shutdown();
+        try{
+            flusher.awaitTermination(FLUSH_MILLIS * 10, TimeUnit.MILLISECONDS);
+        }catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    /**
+     * @return the number of orders admitted by the ledger
+     */
+    public long getAdmittedCount(){
+        return admitted.get();
+    }
+
+    /**
+     * @return the number of orders rejected because of insufficient stock
+     */
+    public long getRejectedCount(){
+        return rejected.get();
+    }
+
+    /**
+     * @return the number of batches written to the Product table
+     */
+    public long getFlushCount(){
+        return flushes.get();
+    }
+
+    /**
+     * @return the number of product rows updated by the flushes
+     */
+    public long getFlushedRowCount(){
+        return flushedRows.get();
+    }
+
+    @Override
+    public String toString(){
+        return "StockLedger[admitted=" + getAdmittedCount() + ", rejected=" + getRejectedCount() + ", flushes=" + getFlushCount()
+                + ", flushedRows=" + getFlushedRowCount() + "]";
+    }
+
+    /**
+     * method used to load the stock of all the products from the table, when the ledger is created, once the stored deltas are written to it
+     */
+    private void reconcile(){
+        long start = System.nanoTime();
+        applyStoredDeltas(storage);
+        long[] count = new long[1];
+        store.forEach(p -> {
+            if(holds(p.getIdProduct())){
+                chunk(p.getIdProduct(), true).set(p.getIdProduct() & (CHUNK_SIZE - 1), state(p.getQuantity(), 0));
+                count[0]++;
+            }
+        });
+        LOGGER.log(Level.INFO, "StockLedger: loaded the stock of " + count[0] + " products in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    /**
+     * method used to load a product which is not in the ledger yet from the table
+     * @param chunk the chunk of the product
+     * @param id int representing the id of the product
+     * @return true if the product is in the ledger, false if it does not exist
+     */
+    private boolean load(AtomicLongArray chunk, int id){
+        writeLock.lock();
+        try{
+            int slot = id & (CHUNK_SIZE - 1);
+            if(chunk.get(slot) != UNKNOWN){
+                return true;
+            }
+            Product p = store.findById(id);
+            if(p == null){
+                return false;
+            }
+            chunk.set(slot, state(p.getQuantity(), 0));
+            return true;
+        }finally{
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * method used to read again the stock of a product from the table, keeping the quantity not yet flushed; the caller holds the write lock
+     * @param id int representing the id of the product
+     */
+    private void reload(int id){
+        AtomicLongArray chunk = chunk(id, false);
+        if(chunk == null){
+            return;
+        }
+        int slot = id & (CHUNK_SIZE - 1);
+        if(chunk.get(slot) == UNKNOWN){
+            return;
+        }
+        Product p = store.findById(id);
+        long state;
+        long updated;
+        do{
+            state = chunk.get(slot);
+            if(state == UNKNOWN){
+                return;
+            }
+            updated = p == null ? UNKNOWN : state(p.getQuantity() - pending(state), pending(state));
+        }while(!chunk.compareAndSet(slot, state, updated));
+    }
+
+    /**
+     * method used to take a flushed quantity out of the pending quantity of a product; the available quantity does not change
+     * @param id int representing the id of the product
+     * @param quantity int representing the quantity which was written to the table
+     */
+    private void takePending(int id, int quantity){
+        AtomicLongArray chunk = chunk(id, false);
+        if(chunk == null){
+            return;
+        }
+        int slot = id & (CHUNK_SIZE - 1);
+        long state;
+        do{
+            state = chunk.get(slot);
+            if(state == UNKNOWN){
+                return;
+            }
+        }while(!chunk.compareAndSet(slot, state, state(available(state), pending(state) - quantity)));
+    }
+
+    /**
+     * method used to find the chunk holding the slot of a product
+     * @param id int representing the id of the product
+     * @param create true if a missing chunk has to be created
+     * @return the AtomicLongArray of the chunk or null, if it does not exist and create is false, or the id is outside the ledger and create is false
+     * @throws IllegalArgumentException if the id is outside the range held by the ledger and create is true
+     */
+    private AtomicLongArray chunk(int id, boolean create){
+        if(!holds(id)){
+            if(create){
+                throw new IllegalArgumentException("Product id outside the stock ledger: " + id);
+            }
+            return null;
+        }
+        int index = id >>> CHUNK_BITS;
+        AtomicLongArray chunk = chunks.get(index);
+        if(chunk == null && create){
+            AtomicLongArray created = new AtomicLongArray(CHUNK_SIZE);
+            for(int i = 0; i < CHUNK_SIZE; i++){
+                created.set(i, UNKNOWN);
+            }
+            chunks.compareAndSet(index, null, created);
+            chunk = chunks.get(index);
+        }
+        return chunk;
+    }
+
+    /**
+     * method used to pack the two quantities of a product in one long
+     * @param available int representing the quantity which can still be ordered
+     * @param pending int representing the quantity not yet subtracted from the table
+     * @return the packed state
+     */
+    private static long state(int available, int pending){
+        return ((long) available << 32) | (pending & 0xFFFFFFFFL);
+    }
+
+    /**
+     * @param state the packed state of a product
+     * @return the quantity which can still be ordered
+     */
+    private static int available(long state){
+        return (int) (state >> 32);
+    }
+
+    /**
+     * @param state the packed state of a product
+     * @return the quantity not yet subtracted from the table
+     */
+    private static int pending(long state){
+        return (int) state;
+    }
+}
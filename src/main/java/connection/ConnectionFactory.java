@@ -1,5 +1,8 @@
 package connection;
 
+import metrics.Metrics;
+import metrics.Timer;
+
 import java.sql.*;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -20,8 +23,11 @@ public class ConnectionFactory {
     private static final String DRIVER = "com.mysql.cj.jdbc.Driver";
     /**
      * the url used to connect to the database
+     * prepared statements are prepared on the server and cached per connection, so each parameterized query is parsed once
+     * batched INSERT statements are rewritten into multi-row INSERTs
+     * streamed queries with a positive fetch size read their rows through a server-side cursor (useCursorFetch)
      */
-    private static final String DBURL = "jdbc:mysql://localhost:3306/management";
+    private static final String DBURL = "jdbc:mysql://localhost:3306/management?useServerPrepStmts=true&cachePrepStmts=true&prepStmtCacheSize=256&prepStmtCacheSqlLimit=2048&rewriteBatchedStatements=true&useCursorFetch=true";
     /**
      * the user used to connect to the database
      */
@@ -30,12 +36,37 @@ public class ConnectionFactory {
      * the password used to connect to the database
      */
     private static final String PASS = "root";
+    /**
+     * the maximum number of connections kept by the pool; can be changed with -Dmanagement.pool.maxSize
+     */
+    private static final int POOL_MAX_SIZE = Integer.getInteger("management.pool.maxSize", 10);
+    /**
+     * the time, in milliseconds, a caller waits for a free connection; can be changed with -Dmanagement.pool.borrowTimeout
+     */
+    private static final long POOL_BORROW_TIMEOUT = Long.getLong("management.pool.borrowTimeout", 30000L);
+    /**
+     * the time, in milliseconds, after which an idle connection is closed; can be changed with -Dmanagement.pool.maxIdleTime
+     */
+    private static final long POOL_MAX_IDLE_TIME = Long.getLong("management.pool.maxIdleTime", 600000L);
+    /**
+     * the time, in milliseconds, an idle connection is trusted without validation; can be changed with -Dmanagement.pool.validationInterval
+     */
+    private static final long POOL_VALIDATION_INTERVAL = Long.getLong("management.pool.validationInterval", 5000L);
 
     /**
      * the single instance of the ConnectionFactory class
      */
     private static ConnectionFactory singleInstance = new ConnectionFactory();
 
+    /**
+     * the pool from which the connections are borrowed
+     */
+    private final ConnectionPool pool;
+    /**
+     * the time taken to borrow a connection from the pool, including the wait for a free one
+     */
+    private final Timer acquire = Metrics.timer("pool.acquire");
+
     /**
      * basic constructor
      * generates a ClassNotFoundException if the corresponding driver class is not found
@@ -46,26 +77,29 @@ public class ConnectionFactory {
         }catch(ClassNotFoundException e){
             e.printStackTrace();
         }
+        pool = new ConnectionPool(DBURL, USER, PASS, POOL_MAX_SIZE, POOL_BORROW_TIMEOUT, POOL_MAX_IDLE_TIME, POOL_VALIDATION_INTERVAL);
+        Metrics.gauge("pool.active", pool::getActiveCount);
+        Metrics.gauge("pool.idle", pool::getIdleCount);
+        Metrics.gauge("pool.timeouts", pool::getTimeoutCount);
+        Metrics.gauge("pool.created", pool::getCreatedCount);
     }
 
     /**
-     * private method used to establish the connection between the program and the database
-     * can generate an SQLException
-     * @return a Connection object representing the generated connection
+     * private method used to borrow a connection between the program and the database from the pool
+     * @return a Connection object representing the borrowed connection or null, if no connection could be obtained
      */
     private Connection createConnection(){
-        Connection connection = null;
+        long started = acquire.start();
         try{
-            connection = DriverManager.getConnection(DBURL, USER, PASS);
-        }catch(SQLException e){
-            LOGGER.log(Level.WARNING, "An error occurred while trying to connect to the database");
-            e.printStackTrace();
+            return pool.borrow();
+        }finally{
+            acquire.stop(started);
         }
-        return connection;
     }
 
     /**
-     * public method used to retrieve the single instance of the connection generated in the createConnection() method
+     * public method used to retrieve a pooled connection, generated in the createConnection() method
+     * closing the connection returns it to the pool
      * @return a Connection object representing the generated connection
      */
     public static Connection getConnection(){
@@ -73,7 +107,15 @@ public class ConnectionFactory {
     }
 
     /**
-     * method used to close the connection between the program and the database
+     * method used to retrieve the connection pool, e.g. for inspecting its metrics
+     * @return the ConnectionPool used by the factory
+     */
+    public static ConnectionPool getPool(){
+        return singleInstance.pool;
+    }
+
+    /**
+     * method used to close the connection between the program and the database; a pooled connection is returned to the pool
      * can generate an SQLException
      * @param connection the Connection to be closed
      */
@@ -87,6 +129,21 @@ public class ConnectionFactory {
         }
     }
 
+    /**
+     * method used to undo the changes of the current transaction, after one of its statements failed
+     * can generate an SQLException
+     * @param connection the Connection whose transaction is rolled back
+     */
+    public static void rollback(Connection connection){
+        if(connection != null){
+            try{
+                connection.rollback();
+            }catch(SQLException e){
+                LOGGER.log(Level.WARNING, "An error occurred while trying to roll back the transaction");
+            }
+        }
+    }
+
     /**
      * method used to close the statement when executing a query on the database
      * can generate an SQLException
@@ -0,0 +1,470 @@
+package connection;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Bounded pool of physical connections to the database
+ * the connections handed out are proxies: calling close() on them returns the physical connection to the pool instead of closing it
+ */
+
+public class ConnectionPool {
+
+    /**
+     * used to generate the log message in case of a warning
+     */
+    private static final Logger LOGGER = Logger.getLogger(ConnectionPool.class.getName());
+
+    /**
+     * the url used to connect to the database
+     */
+    private final String url;
+    /**
+     * the user used to connect to the database
+     */
+    private final String user;
+    /**
+     * the password used to connect to the database
+     */
+    private final String pass;
+    /**
+     * the maximum number of connections (borrowed + idle) kept by the pool
+     */
+    private final int maxSize;
+    /**
+     * the maximum time, in milliseconds, a caller waits for a free connection
+     */
+    private final long borrowTimeout;
+    /**
+     * the time, in milliseconds, after which an idle connection is closed
+     */
+    private final long maxIdleTime;
+    /**
+     * the time, in milliseconds, a connection may stay idle before it is validated again on borrow
+     */
+    private final long validationInterval;
+
+    /**
+     * limits the number of connections which are borrowed at the same time
+     */
+    private final Semaphore permits;
+    /**
+     * the idle connections, the most recently returned one first
+     */
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+
+    /**
+     * number of connections currently borrowed
+     */
+    private final AtomicInteger active = new AtomicInteger();
+    /**
+     * number of successful borrows
+     */
+    private final AtomicLong borrowCount = new AtomicLong();
+    /**
+     * number of borrows which timed out
+     */
+    private final AtomicLong timeoutCount = new AtomicLong();
+    /**
+     * number of physical connections opened
+     */
+    private final AtomicLong createdCount = new AtomicLong();
+    /**
+     * number of physical connections closed because they were idle for too long or failed validation
+     */
+    private final AtomicLong evictedCount = new AtomicLong();
+    /**
+     * total time, in nanoseconds, spent by callers waiting for a connection
+     */
+    private final AtomicLong totalWait = new AtomicLong();
+    /**
+     * longest time, in nanoseconds, a caller waited for a connection
+     */
+    private final AtomicLong maxWait = new AtomicLong();
+
+    /**
+     * constructor containing all the fields
+     * starts a daemon thread which periodically closes the connections idle for more than maxIdleTime
+     * @param url the url used to connect to the database
+     * @param user the user used to connect to the database
+     * @param pass the password used to connect to the database
+     * @param maxSize the maximum number of connections kept by the pool
+     * @param borrowTimeout the maximum time, in milliseconds, a caller waits for a free connection
+     * @param maxIdleTime the time, in milliseconds, after which an idle connection is closed
+     * @param validationInterval the time, in milliseconds, a connection may stay idle before it is validated on borrow
+     */
+    public ConnectionPool(String url, String user, String pass, int maxSize, long borrowTimeout, long maxIdleTime, long validationInterval){
+        this.url = url;
+        this.user = user;
+        this.pass = pass;
+        this.maxSize = maxSize;
+        this.borrowTimeout = borrowTimeout;
+        this.maxIdleTime = maxIdleTime;
+        this.validationInterval = validationInterval;
+        this.permits = new Semaphore(maxSize, true);
+        Thread evictor = new Thread(this::evictLoop, "connection-pool-evictor");
+        evictor.setDaemon(true);
+        evictor.start();
+    }
+
+    /**
+     * method used to borrow a connection from the pool
+     * reuses an idle connection if a valid one exists, otherwise it opens a new one
+     * @return a Connection which is returned to the pool when closed or null, if no connection could be obtained in time
+     */
+    public Connection borrow(){
+        long start = System.nanoTime();
+        try{
+            if(!permits.tryAcquire(borrowTimeout, TimeUnit.MILLISECONDS)){
+                timeoutCount.incrementAndGet();
+                LOGGER.log(Level.WARNING, "Timed out after " + borrowTimeout + "ms while waiting for a connection");
+                return null;
+            }
+        }catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        recordWait(System.nanoTime() - start);
+        PooledConnection pooled = takeIdle();
+        if(pooled == null){
+            Connection physical = open();
+            if(physical == null){
+                permits.release();
+                return null;
+            }
+            pooled = new PooledConnection(physical);
+        }
+        active.incrementAndGet();
+        borrowCount.incrementAndGet();
+        return pooled.lend();
+    }
+
+    /**
+     * method to retrieve the most recently returned idle connection which is still usable
+     * connections idle for too long are closed, the ones idle for more than validationInterval are validated first
+     * @return a PooledConnection or null, if there is no usable idle connection
+     */
+    private PooledConnection takeIdle(){
+        while(true){
+            PooledConnection pooled;
+            synchronized(idle){
+                pooled = idle.pollFirst();
+            }
+            if(pooled == null){
+                return null;
+            }
+            long idleFor = System.currentTimeMillis() - pooled.lastUsed;
+            if(idleFor >= maxIdleTime || (idleFor >= validationInterval && !pooled.isValid())){
+                evict(pooled);
+                continue;
+            }
+            return pooled;
+        }
+    }
+
+    /**
+     * method used to open a new physical connection to the database
+     * @return the opened Connection or null, if the connection could not be established
+     */
+    private Connection open(){
+        try{
+            Connection connection = DriverManager.getConnection(url, user, pass);
+            createdCount.incrementAndGet();
+            return connection;
+        }catch(SQLException e){
+            LOGGER.log(Level.WARNING, "An error occurred while trying to connect to the database");
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * method called when a borrowed connection is closed by its user
+     * the connection is reset and put back in the idle list, or discarded if it is no longer usable
+     * @param pooled the PooledConnection which is returned
+     */
+    private void giveBack(PooledConnection pooled){
+        active.decrementAndGet();
+        try{
+            if(pooled.physical.isClosed()){
+                evictedCount.incrementAndGet();
+                return;
+            }
+            if(!pooled.physical.getAutoCommit()){
+                pooled.physical.rollback();
+                pooled.physical.setAutoCommit(true);
+            }
+            pooled.lastUsed = System.currentTimeMillis();
+            synchronized(idle){
+                idle.offerFirst(pooled);
+            }
+        }catch(SQLException e){
+            LOGGER.log(Level.WARNING, "An error occurred while returning a connection to the pool");
+            evict(pooled);
+        }finally{
+            permits.release();
+        }
+    }
+
+    /**
+     * method used to close a physical connection which is removed from the pool
+     * @param pooled the PooledConnection to be closed
+     */
+    private void evict(PooledConnection pooled){
+        evictedCount.incrementAndGet();
+        try{
+            pooled.physical.close();
+        }catch(SQLException e){
+            LOGGER.log(Level.WARNING, "An error occurred while trying to close the connection");
+        }
+    }
+
+    /**
+     * method run by the evictor thread, closing the connections which were idle for more than maxIdleTime
+     */
+    private void evictLoop(){
+        while(true){
+            try{
+                Thread.sleep(Math.max(1000, maxIdleTime / 2));
+            }catch(InterruptedException e){
+                return;
+            }
+            long now = System.currentTimeMillis();
+            synchronized(idle){
+                Iterator<PooledConnection> it = idle.iterator();
+                while(it.hasNext()){
+                    PooledConnection pooled = it.next();
+                    if(now - pooled.lastUsed >= maxIdleTime){
+                        it.remove();
+                        evict(pooled);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * method used to record the time a caller waited for a connection
+     * @param nanos long representing the waited time, in nanoseconds
+     */
+    private void recordWait(long nanos){
+        totalWait.addAndGet(nanos);
+        long max = maxWait.get();
+        while(nanos > max && !maxWait.compareAndSet(max, nanos)){
+            max = maxWait.get();
+        }
+    }
+
+    /**
+     * method used to close all the idle connections; the borrowed ones are closed when they are returned
+     */
+    public void shutdown(){
+        synchronized(idle){
+            while(!idle.isEmpty()){
+                evict(idle.pollFirst());
+            }
+        }
+    }
+
+    /**
+     * method to retrieve the maximum number of connections kept by the pool
+     * @return an int representing the size of the pool
+     */
+    public int getMaxSize(){
+        return maxSize;
+    }
+
+    /**
+     * method to retrieve the number of connections currently borrowed
+     * @return an int representing the number of active connections
+     */
+    public int getActiveCount(){
+        return active.get();
+    }
+
+    /**
+     * method to retrieve the number of connections currently waiting in the pool
+     * @return an int representing the number of idle connections
+     */
+    public int getIdleCount(){
+        synchronized(idle){
+            return idle.size();
+        }
+    }
+
+    /**
+     * method to retrieve the number of successful borrows
+     * @return a long representing the number of borrows
+     */
+    public long getBorrowCount(){
+        return borrowCount.get();
+    }
+
+    /**
+     * method to retrieve the number of borrows which timed out
+     * @return a long representing the number of timeouts
+     */
+    public long getTimeoutCount(){
+        return timeoutCount.get();
+    }
+
+    /**
+     * method to retrieve the number of physical connections opened by the pool
+     * @return a long representing the number of opened connections
+     */
+    public long getCreatedCount(){
+        return createdCount.get();
+    }
+
+    /**
+     * method to retrieve the number of physical connections closed by the pool
+     * @return a long representing the number of evicted connections
+     */
+    public long getEvictedCount(){
+        return evictedCount.get();
+    }
+
+    /**
+     * method to retrieve the average time a caller waited for a connection
+     * @return a double representing the average wait time, in milliseconds
+     */
+    public double getAverageWaitMillis(){
+        long borrows = borrowCount.get();
+        if(borrows == 0){
+            return 0;
+        }
+        return totalWait.get() / 1e6 / borrows;
+    }
+
+    /**
+     * method to retrieve the longest time a caller waited for a connection
+     * @return a double representing the maximum wait time, in milliseconds
+     */
+    public double getMaxWaitMillis(){
+        return maxWait.get() / 1e6;
+    }
+
+    /**
+     * method used to describe the current state of the pool
+     * @return a String containing the pool metrics
+     */
+    @Override
+    public String toString(){
+        return "ConnectionPool[max=" + maxSize + ", active=" + getActiveCount() + ", idle=" + getIdleCount()
+                + ", borrows=" + getBorrowCount() + ", timeouts=" + getTimeoutCount()
+                + ", created=" + getCreatedCount() + ", evicted=" + getEvictedCount()
+                + ", avgWait=" + String.format("%.3f", getAverageWaitMillis()) + "ms"
+                + ", maxWait=" + String.format("%.3f", getMaxWaitMillis()) + "ms]";
+    }
+
+    /**
+     * Physical connection owned by the pool, together with the time it was last returned
+     */
+    private class PooledConnection {
+
+        /**
+         * the physical connection to the database
+         */
+        private final Connection physical;
+        /**
+         * the moment, in milliseconds, the connection was last returned to the pool
+         */
+        private volatile long lastUsed = System.currentTimeMillis();
+
+        /**
+         * constructor containing the physical connection
+         * @param physical the physical connection to the database
+         */
+        private PooledConnection(Connection physical){
+            this.physical = physical;
+        }
+
+        /**
+         * method used to hand out a proxy of the physical connection
+         * @return a Connection whose close() method returns the physical connection to the pool
+         */
+        private Connection lend(){
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, new Lease(this));
+        }
+
+        /**
+         * method used to check if the physical connection is still usable
+         * @return true if the connection is valid, false otherwise
+         */
+        private boolean isValid(){
+            try{
+                return physical.isValid(1);
+            }catch(SQLException e){
+                return false;
+            }
+        }
+    }
+
+    /**
+     * One borrow of a pooled connection; forwards every call to the physical connection until the borrower closes it
+     */
+    private class Lease implements InvocationHandler {
+
+        /**
+         * the borrowed connection
+         */
+        private final PooledConnection pooled;
+        /**
+         * true after the borrower closed the connection
+         */
+        private boolean closed;
+
+        /**
+         * constructor containing the borrowed connection
+         * @param pooled the borrowed connection
+         */
+        private Lease(PooledConnection pooled){
+            this.pooled = pooled;
+        }
+
+        /**
+         * forwards every call to the physical connection, except for close() and isClosed()
+         */
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch(method.getName()){
+                case "close":
+                    if(!closed){
+                        closed = true;
+                        giveBack(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + pooled.physical;
+            }
+            if(closed){
+                throw new SQLException("Connection is closed");
+            }
+            try{
+                return method.invoke(pooled.physical, args);
+            }catch(InvocationTargetException e){
+                throw e.getCause();
+            }
+        }
+    }
+}
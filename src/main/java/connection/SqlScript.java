@@ -0,0 +1,61 @@
+package connection;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Class used to execute a SQL script, such as the dumps from the SQLdumps folder, on a connection
+ * the script is split into statements at the lines ending with ";"; lines starting with "--" are comments
+ */
+
+public class SqlScript {
+
+    /**
+     * private constructor, the class only contains static methods
+     */
+    private SqlScript(){
+    }
+
+    /**
+     * method used to execute all the statements of a script, in order
+     * @param connection the Connection on which the statements are executed; it is not closed
+     * @param script Path of the SQL script
+     * @return the number of executed statements
+     * @throws IOException if the script cannot be read
+     * @throws SQLException if a statement fails; the statements before it are not undone
+     */
+    public static int run(Connection connection, Path script) throws IOException, SQLException {
+        int count = 0;
+        try(BufferedReader reader = Files.newBufferedReader(script, StandardCharsets.UTF_8);
+            Statement statement = connection.createStatement()){
+            StringBuilder sql = new StringBuilder();
+            String line;
+            while((line = reader.readLine()) != null){
+                String trimmed = line.trim();
+                if(sql.length() == 0 && (trimmed.isEmpty() || trimmed.startsWith("--"))){
+                    continue;
+                }
+                if(trimmed.endsWith(";")){
+                    sql.append(trimmed, 0, trimmed.length() - 1);
+                    statement.execute(sql.toString());
+                    sql.setLength(0);
+                    count++;
+                }
+                else{
+                    sql.append(line).append('\n');
+                }
+            }
+            if(sql.toString().trim().length() > 0){
+                statement.execute(sql.toString());
+                count++;
+            }
+        }
+        return count;
+    }
+}
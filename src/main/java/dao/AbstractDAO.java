@@ -1,14 +1,22 @@
 package dao;
 
 import connection.ConnectionFactory;
+import metrics.Counter;
+import metrics.Metrics;
+import metrics.Timer;
+import storage.EntityStore;
+import storage.Transaction;
 
-import java.beans.PropertyDescriptor;
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -17,23 +25,78 @@ import java.util.logging.Logger;
  * @param <T> generic parameter, which allows the class to be used with an object of any type
  */
 
-public class AbstractDAO<T> {
+public class AbstractDAO<T> implements EntityStore<T> {
 
     /**
      * used to generate the log message in case of a warning
      */
     protected static final Logger LOGGER = Logger.getLogger(AbstractDAO.class.getName());
+    /**
+     * the number of statements sent to the database in one batch; can be changed with -Dmanagement.batch.size
+     */
+    protected static final int BATCH_SIZE = Integer.getInteger("management.batch.size", 500);
+    /**
+     * the fetch size of the queries whose rows are streamed; can be changed with -Dmanagement.fetch.size
+     * with useCursorFetch, the MySQL driver reads this many rows at a time through a server-side cursor;
+     * Integer.MIN_VALUE makes it read the rows one at a time instead, keeping the connection busy until the last row is read
+     */
+    protected static final int STREAM_FETCH_SIZE = Integer.getInteger("management.fetch.size", 1000);
+    /**
+     * the maximum number of values bound in one IN list by findAllByField()
+     */
+    private static final int IN_LIST_SIZE = 1000;
     /**
      * the type of the object which will be manipulated
      */
     private final Class<T> type;
+    /**
+     * the reflection metadata of the type, shared by all the DAOs of the same type
+     */
+    private final EntityMetadata<T> metadata;
+    /**
+     * the prefix of the names of the metrics of the table, e.g. "dao.client."
+     */
+    private final String metricPrefix;
+    /**
+     * the timers of the operations of the DAO, by operation, looked up once in the Metrics registry
+     */
+    private final ConcurrentHashMap<String, Timer> timers = new ConcurrentHashMap<>();
+    /**
+     * the number of rows read from the table
+     */
+    private final Counter rowsRead;
 
     /**
-     * basic constructor, assigning a new value to the type field
+     * basic constructor, assigning a new value to the type field and retrieving its cached metadata
      */
     @SuppressWarnings("unchecked")
     public AbstractDAO(){
         this.type = (Class<T>) ((ParameterizedType) getClass().getGenericSuperclass()).getActualTypeArguments()[0];
+        this.metadata = EntityMetadata.of(type);
+        this.metricPrefix = "dao." + metadata.getTable() + ".";
+        this.rowsRead = Metrics.counter(metricPrefix + "rows");
+    }
+
+    /**
+     * method used to retrieve the timer of an operation on the table, named "dao.table.operation" in the Metrics registry
+     * @param operation String representing the name of the operation, e.g. "findById"
+     * @return the Timer of the operation
+     */
+    protected Timer timer(String operation){
+        Timer timer = timers.get(operation);
+        if(timer == null){
+            timer = Metrics.timer(metricPrefix + operation);
+            timers.put(operation, timer);
+        }
+        return timer;
+    }
+
+    /**
+     * method used to count a failed operation on the table, in the "dao.table.operation.errors" counter
+     * @param operation String representing the name of the operation, e.g. "findById"
+     */
+    protected void failed(String operation){
+        Metrics.counter(metricPrefix + operation + ".errors").increment();
     }
 
     /**
@@ -46,105 +109,161 @@ public class AbstractDAO<T> {
         sb.append("SELECT ");
         sb.append(" * ");
         sb.append(" FROM ");
-        sb.append("`" + type.getSimpleName() + "`");
+        sb.append("`" + metadata.getTable() + "`");
         if(field != null) {
-            sb.append(" WHERE " + type.getSimpleName() + "." + field + "=?");
+            sb.append(" WHERE `" + metadata.getTable() + "`." + field + "=?");
         }
         return sb.toString();
     }
 
     /**
-     * method to create the INSERT query for the database, based on a specified object
-     * @param t the object which will be inserted into the database
-     * @return a String representing the INSERT query
+     * method to retrieve the INSERT query for the database
+     * the query is a parameterized template built once per type, so the database can reuse the parsed statement
+     * @return a String representing the INSERT query, with one parameter per field
      */
-   protected String createInsertQuery(T t) {
-       StringBuilder sb = new StringBuilder();
-       sb.append("INSERT INTO ");
-       sb.append("`" + type.getSimpleName() + "`");
-       sb.append(" VALUES (");
-       try{
-           for(Field field : type.getDeclaredFields()){
-               field.setAccessible(true);
-               sb.append("'" + field.get(t) + "'" + ",");
-           }
-           sb.setCharAt(sb.length()-1, ')');
-       }
-       catch(IllegalAccessException e){
-           LOGGER.log(Level.WARNING, type.getName() + "DAO:InsertQuery " + e.getMessage());
-       }
-       return sb.toString();
-   }
+    protected String createInsertQuery(){
+        return metadata.getInsertSql();
+    }
 
     /**
-     * method to create the UPDATE query for the database, based on a specified object
-     * @param t the object which will be updated in the database
-     * @return a String representing the UPDATE query
+     * method to retrieve the UPDATE query for the database
+     * the query is a parameterized template built once per type, so the database can reuse the parsed statement
+     * @return a String representing the UPDATE query, setting every field and filtering by the id
      */
-   protected String createUpdateQuery(T t){
-        StringBuilder sb = new StringBuilder();
-        sb.append("UPDATE ");
-        sb.append("`" + type.getSimpleName() + "`");
-        sb.append(" SET " );
-        try{
-            for(Field field : type.getDeclaredFields()){
-                field.setAccessible(true);
-                sb.append(field.getName() + "='" + field.get(t) + "',");
-            }
-            sb.setCharAt(sb.length()-1, ' ');
-            Field id = type.getDeclaredFields()[0];
-            id.setAccessible(true);
-            sb.append("WHERE " + id.getName() + "=" + id.get(t));
-        }catch(IllegalAccessException e){
-            LOGGER.log(Level.WARNING, type.getName() + "DAO:UpdateQuery " + e.getMessage());
-        }
-        return sb.toString();
-   }
+    protected String createUpdateQuery(){
+        return metadata.getUpdateSql();
+    }
 
     /**
-     * method to create the DELETE query for the database, based on a specified object
-     * @param t the object which will be deleted from the database
-     * @return a String representing the DELETE query
+     * method to retrieve the DELETE query for the database
+     * the query is a parameterized template built once per type, so the database can reuse the parsed statement
+     * @return a String representing the DELETE query, filtering by the id
      */
-    protected String createDeleteQuery(T t){
-        StringBuilder sb = new StringBuilder();
-        sb.append("DELETE FROM ");
-        sb.append("`" + type.getSimpleName() + "`");
-        try{
-            Field id = type.getDeclaredFields()[0];
-            id.setAccessible(true);
-            sb.append(" WHERE " + id.getName() + "=" + id.get(t));
-        }catch(IllegalAccessException e){
-            LOGGER.log(Level.WARNING, type.getName() + "DAO:DeleteQuery " + e.getMessage());
-        }
-        return sb.toString();
+    protected String createDeleteQuery(){
+        return metadata.getDeleteSql();
+    }
+
+    /**
+     * method to create the UPDATE query which sets the "deleted" flag of all the rows with a given value in a field
+     * @param field String representing the field based on which the rows are selected
+     * @return a String representing the UPDATE query, with the value of the field as parameter
+     */
+    protected String createMarkDeletedQuery(String field){
+        return "UPDATE `" + metadata.getTable() + "` SET deleted = 1 WHERE " + field + " = ?";
     }
 
     /**
      * method to retrieve all the data from a certain table in the database
-     * @return a list of objects T, representing all the data available in the database
+     * the whole table is kept in memory; use stream(), forEach() or findPage() for large tables
+     * @return a list of objects T, representing all the data available in the database; empty if the table is empty or cannot be read
      */
     public List<T> findAll(){
         Connection connection = null;
         PreparedStatement statement = null;
         ResultSet resultSet = null;
         String query = createSelectQuery(null);
+        Timer timer = timer("findAll");
+        long started = timer.start();
         try{
             connection = ConnectionFactory.getConnection();
             statement = connection.prepareStatement(query);
             resultSet = statement.executeQuery();
-            if(!resultSet.isBeforeFirst()){
-                return null;
-            }
             return createObjects(resultSet);
         }catch(SQLException e){
+            failed("findAll");
             LOGGER.log(Level.WARNING, type.getName() + "DAO:findAll " + e.getMessage());
         }finally{
             ConnectionFactory.close(resultSet);
             ConnectionFactory.close(statement);
             ConnectionFactory.close(connection);
+            timer.stop(started);
         }
-        return null;
+        return new ArrayList<T>();
+    }
+
+    /**
+     * method to stream all the data available in the database, reading STREAM_FETCH_SIZE rows at a time through a forward-only ResultSet
+     * the connection is held until the stream is exhausted or closed, so a stream which may be abandoned early must be closed,
+     * e.g. with try-with-resources
+     * @return a sequential Stream of objects T, in the order of the table; empty if the table cannot be read
+     */
+    public Stream<T> stream(){
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        String query = createSelectQuery(null);
+        Timer timer = timer("stream");
+        long started = timer.start();
+        try{
+            connection = ConnectionFactory.getConnection();
+            statement = connection.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(STREAM_FETCH_SIZE);
+            resultSet = statement.executeQuery();
+            RowCursor cursor = new RowCursor(connection, statement, resultSet, metadata.resolveColumns(resultSet));
+            return StreamSupport.stream(cursor, false).onClose(cursor::close);
+        }catch(SQLException e){
+            failed("stream");
+            LOGGER.log(Level.WARNING, type.getName() + "DAO:stream " + e.getMessage());
+            ConnectionFactory.close(resultSet);
+            ConnectionFactory.close(statement);
+            ConnectionFactory.close(connection);
+        }finally{
+            timer.stop(started);
+        }
+        return Stream.empty();
+    }
+
+    /**
+     * method to pass all the data available in the database to an action, one object at a time
+     * the rows are streamed through a forward-only ResultSet, so only the rows of the current fetch are kept in memory
+     * @param action Consumer called for each object of type T, in the order of the table
+     */
+    public void forEach(Consumer<T> action){
+        Timer timer = timer("forEach");
+        long started = timer.start();
+        try(Stream<T> rows = stream()){
+            rows.forEach(action);
+        }finally{
+            timer.stop(started);
+        }
+    }
+
+    /**
+     * method to retrieve a page of data using keyset pagination: the objects with an id greater than a given one, in id order
+     * each page is a range scan of the primary key, so reading a page costs the same wherever it is in the table;
+     * the next page starts after the id of the last object of the current one
+     * @param afterId int representing the id after which the page starts; 0 for the first page
+     * @param limit int representing the maximum number of objects in the page
+     * @return a list of at most limit objects T; empty if there are no more objects or the table cannot be read
+     * @throws UnsupportedOperationException if the table has a composite key
+     */
+    public List<T> findPage(int afterId, int limit){
+        String query = metadata.getPageSql();
+        if(query == null){
+            throw new UnsupportedOperationException(type.getName() + " has a composite key");
+        }
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        Timer timer = timer("findPage");
+        long started = timer.start();
+        try{
+            connection = ConnectionFactory.getConnection();
+            statement = connection.prepareStatement(query);
+            statement.setInt(1, afterId);
+            statement.setInt(2, limit);
+            resultSet = statement.executeQuery();
+            return createObjects(resultSet);
+        }catch(SQLException e){
+            failed("findPage");
+            LOGGER.log(Level.WARNING, type.getName() + "DAO:findPage " + e.getMessage());
+        }finally{
+            ConnectionFactory.close(resultSet);
+            ConnectionFactory.close(statement);
+            ConnectionFactory.close(connection);
+            timer.stop(started);
+        }
+        return new ArrayList<T>();
     }
 
     /**
@@ -158,6 +277,8 @@ public class AbstractDAO<T> {
         PreparedStatement statement = null;
         ResultSet resultSet = null;
         String query = createSelectQuery(idField);
+        Timer timer = timer("findById");
+        long started = timer.start();
         try{
             connection = ConnectionFactory.getConnection();
             statement = connection.prepareStatement(query);
@@ -168,34 +289,205 @@ public class AbstractDAO<T> {
             }
             return createObjects(resultSet).get(0);
         }catch(SQLException e){
+            failed("findById");
             LOGGER.log(Level.WARNING, type.getName() + "DAO:findById " + e.getMessage());
         }finally{
             ConnectionFactory.close(resultSet);
             ConnectionFactory.close(statement);
             ConnectionFactory.close(connection);
+            timer.stop(started);
+        }
+        return null;
+    }
+
+    /**
+     * method to retrieve the first object of type T whose given field has a specified String value
+     * @param field String representing the name of the field based on which the search is performed
+     * @param value String representing the value to be searched for
+     * @return an object of type T corresponding to the given value or null, in case it wasn't found
+     */
+    protected T findByField(String field, String value){
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        String query = createSelectQuery(field);
+        Timer timer = timer("findByField");
+        long started = timer.start();
+        try{
+            connection = ConnectionFactory.getConnection();
+            statement = connection.prepareStatement(query);
+            statement.setString(1, value);
+            resultSet = statement.executeQuery();
+            if(!resultSet.isBeforeFirst()){
+                return null;
+            }
+            return createObjects(resultSet).get(0);
+        }catch(SQLException e){
+            failed("findByField");
+            LOGGER.log(Level.WARNING, type.getName() + "DAO:findByField " + e.getMessage());
+        }finally{
+            ConnectionFactory.close(resultSet);
+            ConnectionFactory.close(statement);
+            ConnectionFactory.close(connection);
+            timer.stop(started);
         }
         return null;
     }
 
+    /**
+     * method to retrieve the objects whose field has one of several values, with one SELECT ... WHERE field IN (?, ...) per IN_LIST_SIZE values
+     * the comparison of strings follows the collation of the column, e.g. case-insensitive for the name columns
+     * @param field String representing the field based on which the objects are selected, e.g. an id or a name
+     * @param values the searched values; duplicates are allowed
+     * @return a list of objects T whose field has one of the values; empty if there are none or the table cannot be read
+     */
+    protected List<T> findAllByField(String field, List<?> values){
+        List<T> found = new ArrayList<T>();
+        Timer timer = timer("findAllByField");
+        long started = timer.start();
+        Connection connection = null;
+        try{
+            connection = ConnectionFactory.getConnection();
+            for(int from = 0; from < values.size(); from += IN_LIST_SIZE){
+                List<?> chunk = values.subList(from, Math.min(values.size(), from + IN_LIST_SIZE));
+                StringBuilder sb = new StringBuilder(createSelectQuery(null));
+                sb.append(" WHERE `").append(metadata.getTable()).append("`.").append(field).append(" IN (?");
+                for(int i = 1; i < chunk.size(); i++){
+                    sb.append(", ?");
+                }
+                sb.append(")");
+                PreparedStatement statement = null;
+                ResultSet resultSet = null;
+                try{
+                    statement = connection.prepareStatement(sb.toString());
+                    for(int i = 0; i < chunk.size(); i++){
+                        statement.setObject(i + 1, chunk.get(i));
+                    }
+                    resultSet = statement.executeQuery();
+                    found.addAll(createObjects(resultSet));
+                }finally{
+                    ConnectionFactory.close(resultSet);
+                    ConnectionFactory.close(statement);
+                }
+            }
+        }catch(SQLException e){
+            failed("findAllByField");
+            LOGGER.log(Level.WARNING, type.getName() + "DAO:findAllByField " + e.getMessage());
+        }finally{
+            ConnectionFactory.close(connection);
+            timer.stop(started);
+        }
+        return found;
+    }
+
+    /**
+     * method to apparently delete all the rows with a given value in a field, with a single set-based UPDATE of their "deleted" flag
+     * @param connection the Connection on which the UPDATE is executed, e.g. as part of a transaction; it is not closed
+     * @param field String representing the field based on which the rows are selected, e.g. an id or a foreign key
+     * @param value int representing the value of the field
+     * @return an int representing the number of rows matched by the update
+     * @throws SQLException if the update fails
+     */
+    public int markDeleted(Connection connection, String field, int value) throws SQLException {
+        PreparedStatement statement = null;
+        Timer timer = timer("markDeleted");
+        long started = timer.start();
+        try{
+            statement = connection.prepareStatement(createMarkDeletedQuery(field));
+            statement.setInt(1, value);
+            return statement.executeUpdate();
+        }finally{
+            ConnectionFactory.close(statement);
+            timer.stop(started);
+        }
+    }
+
+    /**
+     * method to delete all the rows of the table with a single DELETE, e.g. when the database is reset
+     * @param connection the Connection on which the DELETE is executed, e.g. as part of a transaction; it is not closed
+     * @return an int representing the number of deleted rows
+     * @throws SQLException if the delete fails
+     */
+    public int deleteAll(Connection connection) throws SQLException {
+        Statement statement = null;
+        Timer timer = timer("deleteAll");
+        long started = timer.start();
+        try{
+            statement = connection.createStatement();
+            return statement.executeUpdate("DELETE FROM `" + metadata.getTable() + "`");
+        }finally{
+            ConnectionFactory.close(statement);
+            timer.stop(started);
+        }
+    }
+
+    /**
+     * method to delete all the rows of the table with a single DELETE, as part of a transaction started by a JdbcStorage
+     * @param transaction the Transaction in which the rows are deleted
+     * @return an int representing the number of deleted rows
+     * @throws SQLException if the delete fails
+     */
+    public int deleteAll(Transaction transaction) throws SQLException {
+        return deleteAll(JdbcTransaction.connection(transaction));
+    }
+
     /**
      * method to insert a new object T in the database
+     * if the id of the object is 0, the id is generated by the database (AUTO_INCREMENT) and set on the object
      * @param t object of type T which is to be inserted in the corresponding table
+     * @return an int representing the id of the inserted object or -1, in case the insert failed
      */
-    public void insert(T t){
+    public int insert(T t){
         Connection connection = null;
-        PreparedStatement statement = null;
-        String query = createInsertQuery(t);
         try{
             connection = ConnectionFactory.getConnection();
-            statement = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS);
-            statement.executeUpdate();
+            return insert(connection, t);
         }catch(SQLException e){
+            failed("insert");
             LOGGER.log(Level.WARNING, "DAO:Insert " + e.getMessage());
         }
         finally{
-            ConnectionFactory.close(statement);
             ConnectionFactory.close(connection);
         }
+        return -1;
+    }
+
+    /**
+     * method to insert a new object T in the database, using a given connection, e.g. as part of a transaction
+     * if the id of the object is 0, the id is generated by the database (AUTO_INCREMENT) and set on the object
+     * @param connection the Connection on which the INSERT is executed; it is not closed
+     * @param t object of type T which is to be inserted in the corresponding table
+     * @return an int representing the id of the inserted object
+     * @throws SQLException if the insert fails
+     */
+    public int insert(Connection connection, T t) throws SQLException {
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        boolean generated = metadata.needsGeneratedId(t);
+        String query = generated ? metadata.getInsertGeneratedSql() : createInsertQuery();
+        Timer timer = timer("insert");
+        long started = timer.start();
+        try{
+            statement = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS);
+            if(generated){
+                metadata.bindInsertGenerated(statement, t);
+            }
+            else{
+                metadata.bindInsert(statement, t);
+            }
+            statement.executeUpdate();
+            if(generated){
+                resultSet = statement.getGeneratedKeys();
+                if(resultSet.next()){
+                    metadata.assignId(t, resultSet.getInt(1));
+                }
+            }
+            return metadata.readId(t);
+        }finally{
+            ConnectionFactory.close(resultSet);
+            ConnectionFactory.close(statement);
+            timer.stop(started);
+        }
     }
 
     /**
@@ -205,17 +497,22 @@ public class AbstractDAO<T> {
     public void update(T t){
         Connection connection = null;
         PreparedStatement statement = null;
-        String query = createUpdateQuery(t);
+        String query = createUpdateQuery();
+        Timer timer = timer("update");
+        long started = timer.start();
         try{
             connection = ConnectionFactory.getConnection();
-            statement = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS);
+            statement = connection.prepareStatement(query);
+            metadata.bindUpdate(statement, t);
             statement.executeUpdate();
         }catch(SQLException e){
+            failed("update");
             LOGGER.log(Level.WARNING, "DAO:Update " + e.getMessage());
         }
         finally{
             ConnectionFactory.close(statement);
             ConnectionFactory.close(connection);
+            timer.stop(started);
         }
     }
 
@@ -226,46 +523,332 @@ public class AbstractDAO<T> {
     public void delete(T t){
         Connection connection = null;
         PreparedStatement statement = null;
-        Field idField = type.getDeclaredFields()[0];
-        idField.setAccessible(true);
-        String query = createDeleteQuery(t);
+        String query = createDeleteQuery();
+        Timer timer = timer("delete");
+        long started = timer.start();
         try{
             connection = ConnectionFactory.getConnection();
             statement = connection.prepareStatement(query);
+            metadata.bindDelete(statement, t);
             statement.executeUpdate();
         }catch(SQLException e){
+            failed("delete");
             LOGGER.log(Level.WARNING, type.getName() + "DAO:delete " + e.getMessage());
         }
         finally{
             ConnectionFactory.close(statement);
             ConnectionFactory.close(connection);
+            timer.stop(started);
+        }
+
+    }
+
+    /**
+     * method to insert a new object T in the database, as part of a transaction started by a JdbcStorage
+     * @param transaction the Transaction in which the object is inserted
+     * @param t object of type T which is to be inserted in the corresponding table
+     * @return an int representing the id of the inserted object
+     * @throws SQLException if the insert fails
+     */
+    public int insert(Transaction transaction, T t) throws SQLException {
+        return insert(JdbcTransaction.connection(transaction), t);
+    }
+
+    /**
+     * method to insert a list of new objects T in the database, sending the INSERT statements in batches
+     * all the objects are inserted in a single transaction; the objects whose id is 0 receive the id generated by the database
+     * @param list the objects of type T which are to be inserted in the corresponding table
+     */
+    public void insertAll(List<T> list){
+        inTransaction(list, this::insertAll, "insertAll");
+    }
+
+    /**
+     * method to insert a list of new objects T in the database, sending the INSERT statements in batches, as part of a transaction started by a JdbcStorage
+     * the objects whose id is 0 receive the id generated by the database
+     * @param transaction the Transaction in which the objects are inserted
+     * @param list the objects of type T which are to be inserted in the corresponding table
+     * @throws SQLException if a batch fails
+     */
+    public void insertAll(Transaction transaction, List<T> list) throws SQLException {
+        insertAll(JdbcTransaction.connection(transaction), list);
+    }
+
+    /**
+     * method to insert a list of new objects T in the database, sending the INSERT statements in batches on a given connection
+     * @param connection the Connection on which the statements are executed; it is not closed
+     * @param list the objects of type T which are to be inserted in the corresponding table
+     * @throws SQLException if a batch fails
+     */
+    private void insertAll(Connection connection, List<T> list) throws SQLException {
+        List<T> generated = new ArrayList<>();
+        List<T> explicit = new ArrayList<>();
+        for(T t : list){
+            if(metadata.needsGeneratedId(t)){
+                generated.add(t);
+            }
+            else{
+                explicit.add(t);
+            }
+        }
+        executeBatch(connection, explicit, createInsertQuery(), metadata::bindInsert, false, "insertAll");
+        executeBatch(connection, generated, metadata.getInsertGeneratedSql(), metadata::bindInsertGenerated, true, "insertAll");
+    }
+
+    /**
+     * method to update a list of already existing objects T in the database, sending the UPDATE statements in batches
+     * all the objects are updated in a single transaction
+     * @param list the objects of type T which are searched and updated in the corresponding table
+     */
+    public void updateAll(List<T> list){
+        inTransaction(list, this::updateAll, "updateAll");
+    }
+
+    /**
+     * method to update a list of already existing objects T in the database, sending the UPDATE statements in batches,
+     * as part of a transaction started by a JdbcStorage
+     * @param transaction the Transaction in which the objects are updated
+     * @param list the objects of type T which are searched and updated in the corresponding table
+     * @throws SQLException if a batch fails
+     */
+    public void updateAll(Transaction transaction, List<T> list) throws SQLException {
+        updateAll(JdbcTransaction.connection(transaction), list);
+    }
+
+    /**
+     * method to update a list of already existing objects T in the database, sending the UPDATE statements in batches on a given connection
+     * @param connection the Connection on which the statements are executed; it is not closed
+     * @param list the objects of type T which are searched and updated in the corresponding table
+     * @throws SQLException if a batch fails
+     */
+    private void updateAll(Connection connection, List<T> list) throws SQLException {
+        executeBatch(connection, list, createUpdateQuery(), metadata::bindUpdate, false, "updateAll");
+    }
+
+    /**
+     * method to delete a list of objects T from the database by their keys, sending the DELETE statements in batches,
+     * as part of a transaction started by a JdbcStorage
+     * @param transaction the Transaction in which the objects are deleted
+     * @param list the objects of type T which are searched and deleted from the corresponding table
+     * @throws SQLException if a batch fails
+     */
+    public void deleteAll(Transaction transaction, List<T> list) throws SQLException {
+        executeBatch(JdbcTransaction.connection(transaction), list, createDeleteQuery(), metadata::bindDelete, false, "deleteAll");
+    }
+
+    /**
+     * method used to write a list of objects in a transaction of its own, on a pooled connection, which is rolled back if any batch fails
+     * @param list the objects of type T to be written
+     * @param write the method writing the objects on the connection
+     * @param operation String representing the name of the operation, used in the log message
+     */
+    private void inTransaction(List<T> list, BatchWrite<T> write, String operation){
+        if(list.isEmpty()){
+            return;
+        }
+        Connection connection = null;
+        try{
+            connection = ConnectionFactory.getConnection();
+            connection.setAutoCommit(false);
+            write.write(connection, list);
+            connection.commit();
+        }catch(SQLException e){
+            LOGGER.log(Level.WARNING, type.getName() + "DAO:" + operation + " " + e.getMessage());
+            ConnectionFactory.rollback(connection);
+        }
+        finally{
+            ConnectionFactory.close(connection);
         }
+    }
+
+    /**
+     * method used to execute a parameterized query once for every object of a list, in batches of BATCH_SIZE statements, on a given connection
+     * @param connection the Connection on which the statements are executed; it is not closed and its transaction is not committed
+     * @param list the objects of type T whose fields are bound to the query
+     * @param query String representing the parameterized query
+     * @param binder the method binding the fields of an object to the parameters of the query
+     * @param generatedKeys true if the ids generated by the database have to be set on the objects, in list order
+     * @param operation String representing the name of the operation, used for its timer and failure counter
+     * @throws SQLException if a batch fails
+     */
+    private void executeBatch(Connection connection, List<T> list, String query, Binder<T> binder, boolean generatedKeys, String operation) throws SQLException {
+        if(list.isEmpty()){
+            return;
+        }
+        PreparedStatement statement = null;
+        Timer timer = timer(operation);
+        long started = timer.start();
+        try{
+            if(generatedKeys){
+                statement = connection.prepareStatement(query, Statement.RETURN_GENERATED_KEYS);
+            }
+            else{
+                statement = connection.prepareStatement(query);
+            }
+            int start = 0;
+            for(int i = 0; i < list.size(); i++){
+                binder.bind(statement, list.get(i));
+                statement.addBatch();
+                if(i + 1 - start == BATCH_SIZE || i + 1 == list.size()){
+                    statement.executeBatch();
+                    if(generatedKeys){
+                        assignGeneratedKeys(statement, list, start);
+                    }
+                    start = i + 1;
+                }
+            }
+        }catch(SQLException e){
+            failed(operation);
+            throw e;
+        }
+        finally{
+            ConnectionFactory.close(statement);
+            timer.stop(started);
+        }
+    }
 
+    /**
+     * method used to set the ids generated by the last executed batch on the corresponding objects
+     * @param statement the PreparedStatement whose batch was executed
+     * @param list the objects of type T which were inserted
+     * @param start the index in the list of the first object of the batch
+     * @throws SQLException if the generated keys cannot be read
+     */
+    private void assignGeneratedKeys(PreparedStatement statement, List<T> list, int start) throws SQLException {
+        ResultSet keys = null;
+        try{
+            keys = statement.getGeneratedKeys();
+            int i = start;
+            while(keys.next() && i < list.size()){
+                metadata.assignId(list.get(i++), keys.getInt(1));
+            }
+        }finally{
+            ConnectionFactory.close(keys);
+        }
     }
 
     /**
      * method which transforms a given ResultSet into the corresponding list of objects
+     * the columns and setters are resolved through the cached metadata of the type, so each row only allocates the object itself
      * @param resultSet ResultSet type variable representing the result obtained from executing a SELECT query
      * @return a list of objets T corresponding to the given ResultSet and to the table which was accessed
      */
     protected List<T> createObjects(ResultSet resultSet){
         List<T> list = new ArrayList<T>();
         try{
+            int[] columns = metadata.resolveColumns(resultSet);
             while(resultSet.next()){
-                T instance = type.getDeclaredConstructor().newInstance();
-                for(Field field : type.getDeclaredFields()){
-                    field.setAccessible(true);
-                    Object value = resultSet.getObject(field.getName());
-                    PropertyDescriptor propertyDescriptor = new PropertyDescriptor(field.getName(), type);
-                    Method method = propertyDescriptor.getWriteMethod();
-                    method.invoke(instance, value);
-                }
-                list.add(instance);
+                list.add(metadata.mapRow(resultSet, columns));
             }
         }catch(Exception e){
-            LOGGER.log(Level.WARNING, type.getName() + "DAO:delete " + e.getMessage());
+            failed("createObjects");
+            LOGGER.log(Level.WARNING, type.getName() + "DAO:createObjects " + e.getMessage());
             e.printStackTrace();
         }
+        rowsRead.add(list.size());
         return list;
     }
+
+    /**
+     * Spliterator reading the rows of an open ResultSet, which releases the ResultSet, its statement and its connection
+     * once the last row is read or the stream is closed
+     */
+    private class RowCursor extends Spliterators.AbstractSpliterator<T> {
+
+        /**
+         * the connection on which the query was executed
+         */
+        private final Connection connection;
+        /**
+         * the executed statement
+         */
+        private final PreparedStatement statement;
+        /**
+         * the rows being read
+         */
+        private final ResultSet resultSet;
+        /**
+         * the column indexes of the fields, obtained from EntityMetadata.resolveColumns()
+         */
+        private final int[] columns;
+        /**
+         * true once the resources were released
+         */
+        private boolean closed = false;
+
+        /**
+         * constructor containing all the fields
+         * @param connection the connection on which the query was executed
+         * @param statement the executed statement
+         * @param resultSet the rows to be read
+         * @param columns the column indexes of the fields
+         */
+        private RowCursor(Connection connection, PreparedStatement statement, ResultSet resultSet, int[] columns){
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.connection = connection;
+            this.statement = statement;
+            this.resultSet = resultSet;
+            this.columns = columns;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action){
+            if(closed){
+                return false;
+            }
+            try{
+                if(resultSet.next()){
+                    rowsRead.increment();
+                    action.accept(metadata.mapRow(resultSet, columns));
+                    return true;
+                }
+            }catch(SQLException e){
+                LOGGER.log(Level.WARNING, type.getName() + "DAO:stream " + e.getMessage());
+            }
+            close();
+            return false;
+        }
+
+        /**
+         * method used to release the ResultSet, the statement and the connection
+         */
+        private void close(){
+            if(!closed){
+                closed = true;
+                ConnectionFactory.close(resultSet);
+                ConnectionFactory.close(statement);
+                ConnectionFactory.close(connection);
+            }
+        }
+    }
+
+    /**
+     * Writes a list of objects on a connection, e.g. insertAll(Connection, List)
+     * @param <T> the type of the written objects
+     */
+    private interface BatchWrite<T> {
+
+        /**
+         * method used to write the objects
+         * @param connection the Connection on which the objects are written
+         * @param list the objects to be written
+         * @throws SQLException if the objects cannot be written
+         */
+        void write(Connection connection, List<T> list) throws SQLException;
+    }
+
+    /**
+     * Binds the fields of an object to the parameters of a statement
+     * @param <T> the type of the bound object
+     */
+    private interface Binder<T> {
+
+        /**
+         * method used to bind the fields of an object to the parameters of a statement
+         * @param statement the PreparedStatement whose parameters are set
+         * @param t the object whose fields are bound
+         * @throws SQLException if a parameter cannot be set
+         */
+        void bind(PreparedStatement statement, T t) throws SQLException;
+    }
 }
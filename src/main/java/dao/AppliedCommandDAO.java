@@ -0,0 +1,11 @@
+package dao;
+
+import model.AppliedCommand;
+
+/**
+ * Data Access class for the AppliedCommand table; the rows are written in the transactions of the commands they cover
+ * all the operations are the generic ones of AbstractDAO
+ */
+
+public class AppliedCommandDAO extends AbstractDAO<AppliedCommand> {
+}
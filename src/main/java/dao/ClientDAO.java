@@ -2,6 +2,8 @@ package dao;
 
 import connection.ConnectionFactory;
 import model.Client;
+import storage.ClientStore;
+import storage.Transaction;
 
 import java.sql.*;
 import java.util.List;
@@ -11,7 +13,7 @@ import java.util.logging.Level;
  * Data Access class for the Client table, implementing the operations available on the database: SELECT, INSERT, UPDATE, DELETE
  */
 
-public class ClientDAO extends AbstractDAO<Client> {
+public class ClientDAO extends AbstractDAO<Client> implements ClientStore {
 
     /**
      * method to retrieve all the clients available in the database
@@ -30,12 +32,40 @@ public class ClientDAO extends AbstractDAO<Client> {
         return super.findById("idclient", id);
     }
 
+    /**
+     * method to retrieve a client with a specified name; the comparison is case-insensitive and uses the index on the name column
+     * @param name String representing the name of the client to be found
+     * @return a Client object corresponding to the given name or null, in case it wasn't found
+     */
+    public Client findByName(String name){
+        return super.findByField("name", name);
+    }
+
+    /**
+     * method to retrieve the clients with given ids, with one SELECT ... WHERE idclient IN (?, ...)
+     * @param ids the ids of the clients
+     * @return a list of Client objects; the ids which were not found have no client in it
+     */
+    public List<Client> findAllByIds(List<Integer> ids){
+        return super.findAllByField("idclient", ids);
+    }
+
+    /**
+     * method to retrieve the clients with given names, with one SELECT ... WHERE name IN (?, ...), through the index on the name column
+     * @param names the names of the clients; the comparison is case-insensitive
+     * @return a list of Client objects; the names which were not found have no client in it
+     */
+    public List<Client> findAllByNames(List<String> names){
+        return super.findAllByField("name", names);
+    }
+
     /**
      * method to insert a new client in the database
      * @param client Client object which is to be inserted in the Client table
+     * @return an int representing the id of the inserted client or -1, in case the insert failed
      */
-    public void insert(Client client){
-        super.insert(client);
+    public int insert(Client client){
+        return super.insert(client);
     }
 
     /**
@@ -54,4 +84,14 @@ public class ClientDAO extends AbstractDAO<Client> {
         super.delete(client);
     }
 
+    /**
+     * method to apparently delete a client, by setting its "deleted" flag, as part of a transaction started by a JdbcStorage
+     * @param transaction the Transaction in which the client is updated
+     * @param id int representing the id of the client
+     * @return an int representing the number of flagged rows
+     * @throws SQLException if the update fails
+     */
+    public int markDeleted(Transaction transaction, int id) throws SQLException {
+        return super.markDeleted(JdbcTransaction.connection(transaction), "idclient", id);
+    }
 }
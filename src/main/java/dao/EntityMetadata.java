@@ -0,0 +1,546 @@
+package dao;
+
+import annotations.Column;
+import annotations.Id;
+import annotations.Table;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reflection metadata of a model class, resolved once per class and shared by all the DAOs working with that class
+ * the table, the key and the columns are taken from the @Table, @Id and @Column annotations, so they do not depend on the order of the fields
+ * @param <T> the model class described by the metadata
+ */
+
+class EntityMetadata<T> {
+
+    /**
+     * the metadata already built, one entry per model class
+     */
+    private static final ConcurrentHashMap<Class<?>, EntityMetadata<?>> CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * the model class described by the metadata
+     */
+    private final Class<T> type;
+    /**
+     * the name of the table corresponding to the model class, given by @Table or, if missing, the simple name of the class
+     */
+    private final String table;
+    /**
+     * the persistent fields of the model class, in declaration order
+     */
+    private final Property[] properties;
+    /**
+     * the fields forming the primary key: the fields annotated with @Id or, if there are none, the first declared field
+     */
+    private final Property[] keys;
+    /**
+     * the field used as primary key if the key has a single field, e.g. to receive a generated id; null for a composite key
+     */
+    private final Property id;
+    /**
+     * handle of the no-argument constructor, typed ()Object
+     */
+    private final MethodHandle constructor;
+    /**
+     * the parameterized INSERT statement of the table, with one parameter per field, in declaration order
+     */
+    private final String insertSql;
+    /**
+     * the parameterized INSERT statement of the table without the id column, used when the id is generated by the database
+     */
+    private final String insertGeneratedSql;
+    /**
+     * the parameterized UPDATE statement of the table, setting every field except the key fields and filtering by all the key fields
+     */
+    private final String updateSql;
+    /**
+     * the parameterized DELETE statement of the table, filtering by all the key fields
+     */
+    private final String deleteSql;
+    /**
+     * the parameterized SELECT statement reading the rows after a given id, in id order, or null for a composite key
+     */
+    private final String pageSql;
+
+    /**
+     * method to retrieve the metadata of a model class, building it on first use
+     * @param type the model class
+     * @param <T> the model class described by the metadata
+     * @return the EntityMetadata of the given class
+     */
+    @SuppressWarnings("unchecked")
+    static <T> EntityMetadata<T> of(Class<T> type){
+        EntityMetadata<?> metadata = CACHE.get(type);
+        if(metadata == null){
+            metadata = CACHE.computeIfAbsent(type, EntityMetadata::new);
+        }
+        return (EntityMetadata<T>) metadata;
+    }
+
+    /**
+     * constructor resolving the table name, the persistent fields, their setters and the constructor of the given class
+     * @param type the model class
+     */
+    private EntityMetadata(Class<T> type){
+        this.type = type;
+        Table annotation = type.getAnnotation(Table.class);
+        this.table = annotation != null ? annotation.value() : type.getSimpleName();
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        List<Property> list = new ArrayList<>();
+        List<Property> keyList = new ArrayList<>();
+        try{
+            for(Field field : type.getDeclaredFields()){
+                if(Modifier.isStatic(field.getModifiers()) || field.isSynthetic()){
+                    continue;
+                }
+                Property property = new Property(lookup, type, field);
+                list.add(property);
+                if(field.isAnnotationPresent(Id.class)){
+                    keyList.add(property);
+                }
+            }
+            this.constructor = lookup.findConstructor(type, MethodType.methodType(void.class)).asType(MethodType.methodType(Object.class));
+        }catch(ReflectiveOperationException e){
+            throw new IllegalStateException("Cannot resolve the metadata of " + type.getName(), e);
+        }
+        this.properties = list.toArray(new Property[0]);
+        this.keys = keyList.isEmpty() ? new Property[]{properties[0]} : keyList.toArray(new Property[0]);
+        this.id = keys.length == 1 ? keys[0] : null;
+        this.insertSql = buildInsertSql(true);
+        this.insertGeneratedSql = id == null ? insertSql : buildInsertSql(false);
+        this.updateSql = buildUpdateSql();
+        this.deleteSql = "DELETE FROM `" + table + "` WHERE " + buildKeyCondition();
+        this.pageSql = id == null ? null
+                : "SELECT * FROM `" + table + "` WHERE " + id.getColumn() + " > ? ORDER BY " + id.getColumn() + " LIMIT ?";
+    }
+
+    /**
+     * method to build the INSERT statement of the table
+     * @param withId true if the id column is part of the statement, false if it is left to the database
+     * @return a String of the form INSERT INTO `table` (col1,col2,...) VALUES (?,?,...)
+     */
+    private String buildInsertSql(boolean withId){
+        StringBuilder columns = new StringBuilder();
+        StringBuilder values = new StringBuilder();
+        for(Property property : properties){
+            if(!withId && property == id){
+                continue;
+            }
+            columns.append(property.getColumn()).append(',');
+            values.append("?,");
+        }
+        columns.setLength(columns.length()-1);
+        values.setLength(values.length()-1);
+        return "INSERT INTO `" + table + "` (" + columns + ") VALUES (" + values + ")";
+    }
+
+    /**
+     * method to build the UPDATE statement of the table
+     * @return a String of the form UPDATE `table` SET col3=?,col4=?,... WHERE col1=? AND col2=?
+     */
+    private String buildUpdateSql(){
+        StringBuilder sb = new StringBuilder();
+        sb.append("UPDATE `").append(table).append("` SET ");
+        for(Property property : properties){
+            if(!isKey(property)){
+                sb.append(property.getColumn()).append("=?,");
+            }
+        }
+        sb.setLength(sb.length()-1);
+        sb.append(" WHERE ").append(buildKeyCondition());
+        return sb.toString();
+    }
+
+    /**
+     * method to build the condition selecting a single row by all the key fields
+     * @return a String of the form col1=? AND col2=?
+     */
+    private String buildKeyCondition(){
+        StringBuilder sb = new StringBuilder();
+        for(Property key : keys){
+            if(sb.length() > 0){
+                sb.append(" AND ");
+            }
+            sb.append(key.getColumn()).append("=?");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * method to check if a field is part of the primary key
+     * @param property the Property to be checked
+     * @return true if the field is a key field, false otherwise
+     */
+    private boolean isKey(Property property){
+        for(Property key : keys){
+            if(key == property){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * method to retrieve the model class described by the metadata
+     * @return the model class
+     */
+    Class<T> getType(){
+        return type;
+    }
+
+    /**
+     * method to retrieve the name of the table corresponding to the model class
+     * @return a String representing the name of the table
+     */
+    String getTable(){
+        return table;
+    }
+
+    /**
+     * method to retrieve the persistent fields of the model class
+     * @return an array of Property objects, in declaration order
+     */
+    Property[] getProperties(){
+        return properties;
+    }
+
+    /**
+     * method to retrieve the parameterized INSERT statement of the table
+     * @return a String representing the INSERT statement
+     */
+    String getInsertSql(){
+        return insertSql;
+    }
+
+    /**
+     * method to retrieve the parameterized INSERT statement of the table without the id column
+     * @return a String representing the INSERT statement
+     */
+    String getInsertGeneratedSql(){
+        return insertGeneratedSql;
+    }
+
+    /**
+     * method to check if the id of an object is still unassigned, i.e. it is 0 and has to be generated by the database
+     * a composite key is never generated
+     * @param t the object whose id is checked
+     * @return true if the id is unassigned, false otherwise
+     */
+    boolean needsGeneratedId(T t){
+        return id != null && id.kind == Property.Kind.INT && id.readInt(t) == 0;
+    }
+
+    /**
+     * method used to set the id generated by the database on the inserted object
+     * @param t the inserted object
+     * @param value int representing the generated id
+     */
+    void assignId(T t, int value){
+        id.writeInt(t, value);
+    }
+
+    /**
+     * method used to read the id of an object; for a composite key, the first key field is read
+     * @param t the object whose id is read
+     * @return an int representing the id or -1, if the id is not an int
+     */
+    int readId(T t){
+        if(keys[0].kind != Property.Kind.INT){
+            return -1;
+        }
+        return keys[0].readInt(t);
+    }
+
+    /**
+     * method to retrieve the parameterized UPDATE statement of the table
+     * @return a String representing the UPDATE statement
+     */
+    String getUpdateSql(){
+        return updateSql;
+    }
+
+    /**
+     * method to retrieve the parameterized DELETE statement of the table
+     * @return a String representing the DELETE statement
+     */
+    String getDeleteSql(){
+        return deleteSql;
+    }
+
+    /**
+     * method to retrieve the parameterized SELECT statement of a keyset page: the rows with an id greater than the first parameter,
+     * in id order, at most as many as the second parameter
+     * @return a String representing the SELECT statement or null, if the table has a composite key
+     */
+    String getPageSql(){
+        return pageSql;
+    }
+
+    /**
+     * method used to bind the fields of an object to the parameters of the INSERT statement
+     * @param statement the PreparedStatement created from getInsertSql()
+     * @param t the object to be inserted
+     * @throws SQLException if a parameter cannot be set
+     */
+    void bindInsert(PreparedStatement statement, T t) throws SQLException {
+        for(int i = 0; i < properties.length; i++){
+            properties[i].write(t, statement, i+1);
+        }
+    }
+
+    /**
+     * method used to bind the fields of an object, except for the id, to the parameters of the INSERT statement without the id column
+     * @param statement the PreparedStatement created from getInsertGeneratedSql()
+     * @param t the object to be inserted
+     * @throws SQLException if a parameter cannot be set
+     */
+    void bindInsertGenerated(PreparedStatement statement, T t) throws SQLException {
+        int index = 1;
+        for(Property property : properties){
+            if(property != id){
+                property.write(t, statement, index++);
+            }
+        }
+    }
+
+    /**
+     * method used to bind the fields of an object to the parameters of the UPDATE statement: first the other fields, then the key fields
+     * @param statement the PreparedStatement created from getUpdateSql()
+     * @param t the object to be updated
+     * @throws SQLException if a parameter cannot be set
+     */
+    void bindUpdate(PreparedStatement statement, T t) throws SQLException {
+        int index = 1;
+        for(Property property : properties){
+            if(!isKey(property)){
+                property.write(t, statement, index++);
+            }
+        }
+        for(Property key : keys){
+            key.write(t, statement, index++);
+        }
+    }
+
+    /**
+     * method used to bind the key fields of an object to the parameters of the DELETE statement
+     * @param statement the PreparedStatement created from getDeleteSql()
+     * @param t the object to be deleted
+     * @throws SQLException if a parameter cannot be set
+     */
+    void bindDelete(PreparedStatement statement, T t) throws SQLException {
+        for(int i = 0; i < keys.length; i++){
+            keys[i].write(t, statement, i+1);
+        }
+    }
+
+    /**
+     * method used to find the index of every persistent field in the columns of a ResultSet
+     * called once per ResultSet, so that reading a row does not look up columns by name
+     * @param resultSet the ResultSet whose columns are searched
+     * @return an array of column indexes, parallel to the properties array
+     * @throws SQLException if a column is missing from the ResultSet
+     */
+    int[] resolveColumns(ResultSet resultSet) throws SQLException {
+        int[] columns = new int[properties.length];
+        for(int i = 0; i < properties.length; i++){
+            columns[i] = resultSet.findColumn(properties[i].getColumn());
+        }
+        return columns;
+    }
+
+    /**
+     * method which transforms the current row of a ResultSet into an object of type T
+     * @param resultSet the ResultSet positioned on the row to be read
+     * @param columns the column indexes obtained from resolveColumns()
+     * @return the object of type T corresponding to the row
+     * @throws SQLException if a column cannot be read
+     */
+    @SuppressWarnings("unchecked")
+    T mapRow(ResultSet resultSet, int[] columns) throws SQLException {
+        try{
+            Object instance = (Object) constructor.invokeExact();
+            for(int i = 0; i < properties.length; i++){
+                properties[i].read(instance, resultSet, columns[i]);
+            }
+            return (T) instance;
+        }catch(SQLException | RuntimeException e){
+            throw e;
+        }catch(Throwable e){
+            throw new IllegalStateException("Cannot create an instance of " + type.getName(), e);
+        }
+    }
+
+    /**
+     * Persistent field of a model class, together with the handles of its setter and getter
+     */
+    static final class Property {
+
+        /**
+         * the kinds of values a field can hold, each one read with its own typed ResultSet getter
+         */
+        enum Kind { INT, FLOAT, STRING, OBJECT }
+
+        /**
+         * the name of the field
+         */
+        private final String name;
+        /**
+         * the name of the corresponding column, given by @Column or, if missing, the name of the field
+         */
+        private final String column;
+        /**
+         * the kind of value held by the field
+         */
+        private final Kind kind;
+        /**
+         * handle of the setter, typed (Object, field type)void
+         */
+        private final MethodHandle setter;
+        /**
+         * handle of the getter, typed (Object)field type
+         */
+        private final MethodHandle getter;
+
+        /**
+         * constructor resolving the setter and the getter of the given field
+         * @param lookup the Lookup used to find the setter
+         * @param type the model class declaring the field
+         * @param field the field to be described
+         * @throws ReflectiveOperationException if the field has no public setter or getter
+         */
+        private Property(MethodHandles.Lookup lookup, Class<?> type, Field field) throws ReflectiveOperationException {
+            this.name = field.getName();
+            Column annotation = field.getAnnotation(Column.class);
+            this.column = annotation != null ? annotation.value() : field.getName();
+            Class<?> fieldType = field.getType();
+            if(fieldType == int.class){
+                kind = Kind.INT;
+            }
+            else if(fieldType == float.class){
+                kind = Kind.FLOAT;
+            }
+            else if(fieldType == String.class){
+                kind = Kind.STRING;
+            }
+            else{
+                kind = Kind.OBJECT;
+            }
+            String suffix = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+            Class<?> argument = kind == Kind.OBJECT ? Object.class : fieldType;
+            this.setter = lookup.findVirtual(type, "set" + suffix, MethodType.methodType(void.class, fieldType))
+                    .asType(MethodType.methodType(void.class, Object.class, argument));
+            this.getter = lookup.findVirtual(type, "get" + suffix, MethodType.methodType(fieldType))
+                    .asType(MethodType.methodType(argument, Object.class));
+        }
+
+        /**
+         * method to retrieve the name of the field
+         * @return a String representing the name of the field
+         */
+        String getName(){
+            return name;
+        }
+
+        /**
+         * method to retrieve the name of the corresponding column
+         * @return a String representing the name of the column
+         */
+        String getColumn(){
+            return column;
+        }
+
+        /**
+         * method used to copy a column of the current row into the field of the given object
+         * @param instance the object whose field is set
+         * @param resultSet the ResultSet positioned on the row to be read
+         * @param column the index of the column
+         * @throws Throwable if the column cannot be read or the setter fails
+         */
+        private void read(Object instance, ResultSet resultSet, int column) throws Throwable {
+            switch(kind){
+                case INT:
+                    setter.invokeExact(instance, resultSet.getInt(column));
+                    break;
+                case FLOAT:
+                    setter.invokeExact(instance, resultSet.getFloat(column));
+                    break;
+                case STRING:
+                    setter.invokeExact(instance, resultSet.getString(column));
+                    break;
+                default:
+                    setter.invokeExact(instance, resultSet.getObject(column));
+            }
+        }
+
+        /**
+         * method used to read an int field of the given object
+         * @param instance the object whose field is read
+         * @return the value of the field
+         */
+        int readInt(Object instance){
+            try{
+                return (int) getter.invokeExact(instance);
+            }catch(RuntimeException e){
+                throw e;
+            }catch(Throwable e){
+                throw new IllegalStateException("Cannot read the field " + name, e);
+            }
+        }
+
+        /**
+         * method used to set an int field of the given object
+         * @param instance the object whose field is set
+         * @param value the new value of the field
+         */
+        void writeInt(Object instance, int value){
+            try{
+                setter.invokeExact(instance, value);
+            }catch(RuntimeException e){
+                throw e;
+            }catch(Throwable e){
+                throw new IllegalStateException("Cannot set the field " + name, e);
+            }
+        }
+
+        /**
+         * method used to bind the field of the given object to a parameter of a statement, with the typed setter of its kind
+         * @param instance the object whose field is read
+         * @param statement the PreparedStatement whose parameter is set
+         * @param index the index of the parameter
+         * @throws SQLException if the parameter cannot be set
+         */
+        void write(Object instance, PreparedStatement statement, int index) throws SQLException {
+            try{
+                switch(kind){
+                    case INT:
+                        statement.setInt(index, (int) getter.invokeExact(instance));
+                        break;
+                    case FLOAT:
+                        statement.setFloat(index, (float) getter.invokeExact(instance));
+                        break;
+                    case STRING:
+                        statement.setString(index, (String) getter.invokeExact(instance));
+                        break;
+                    default:
+                        statement.setObject(index, (Object) getter.invokeExact(instance));
+                }
+            }catch(SQLException | RuntimeException e){
+                throw e;
+            }catch(Throwable e){
+                throw new IllegalStateException("Cannot read the field " + name, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package dao;
+
+import model.FailedOrder;
+
+/**
+ * Data Access class for the FailedOrder table; the rows are written in the transactions recording the refused orders
+ * all the operations are the generic ones of AbstractDAO
+ */
+
+public class FailedOrderDAO extends AbstractDAO<FailedOrder> {
+}
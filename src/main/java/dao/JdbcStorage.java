@@ -0,0 +1,113 @@
+package dao;
+
+import connection.ConnectionFactory;
+import connection.SqlScript;
+import model.AppliedCommand;
+import model.FailedOrder;
+import model.StockDelta;
+import storage.ClientStore;
+import storage.EntityStore;
+import storage.OrderItemStore;
+import storage.OrderStore;
+import storage.ProductStore;
+import storage.Storage;
+import storage.Transaction;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Storage backed by the MySQL database, whose tables are accessed through the DAO classes
+ */
+
+public class JdbcStorage implements Storage {
+
+    /**
+     * instance of the ClientDAO class
+     */
+    private final ClientDAO cDAO = new ClientDAO();
+    /**
+     * instance of the ProductDAO class
+     */
+    private final ProductDAO pDAO = new ProductDAO();
+    /**
+     * instance of the OrderDAO class
+     */
+    private final OrderDAO oDAO = new OrderDAO();
+    /**
+     * instance of the OrderItemDAO class
+     */
+    private final OrderItemDAO oiDAO = new OrderItemDAO();
+    /**
+     * instance of the AppliedCommandDAO class
+     */
+    private final AppliedCommandDAO acDAO = new AppliedCommandDAO();
+    /**
+     * instance of the FailedOrderDAO class
+     */
+    private final FailedOrderDAO foDAO = new FailedOrderDAO();
+    /**
+     * instance of the StockDeltaDAO class
+     */
+    private final StockDeltaDAO sdDAO = new StockDeltaDAO();
+
+    @Override
+    public ClientStore clients(){
+        return cDAO;
+    }
+
+    @Override
+    public ProductStore products(){
+        return pDAO;
+    }
+
+    @Override
+    public OrderStore orders(){
+        return oDAO;
+    }
+
+    @Override
+    public OrderItemStore orderItems(){
+        return oiDAO;
+    }
+
+    @Override
+    public EntityStore<AppliedCommand> appliedCommands(){
+        return acDAO;
+    }
+
+    @Override
+    public EntityStore<FailedOrder> failedOrders(){
+        return foDAO;
+    }
+
+    @Override
+    public EntityStore<StockDelta> stockDeltas(){
+        return sdDAO;
+    }
+
+    @Override
+    public Transaction begin() throws SQLException {
+        return new JdbcTransaction();
+    }
+
+    @Override
+    public void restore(Path snapshot) throws IOException, SQLException {
+        Connection connection = ConnectionFactory.getConnection();
+        try{
+            SqlScript.run(connection, snapshot);
+        }finally{
+            ConnectionFactory.close(connection);
+        }
+    }
+
+    /**
+     * method used to close the idle pooled connections
+     */
+    @Override
+    public void shutdown(){
+        ConnectionFactory.getPool().shutdown();
+    }
+}
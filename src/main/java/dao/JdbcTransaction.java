@@ -0,0 +1,68 @@
+package dao;
+
+import connection.ConnectionFactory;
+import storage.Transaction;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Transaction of the JDBC storage: a pooled connection with auto-commit disabled
+ */
+
+public class JdbcTransaction implements Transaction {
+
+    /**
+     * the connection on which the statements of the transaction are executed
+     */
+    private final Connection connection;
+
+    /**
+     * constructor borrowing a connection from the pool and disabling its auto-commit
+     * @throws SQLException if no connection can be obtained or configured
+     */
+    JdbcTransaction() throws SQLException {
+        Connection borrowed = ConnectionFactory.getConnection();
+        if(borrowed == null){
+            throw new SQLException("No connection available");
+        }
+        try{
+            borrowed.setAutoCommit(false);
+        }catch(SQLException e){
+            ConnectionFactory.close(borrowed);
+            throw e;
+        }
+        this.connection = borrowed;
+    }
+
+    /**
+     * method used to retrieve the connection of a transaction started by a JdbcStorage
+     * @param transaction the Transaction, obtained from JdbcStorage.begin()
+     * @return the Connection of the transaction
+     * @throws IllegalArgumentException if the transaction was not started by a JdbcStorage
+     */
+    static Connection connection(Transaction transaction){
+        if(!(transaction instanceof JdbcTransaction)){
+            throw new IllegalArgumentException("Not a JDBC transaction: " + transaction);
+        }
+        return ((JdbcTransaction) transaction).connection;
+    }
+
+    @Override
+    public void commit() throws SQLException {
+        connection.commit();
+    }
+
+    @Override
+    public void rollback(){
+        ConnectionFactory.rollback(connection);
+    }
+
+    /**
+     * method used to return the connection to the pool; the pool rolls back the uncommitted changes
+     */
+    @Override
+    public void close(){
+        ConnectionFactory.close(connection);
+    }
+}
@@ -1,12 +1,16 @@
 package dao;
 
 import connection.ConnectionFactory;
+import metrics.Timer;
 import model.Order;
+import storage.OrderStore;
+import storage.Transaction;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.List;
 import java.util.logging.Level;
 
@@ -14,7 +18,7 @@ import java.util.logging.Level;
  * Data access class for the Order table, implementing the operations available on the database: SELECT, INSERT, UPDATE, DELETE
  */
 
-public class OrderDAO extends AbstractDAO<Order> {
+public class OrderDAO extends AbstractDAO<Order> implements OrderStore {
 
     /**
      * method to retrieve all the orders available in the database
@@ -36,9 +40,10 @@ public class OrderDAO extends AbstractDAO<Order> {
     /**
      * method to insert a new order in the database
      * @param order Order object which is to be inserted in the Order table
+     * @return an int representing the id of the inserted order or -1, in case the insert failed
      */
-    public void insert(Order order){
-        super.insert(order);
+    public int insert(Order order){
+        return super.insert(order);
     }
 
     /**
@@ -66,4 +71,72 @@ public class OrderDAO extends AbstractDAO<Order> {
         return super.findById("idclient", id);
     }
 
+    /**
+     * method to add the price of an ordered quantity of a product to the order of a client
+     * the order is created if the client has none, otherwise its total is increased, in a single statement relying on the unique idclient key
+     * @param transaction the Transaction in which the order is created / updated, started by a JdbcStorage
+     * @param idClient int representing the id of the client who placed the order
+     * @param idProduct int representing the id of the ordered product
+     * @param quantity int representing the ordered quantity
+     * @return an int representing the id of the created / updated order or -1, if the product was not found
+     * @throws SQLException if the statement fails
+     */
+    public int addToTotal(Transaction transaction, int idClient, int idProduct, int quantity) throws SQLException {
+        return addToTotal(JdbcTransaction.connection(transaction), idClient, idProduct, quantity);
+    }
+
+    /**
+     * method to add the price of an ordered quantity of a product to the order of a client, on a given connection
+     * @param connection the Connection on which the statement is executed, e.g. as part of a transaction; it is not closed
+     * @param idClient int representing the id of the client who placed the order
+     * @param idProduct int representing the id of the ordered product
+     * @param quantity int representing the ordered quantity
+     * @return an int representing the id of the created / updated order or -1, if the product was not found
+     * @throws SQLException if the statement fails
+     */
+    public int addToTotal(Connection connection, int idClient, int idProduct, int quantity) throws SQLException {
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        Timer timer = timer("addToTotal");
+        long started = timer.start();
+        try{
+            statement = connection.prepareStatement("INSERT INTO `order` (idclient, total, deleted) SELECT ?, price * ?, 0 FROM `product` WHERE idproduct = ? "
+                    + "ON DUPLICATE KEY UPDATE idorder = LAST_INSERT_ID(idorder), total = total + VALUES(total)", Statement.RETURN_GENERATED_KEYS);
+            statement.setInt(1, idClient);
+            statement.setInt(2, quantity);
+            statement.setInt(3, idProduct);
+            statement.executeUpdate();
+            resultSet = statement.getGeneratedKeys();
+            if(resultSet.next()){
+                return resultSet.getInt(1);
+            }
+            return -1;
+        }finally{
+            ConnectionFactory.close(resultSet);
+            ConnectionFactory.close(statement);
+            timer.stop(started);
+        }
+    }
+
+    /**
+     * method to apparently delete an order, by setting its "deleted" flag, as part of a transaction started by a JdbcStorage
+     * @param transaction the Transaction in which the order is updated
+     * @param id int representing the id of the order
+     * @return an int representing the number of flagged rows
+     * @throws SQLException if the update fails
+     */
+    public int markDeleted(Transaction transaction, int id) throws SQLException {
+        return super.markDeleted(JdbcTransaction.connection(transaction), "idorder", id);
+    }
+
+    /**
+     * method to apparently delete the order of a client, by setting its "deleted" flag, as part of a transaction started by a JdbcStorage
+     * @param transaction the Transaction in which the order is updated
+     * @param idClient int representing the id of the client
+     * @return an int representing the number of flagged rows
+     * @throws SQLException if the update fails
+     */
+    public int markDeletedByClient(Transaction transaction, int idClient) throws SQLException {
+        return super.markDeleted(JdbcTransaction.connection(transaction), "idclient", idClient);
+    }
 }
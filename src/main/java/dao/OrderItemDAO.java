@@ -1,12 +1,17 @@
 package dao;
 
 import connection.ConnectionFactory;
+import metrics.Timer;
 import model.OrderItem;
+import storage.OrderItemStore;
+import storage.OrderReportHandler;
+import storage.Transaction;
 
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Level;
 
@@ -14,7 +19,7 @@ import java.util.logging.Level;
  * Data Access class for the OrderItem table, implementing the operations available on the database: SELECT, INSERT, UPDATE, DELETE
  */
 
-public class OrderItemDAO extends AbstractDAO<OrderItem> {
+public class OrderItemDAO extends AbstractDAO<OrderItem> implements OrderItemStore {
 
     /**
      * method to retrieve all the orderItems available in the database
@@ -27,9 +32,10 @@ public class OrderItemDAO extends AbstractDAO<OrderItem> {
     /**
      * method to insert a new orderItem in the database
      * @param orderItem OrderItem object which is to be inserted in the OrderItem table
+     * @return an int representing the id of the order of the inserted orderItem or -1, in case the insert failed
      */
-    public void insert(OrderItem orderItem){
-        super.insert(orderItem);
+    public int insert(OrderItem orderItem){
+        return super.insert(orderItem);
     }
 
     /**
@@ -48,16 +54,56 @@ public class OrderItemDAO extends AbstractDAO<OrderItem> {
         super.delete(orderItem);
     }
 
+    /**
+     * method to add a quantity of a product to an order, creating its orderItem if the order does not contain the product yet
+     * the (idorder, idproduct) primary key makes this a single INSERT ... ON DUPLICATE KEY UPDATE of exactly one row
+     * @param transaction the Transaction in which the orderItem is created / updated, started by a JdbcStorage
+     * @param idOrder int representing the id of the order
+     * @param idProduct int representing the id of the product
+     * @param quantity int representing the quantity added to the orderItem
+     * @throws SQLException if the statement fails
+     */
+    public void addQuantity(Transaction transaction, int idOrder, int idProduct, int quantity) throws SQLException {
+        addQuantity(JdbcTransaction.connection(transaction), idOrder, idProduct, quantity);
+    }
+
+    /**
+     * method to add a quantity of a product to an order, creating its orderItem if needed, on a given connection
+     * @param connection the Connection on which the statement is executed, e.g. as part of a transaction; it is not closed
+     * @param idOrder int representing the id of the order
+     * @param idProduct int representing the id of the product
+     * @param quantity int representing the quantity added to the orderItem
+     * @throws SQLException if the statement fails
+     */
+    public void addQuantity(Connection connection, int idOrder, int idProduct, int quantity) throws SQLException {
+        PreparedStatement statement = null;
+        Timer timer = timer("addQuantity");
+        long started = timer.start();
+        try{
+            statement = connection.prepareStatement("INSERT INTO `orderitem` (idorder, idproduct, quantity, deleted) VALUES (?, ?, ?, 0) "
+                    + "ON DUPLICATE KEY UPDATE quantity = quantity + VALUES(quantity)");
+            statement.setInt(1, idOrder);
+            statement.setInt(2, idProduct);
+            statement.setInt(3, quantity);
+            statement.executeUpdate();
+        }finally{
+            ConnectionFactory.close(statement);
+            timer.stop(started);
+        }
+    }
+
     /**
      * method to retrieve all the orderItems available in the database with a specified order id
      * @param id int representing the id of the order of the orderItem
-     * @return a list of OrderItem objects, corresponding to the given order id or null, in case it wasn't found
+     * @return a list of OrderItem objects, corresponding to the given order id; empty, in case it wasn't found
      */
     public List<OrderItem> findAllByIdOrder(int id){
         Connection connection = null;
         PreparedStatement statement = null;
         ResultSet resultSet = null;
         String query = super.createSelectQuery("idOrder");
+        Timer timer = timer("findAllByIdOrder");
+        long started = timer.start();
         try{
             connection = ConnectionFactory.getConnection();
             statement = connection.prepareStatement(query);
@@ -65,25 +111,29 @@ public class OrderItemDAO extends AbstractDAO<OrderItem> {
             resultSet = statement.executeQuery();
             return super.createObjects(resultSet);
         }catch(SQLException e){
+            failed("findAllByIdOrder");
             LOGGER.log(Level.WARNING, "OrderItemDAO:findAllByOrder " + e.getMessage());
         }finally{
             ConnectionFactory.close(resultSet);
             ConnectionFactory.close(statement);
             ConnectionFactory.close(connection);
+            timer.stop(started);
         }
-        return null;
+        return new ArrayList<OrderItem>();
     }
 
     /**
      * method to retrieve all the orderItems available in the database with a specified product id
      * @param id int representing the id of the product of the orderItem
-     * @return a list of OrderItem objects, corresponding to the given order or null, in case it wasn't found
+     * @return a list of OrderItem objects, corresponding to the given product id; empty, in case it wasn't found
      */
     public List<OrderItem> findAllByIdProduct(int id){
         Connection connection = null;
         PreparedStatement statement = null;
         ResultSet resultSet = null;
         String query = super.createSelectQuery("idProduct");
+        Timer timer = timer("findAllByIdProduct");
+        long started = timer.start();
         try{
             connection = ConnectionFactory.getConnection();
             statement = connection.prepareStatement(query);
@@ -91,12 +141,72 @@ public class OrderItemDAO extends AbstractDAO<OrderItem> {
             resultSet = statement.executeQuery();
             return super.createObjects(resultSet);
         }catch(SQLException e){
+            failed("findAllByIdProduct");
             LOGGER.log(Level.WARNING, "OrderItemDAO:findAllByProduct " + e.getMessage());
         }finally{
             ConnectionFactory.close(resultSet);
             ConnectionFactory.close(statement);
             ConnectionFactory.close(connection);
+            timer.stop(started);
         }
-        return null;
+        return new ArrayList<OrderItem>();
+    }
+
+    /**
+     * method to stream the rows of the order report: every order item together with the names of its client and product
+     * a single joined query is executed, the deleted clients and products are filtered by the database and the rows are
+     * passed to the handler as they arrive, without being collected in memory
+     * @param handler the OrderReportHandler receiving the rows
+     */
+    public void forEachReportRow(OrderReportHandler handler){
+        Connection connection = null;
+        PreparedStatement statement = null;
+        ResultSet resultSet = null;
+        String query = "SELECT oi.idorder, c.name, p.name, oi.quantity FROM `orderitem` oi "
+                + "JOIN `order` o ON o.idorder = oi.idorder "
+                + "JOIN `client` c ON c.idclient = o.idclient "
+                + "JOIN `product` p ON p.idproduct = oi.idproduct "
+                + "WHERE c.deleted = 0 AND p.deleted = 0";
+        Timer timer = timer("forEachReportRow");
+        long started = timer.start();
+        try{
+            connection = ConnectionFactory.getConnection();
+            statement = connection.prepareStatement(query, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(STREAM_FETCH_SIZE);
+            resultSet = statement.executeQuery();
+            while(resultSet.next()){
+                handler.row(resultSet.getInt(1), resultSet.getString(2), resultSet.getString(3), resultSet.getInt(4));
+            }
+        }catch(SQLException e){
+            failed("forEachReportRow");
+            LOGGER.log(Level.WARNING, "OrderItemDAO:forEachReportRow " + e.getMessage());
+        }finally{
+            ConnectionFactory.close(resultSet);
+            ConnectionFactory.close(statement);
+            ConnectionFactory.close(connection);
+            timer.stop(started);
+        }
+    }
+
+    /**
+     * method to apparently delete the items of an order, by setting their "deleted" flag, as part of a transaction started by a JdbcStorage
+     * @param transaction the Transaction in which the items are updated
+     * @param idOrder int representing the id of the order
+     * @return an int representing the number of flagged rows
+     * @throws SQLException if the update fails
+     */
+    public int markDeletedByOrder(Transaction transaction, int idOrder) throws SQLException {
+        return super.markDeleted(JdbcTransaction.connection(transaction), "idorder", idOrder);
+    }
+
+    /**
+     * method to apparently delete the items containing a product, by setting their "deleted" flag, as part of a transaction started by a JdbcStorage
+     * @param transaction the Transaction in which the items are updated
+     * @param idProduct int representing the id of the product
+     * @return an int representing the number of flagged rows
+     * @throws SQLException if the update fails
+     */
+    public int markDeletedByProduct(Transaction transaction, int idProduct) throws SQLException {
+        return super.markDeleted(JdbcTransaction.connection(transaction), "idproduct", idProduct);
     }
 }
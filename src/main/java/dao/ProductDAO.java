@@ -1,14 +1,21 @@
 package dao;
 
+import connection.ConnectionFactory;
+import metrics.Timer;
 import model.Product;
+import storage.ProductStore;
+import storage.Transaction;
 
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.util.List;
 
 /**
  * Data Access class for the Product table, implementing the operations available on the database: SELECT, INSERT, UPDATE, DELETE
  */
 
-public class ProductDAO extends AbstractDAO<Product> {
+public class ProductDAO extends AbstractDAO<Product> implements ProductStore {
 
     /**
      * method to retrieve all the products available in the database
@@ -27,12 +34,40 @@ public class ProductDAO extends AbstractDAO<Product> {
         return super.findById("idproduct", id);
     }
 
+    /**
+     * method to retrieve a product with a specified name; the comparison is case-insensitive and uses the index on the name column
+     * @param name String representing the name of the product to be found
+     * @return a Product object corresponding to the given name or null, in case it wasn't found
+     */
+    public Product findByName(String name){
+        return super.findByField("name", name);
+    }
+
+    /**
+     * method to retrieve the products with given ids, with one SELECT ... WHERE idproduct IN (?, ...)
+     * @param ids the ids of the products
+     * @return a list of Product objects; the ids which were not found have no product in it
+     */
+    public List<Product> findAllByIds(List<Integer> ids){
+        return super.findAllByField("idproduct", ids);
+    }
+
+    /**
+     * method to retrieve the products with given names, with one SELECT ... WHERE name IN (?, ...), through the index on the name column
+     * @param names the names of the products; the comparison is case-insensitive
+     * @return a list of Product objects; the names which were not found have no product in it
+     */
+    public List<Product> findAllByNames(List<String> names){
+        return super.findAllByField("name", names);
+    }
+
     /**
      * method to insert a new product in the database
      * @param product Product object which is to be inserted in the Product table
+     * @return an int representing the id of the inserted product or -1, in case the insert failed
      */
-    public void insert(Product product){
-        super.insert(product);
+    public int insert(Product product){
+        return super.insert(product);
     }
 
     /**
@@ -51,4 +86,79 @@ public class ProductDAO extends AbstractDAO<Product> {
         super.delete(product);
     }
 
+    /**
+     * method to take a quantity out of the stock of a product, only if enough items are available
+     * the check and the update are a single statement, so concurrent orders cannot oversell the product
+     * @param transaction the Transaction in which the stock is updated, started by a JdbcStorage
+     * @param id int representing the id of the product
+     * @param quantity int representing the quantity taken out of stock
+     * @return true if the stock was decremented, false if there were not enough items in stock
+     * @throws SQLException if the update fails
+     */
+    public boolean decrementStock(Transaction transaction, int id, int quantity) throws SQLException {
+        return decrementStock(JdbcTransaction.connection(transaction), id, quantity);
+    }
+
+    /**
+     * method to take a quantity out of the stock of a product, only if enough items are available, on a given connection
+     * @param connection the Connection on which the UPDATE is executed, e.g. as part of a transaction; it is not closed
+     * @param id int representing the id of the product
+     * @param quantity int representing the quantity taken out of stock
+     * @return true if the stock was decremented, false if there were not enough items in stock
+     * @throws SQLException if the update fails
+     */
+    public boolean decrementStock(Connection connection, int id, int quantity) throws SQLException {
+        PreparedStatement statement = null;
+        Timer timer = timer("decrementStock");
+        long started = timer.start();
+        try{
+            statement = connection.prepareStatement("UPDATE `product` SET quantity = quantity - ? WHERE idproduct = ? AND quantity >= ?");
+            statement.setInt(1, quantity);
+            statement.setInt(2, id);
+            statement.setInt(3, quantity);
+            return statement.executeUpdate() == 1;
+        }finally{
+            ConnectionFactory.close(statement);
+            timer.stop(started);
+        }
+    }
+
+    /**
+     * method to take quantities out of the stock of several products, without checking the available stock
+     * the UPDATE statements are sent in batches of BATCH_SIZE
+     * @param transaction the Transaction in which the stock is updated, started by a JdbcStorage
+     * @param ids the ids of the products
+     * @param quantities the quantities taken out of stock, one for each id
+     * @throws SQLException if the update fails
+     */
+    public void subtractStock(Transaction transaction, int[] ids, int[] quantities) throws SQLException {
+        PreparedStatement statement = null;
+        Timer timer = timer("subtractStock");
+        long started = timer.start();
+        try{
+            statement = JdbcTransaction.connection(transaction).prepareStatement("UPDATE `product` SET quantity = quantity - ? WHERE idproduct = ?");
+            for(int i = 0; i < ids.length; i++){
+                statement.setInt(1, quantities[i]);
+                statement.setInt(2, ids[i]);
+                statement.addBatch();
+                if((i + 1) % BATCH_SIZE == 0 || i + 1 == ids.length){
+                    statement.executeBatch();
+                }
+            }
+        }finally{
+            ConnectionFactory.close(statement);
+            timer.stop(started);
+        }
+    }
+
+    /**
+     * method to apparently delete a product, by setting its "deleted" flag, as part of a transaction started by a JdbcStorage
+     * @param transaction the Transaction in which the product is updated
+     * @param id int representing the id of the product
+     * @return an int representing the number of flagged rows
+     * @throws SQLException if the update fails
+     */
+    public int markDeleted(Transaction transaction, int id) throws SQLException {
+        return super.markDeleted(JdbcTransaction.connection(transaction), "idproduct", id);
+    }
 }
@@ -0,0 +1,11 @@
+package dao;
+
+import model.StockDelta;
+
+/**
+ * Data Access class for the StockDelta table; the rows are written in the transactions of the orders admitted by the stock ledger
+ * all the operations are the generic ones of AbstractDAO
+ */
+
+public class StockDeltaDAO extends AbstractDAO<StockDelta> {
+}
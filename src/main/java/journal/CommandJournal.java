@@ -0,0 +1,186 @@
+package journal;
+
+import utils.CommandText;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append-only journal of the applied commands, with their positions in the input, used to rebuild the database with JournalReplay
+ * the records are collected in a buffer and group-committed: one write and one fsync make a whole group of records durable
+ * a record is appended only once the transaction of its command was committed, so a journaled command is always an applied one
+ * the journal may lag behind the database after a crash; an interrupted run is resumed from the command log of the database, which records
+ * the position of every applied command in the same transaction as its changes, and the missing records are appended while it is resumed
+ */
+
+public class CommandJournal implements AutoCloseable {
+
+    /**
+     * the number of records after which a group is committed; can be changed with -Dmanagement.journal.groupSize
+     */
+    private static final int GROUP_SIZE = Integer.getInteger("management.journal.groupSize", 1000);
+    /**
+     * the time, in milliseconds, after which a group is committed even if it is not full; can be changed with -Dmanagement.journal.groupMillis
+     */
+    private static final long GROUP_MILLIS = Long.getLong("management.journal.groupMillis", 200L);
+    /**
+     * the initial size, in bytes, of the buffer holding the records of a group
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * the journal file
+     */
+    private final FileChannel channel;
+    /**
+     * the records of the current group, not yet written to the file
+     */
+    private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    /**
+     * the number of records in the current group
+     */
+    private int pending = 0;
+    /**
+     * the System.nanoTime() of the last group commit
+     */
+    private long lastCommit = System.nanoTime();
+    /**
+     * the number of group commits, i.e. of fsync calls
+     */
+    private long commits = 0;
+    /**
+     * the number of committed records
+     */
+    private long records = 0;
+
+    /**
+     * constructor opening a journal for appending
+     * @param channel the FileChannel of the journal, positioned at the end of its valid records
+     */
+    private CommandJournal(FileChannel channel){
+        this.channel = channel;
+    }
+
+    /**
+     * method used to open a journal, creating it if it does not exist
+     * the bytes after the last valid record, left by a crash during a write, are removed; an empty journal gets its header
+     * @param file Path of the journal
+     * @param end long representing the end of the valid records, as found by JournalReader.getPosition(); 0 empties the journal
+     * @return the opened CommandJournal
+     * @throws IOException if the file cannot be opened, truncated or written
+     */
+    public static CommandJournal open(Path file, long end) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try{
+            if(end < JournalFormat.HEADER_SIZE){
+                end = 0;
+            }
+            channel.truncate(end);
+            channel.position(end);
+            if(end == 0){
+                ByteBuffer header = ByteBuffer.wrap(JournalFormat.header());
+                while(header.hasRemaining()){
+                    channel.write(header);
+                }
+            }
+            channel.force(true);
+        }catch(IOException e){
+            channel.close();
+            throw e;
+        }
+        return new CommandJournal(channel);
+    }
+
+    /**
+     * method used to add an applied command to the current group
+     * @param position int representing the position of the command in the input, starting from 1
+     * @param command the typed CommandText which was applied
+     */
+    public void append(int position, CommandText command){
+        add(JournalFormat.encode(position, command));
+    }
+
+    /**
+     * method used to commit the current group if it holds GROUP_SIZE records or if GROUP_MILLIS passed since the last commit
+     */
+    public void commitIfDue(){
+        if(pending >= GROUP_SIZE || (pending > 0 && System.nanoTime() - lastCommit >= GROUP_MILLIS * 1_000_000L)){
+            commit();
+        }
+    }
+
+    /**
+     * method used to write the current group to the file and force it to the disk
+     * @throws UncheckedIOException if the journal cannot be written; the run cannot continue without losing its durability
+     */
+    public void commit(){
+        if(pending == 0){
+            return;
+        }
+        try{
+            buffer.flip();
+            while(buffer.hasRemaining()){
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }catch(IOException e){
+            throw new UncheckedIOException("The command journal cannot be written", e);
+        }finally{
+            buffer.clear();
+        }
+        records += pending;
+        pending = 0;
+        commits++;
+        lastCommit = System.nanoTime();
+    }
+
+    /**
+     * @return the number of records made durable by this instance
+     */
+    public long getRecordCount(){
+        return records;
+    }
+
+    /**
+     * @return the number of group commits, i.e. of fsync calls, made by this instance
+     */
+    public long getCommitCount(){
+        return commits;
+    }
+
+    /**
+     * method used to commit the current group and close the file
+     * @throws UncheckedIOException if the journal cannot be written or closed
+     */
+    @Override
+    public void close(){
+        try{
+            commit();
+        }finally{
+            try{
+                channel.close();
+            }catch(IOException e){
+                throw new UncheckedIOException("The command journal cannot be closed", e);
+            }
+        }
+    }
+
+    /**
+     * method used to add an encoded record to the current group, growing the buffer if necessary
+     * @param record the bytes of the record
+     */
+    private void add(byte[] record){
+        if(buffer.remaining() < record.length){
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + record.length));
+            buffer.flip();
+            larger.put(buffer);
+            buffer = larger;
+        }
+        buffer.put(record);
+        pending++;
+    }
+}
@@ -0,0 +1,202 @@
+package journal;
+
+import utils.Command;
+import utils.CommandText;
+import utils.DeleteClient;
+import utils.DeleteProduct;
+import utils.InsertClient;
+import utils.InsertProduct;
+import utils.PlaceOrder;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * Binary layout of the journal: a header [int magic][int version], followed by the records [int length][int position][byte kind][fields...][int crc]
+ * length counts the bytes between itself and the checksum; the CRC32 covers the same bytes, so a record torn by a crash is detected
+ * position is the position of the command in the input, as recorded in the command log of the database
+ * strings are written as an int length followed by their UTF-8 bytes, numbers in big-endian order
+ */
+
+final class JournalFormat {
+
+    /**
+     * the first bytes of a journal file
+     */
+    static final int MAGIC = 0x4d474a4e;
+    /**
+     * the version of the layout; version 1 had no header and no positions
+     */
+    static final int VERSION = 2;
+    /**
+     * the size of the header, in bytes
+     */
+    static final int HEADER_SIZE = 8;
+
+    /**
+     * command kinds, one for each typed command
+     */
+    private static final byte INSERT_CLIENT = 1;
+    private static final byte INSERT_PRODUCT = 2;
+    private static final byte PLACE_ORDER = 3;
+    private static final byte DELETE_CLIENT = 4;
+    private static final byte DELETE_PRODUCT = 5;
+    private static final byte REPORT = 6;
+
+    /**
+     * the size of the length and checksum fields surrounding the body of a record
+     */
+    static final int FRAME_SIZE = 8;
+    /**
+     * the size of the position and kind fields, which start every body
+     */
+    static final int MIN_BODY_SIZE = 5;
+    /**
+     * the largest accepted body; a longer length field means the record is corrupted
+     */
+    static final int MAX_BODY_SIZE = 1 << 20;
+
+    /**
+     * private constructor, the class only contains static methods
+     */
+    private JournalFormat(){
+    }
+
+    /**
+     * method used to encode the header of a journal file
+     * @return the bytes of the header
+     */
+    static byte[] header(){
+        return ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).array();
+    }
+
+    /**
+     * method used to encode a record
+     * @param position int representing the position of the command in the input
+     * @param command the command of the record
+     * @return the bytes of the record, including its length and checksum
+     * @throws IllegalArgumentException if the command is not a typed command
+     */
+    static byte[] encode(int position, CommandText command){
+        byte[][] strings;
+        ByteBuffer numbers = ByteBuffer.allocate(8);
+        byte kind;
+        if(command instanceof InsertClient){
+            kind = INSERT_CLIENT;
+            strings = utf8(((InsertClient) command).getName(), ((InsertClient) command).getAddress());
+        }
+        else if(command instanceof InsertProduct){
+            kind = INSERT_PRODUCT;
+            strings = utf8(((InsertProduct) command).getName());
+            numbers.putInt(((InsertProduct) command).getQuantity()).putFloat(((InsertProduct) command).getPrice());
+        }
+        else if(command instanceof PlaceOrder){
+            kind = PLACE_ORDER;
+            strings = utf8(((PlaceOrder) command).getClient(), ((PlaceOrder) command).getProduct());
+            numbers.putInt(((PlaceOrder) command).getQuantity());
+        }
+        else if(command instanceof DeleteClient){
+            kind = DELETE_CLIENT;
+            strings = utf8(((DeleteClient) command).getName());
+        }
+        else if(command instanceof DeleteProduct){
+            kind = DELETE_PRODUCT;
+            strings = utf8(((DeleteProduct) command).getName());
+        }
+        else if(command.getCommand() == Command.REPORT){
+            kind = REPORT;
+            strings = utf8(command.getTable());
+        }
+        else{
+            throw new IllegalArgumentException("Cannot journal the command " + command.getCommand() + " " + command.getTable());
+        }
+        int bodySize = MIN_BODY_SIZE + numbers.position();
+        for(byte[] s : strings){
+            bodySize += 4 + s.length;
+        }
+        ByteBuffer record = ByteBuffer.allocate(bodySize + FRAME_SIZE);
+        record.putInt(bodySize).putInt(position).put(kind);
+        for(byte[] s : strings){
+            record.putInt(s.length).put(s);
+        }
+        numbers.flip();
+        record.put(numbers);
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 4, bodySize);
+        record.putInt((int) crc.getValue());
+        return record.array();
+    }
+
+    /**
+     * method used to check and decode the body of a record
+     * @param body ByteBuffer positioned at the position field of the record, whose limit is the end of the body
+     * @param checksum int representing the checksum stored after the body
+     * @return the decoded JournalRecord or null, if the checksum does not match or the body is malformed
+     */
+    static JournalRecord decode(ByteBuffer body, int checksum){
+        CRC32 crc = new CRC32();
+        crc.update(body.array(), body.arrayOffset() + body.position(), body.remaining());
+        if((int) crc.getValue() != checksum){
+            return null;
+        }
+        try{
+            int position = body.getInt();
+            byte kind = body.get();
+            CommandText command;
+            switch(kind){
+                case INSERT_CLIENT:
+                    command = new InsertClient(string(body), string(body));
+                    break;
+                case INSERT_PRODUCT:
+                    command = new InsertProduct(string(body), body.getInt(), body.getFloat());
+                    break;
+                case PLACE_ORDER:
+                    command = new PlaceOrder(string(body), string(body), body.getInt());
+                    break;
+                case DELETE_CLIENT:
+                    command = new DeleteClient(string(body));
+                    break;
+                case DELETE_PRODUCT:
+                    command = new DeleteProduct(string(body));
+                    break;
+                case REPORT:
+                    command = new CommandText(Command.REPORT, string(body));
+                    break;
+                default:
+                    return null;
+            }
+            if(position <= 0 || body.hasRemaining()){
+                return null;
+            }
+            return new JournalRecord(position, command);
+        }catch(RuntimeException e){
+            return null;
+        }
+    }
+
+    /**
+     * method used to encode strings as UTF-8
+     * @param strings the strings to be encoded
+     * @return the UTF-8 bytes of each string
+     */
+    private static byte[][] utf8(String... strings){
+        byte[][] bytes = new byte[strings.length][];
+        for(int i = 0; i < strings.length; i++){
+            bytes[i] = strings[i].getBytes(StandardCharsets.UTF_8);
+        }
+        return bytes;
+    }
+
+    /**
+     * method used to decode a string written by utf8()
+     * @param body ByteBuffer positioned at the length of the string
+     * @return the decoded String
+     */
+    private static String string(ByteBuffer body){
+        int length = body.getInt();
+        String s = new String(body.array(), body.arrayOffset() + body.position(), length, StandardCharsets.UTF_8);
+        body.position(body.position() + length);
+        return s;
+    }
+}
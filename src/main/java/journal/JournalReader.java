@@ -0,0 +1,164 @@
+package journal;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Sequential reader of a command journal, reading the file through a large buffer so that a journal is scanned at disk speed
+ * reading stops at the end of the file or at the first incomplete / corrupted record, which is what a crash during a write leaves behind
+ * a file too short to hold the header is read as an empty journal; a file with another header is refused
+ */
+
+public class JournalReader implements AutoCloseable {
+
+    /**
+     * the size, in bytes, of the read buffer
+     */
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    /**
+     * the journal file
+     */
+    private final FileChannel channel;
+    /**
+     * the bytes read from the file and not yet decoded
+     */
+    private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    /**
+     * the offset in the file of the end of the last valid record
+     */
+    private long position = 0;
+    /**
+     * true once the end of the file or an invalid record was reached
+     */
+    private boolean finished = false;
+    /**
+     * true if the file starts with a complete header
+     */
+    private final boolean header;
+
+    /**
+     * constructor opening a journal file for reading and checking its header
+     * @param file Path of the journal
+     * @throws IOException if the file cannot be opened or read, or if it is not a journal of this version
+     */
+    public JournalReader(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        buffer.flip();
+        try{
+            header = readHeader(file);
+        }catch(IOException e){
+            channel.close();
+            throw e;
+        }
+        finished = !header;
+    }
+
+    /**
+     * method used to read and check the header of the file
+     * @param file Path of the journal, used in the error messages
+     * @return true if the header is complete, false if the file is too short to hold it
+     * @throws IOException if the file cannot be read, or if the header is not the one written by CommandJournal
+     */
+    private boolean readHeader(Path file) throws IOException {
+        if(!fill(JournalFormat.HEADER_SIZE)){
+            return false;
+        }
+        int magic = buffer.getInt();
+        int version = buffer.getInt();
+        if(magic != JournalFormat.MAGIC){
+            throw new IOException(file + " is not a command journal");
+        }
+        if(version != JournalFormat.VERSION){
+            throw new IOException(file + " has the journal version " + version + " instead of " + JournalFormat.VERSION);
+        }
+        position = JournalFormat.HEADER_SIZE;
+        return true;
+    }
+
+    /**
+     * method used to check if the journal has a header, i.e. if a run was started with it
+     * @return true if the file starts with a complete header, false if it is empty or was torn while the header was written
+     */
+    public boolean hasHeader(){
+        return header;
+    }
+
+    /**
+     * method used to read the next record of the journal
+     * @return the next JournalRecord or null, if the end of the valid records was reached
+     * @throws IOException if the file cannot be read
+     */
+    public JournalRecord next() throws IOException {
+        if(finished || !fill(4)){
+            return finish();
+        }
+        int bodySize = buffer.getInt(buffer.position());
+        if(bodySize < JournalFormat.MIN_BODY_SIZE || bodySize > JournalFormat.MAX_BODY_SIZE || !fill(bodySize + JournalFormat.FRAME_SIZE)){
+            return finish();
+        }
+        int start = buffer.position() + 4;
+        int checksum = buffer.getInt(start + bodySize);
+        ByteBuffer body = buffer.duplicate();
+        body.position(start).limit(start + bodySize);
+        JournalRecord record = JournalFormat.decode(body, checksum);
+        if(record == null){
+            return finish();
+        }
+        buffer.position(start + bodySize + 4);
+        position += bodySize + JournalFormat.FRAME_SIZE;
+        return record;
+    }
+
+    /**
+     * method used to retrieve the offset of the end of the last valid record read so far; new records are appended from there
+     * @return a long representing the offset in bytes; 0 if the journal has no header
+     */
+    public long getPosition(){
+        return position;
+    }
+
+    /**
+     * method used to make sure the buffer holds at least a given number of unread bytes, reading more of the file if necessary
+     * @param bytes int representing the required number of bytes
+     * @return true if the bytes are available, false if the file ends before them
+     * @throws IOException if the file cannot be read
+     */
+    private boolean fill(int bytes) throws IOException {
+        if(buffer.remaining() >= bytes){
+            return true;
+        }
+        if(buffer.capacity() < bytes){
+            ByteBuffer larger = ByteBuffer.allocate(bytes);
+            larger.put(buffer);
+            buffer = larger;
+        }
+        else{
+            buffer.compact();
+        }
+        while(buffer.position() < bytes){
+            if(channel.read(buffer) == -1){
+                break;
+            }
+        }
+        buffer.flip();
+        return buffer.remaining() >= bytes;
+    }
+
+    /**
+     * method used to stop reading, once the end of the valid records was reached
+     * @return null
+     */
+    private JournalRecord finish(){
+        finished = true;
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
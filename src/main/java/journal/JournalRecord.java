@@ -0,0 +1,45 @@
+package journal;
+
+import utils.CommandText;
+
+/**
+ * A record of the command journal: a command which was applied to the database, with its position in the input
+ */
+
+public class JournalRecord {
+
+    /**
+     * the position of the command in the input, starting from 1
+     */
+    private final int position;
+    /**
+     * the applied command
+     */
+    private final CommandText command;
+
+    /**
+     * constructor containing all the fields
+     * @param position int representing the position of the command in the input
+     * @param command the applied command
+     */
+    JournalRecord(int position, CommandText command){
+        this.position = position;
+        this.command = command;
+    }
+
+    /**
+     * method to retrieve the position of the command in the input
+     * @return an int representing the position, starting from 1
+     */
+    public int getPosition(){
+        return position;
+    }
+
+    /**
+     * method to retrieve the command of the record
+     * @return the applied CommandText
+     */
+    public CommandText getCommand(){
+        return command;
+    }
+}
@@ -0,0 +1,184 @@
+package memory;
+
+import java.util.Arrays;
+
+/**
+ * Hash map from primitive long keys to objects, with open addressing and linear probing
+ * the keys are not boxed, so a lookup does not allocate; null values are not allowed
+ * @param <V> the type of the values
+ */
+
+class LongMap<V> {
+
+    /**
+     * the maximum fraction of the slots in use before the table grows
+     */
+    private static final float LOAD_FACTOR = 0.6f;
+
+    /**
+     * the keys, parallel to values
+     */
+    private long[] keys;
+    /**
+     * the values; null marks a free slot
+     */
+    private Object[] values;
+    /**
+     * the number of entries
+     */
+    private int size = 0;
+    /**
+     * the number of entries after which the table grows
+     */
+    private int threshold;
+
+    /**
+     * constructor creating an empty map
+     */
+    LongMap(){
+        allocate(16);
+    }
+
+    /**
+     * method used to find the value associated with a key
+     * @param key long representing the key
+     * @return the value or null, if the key is not in the map
+     */
+    @SuppressWarnings("unchecked")
+    V get(long key){
+        int mask = keys.length - 1;
+        for(int i = slot(key, mask); values[i] != null; i = (i + 1) & mask){
+            if(keys[i] == key){
+                return (V) values[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * method used to associate a value with a key
+     * @param key long representing the key
+     * @param value the value; not null
+     * @return the previous value associated with the key or null, if there was none
+     */
+    @SuppressWarnings("unchecked")
+    V put(long key, V value){
+        int mask = keys.length - 1;
+        int i = slot(key, mask);
+        for(; values[i] != null; i = (i + 1) & mask){
+            if(keys[i] == key){
+                V old = (V) values[i];
+                values[i] = value;
+                return old;
+            }
+        }
+        keys[i] = key;
+        values[i] = value;
+        if(++size > threshold){
+            grow();
+        }
+        return null;
+    }
+
+    /**
+     * method used to remove a key from the map
+     * the entries following the removed one are shifted back, so that no tombstones are needed
+     * @param key long representing the key
+     * @return the value associated with the key or null, if there was none
+     */
+    @SuppressWarnings("unchecked")
+    V remove(long key){
+        int mask = keys.length - 1;
+        int i = slot(key, mask);
+        for(; values[i] != null; i = (i + 1) & mask){
+            if(keys[i] == key){
+                break;
+            }
+        }
+        if(values[i] == null){
+            return null;
+        }
+        V old = (V) values[i];
+        int free = i;
+        for(int j = (i + 1) & mask; values[j] != null; j = (j + 1) & mask){
+            int home = slot(keys[j], mask);
+            // the entry at j can fill the free slot if its home slot is not between the free slot and j (cyclically)
+            if(free <= j ? (home <= free || home > j) : (home <= free && home > j)){
+                keys[free] = keys[j];
+                values[free] = values[j];
+                free = j;
+            }
+        }
+        values[free] = null;
+        size--;
+        return old;
+    }
+
+    /**
+     * @return the number of entries in the map
+     */
+    int size(){
+        return size;
+    }
+
+    /**
+     * method used to retrieve all the keys, in ascending order
+     * @return a new array containing the keys
+     */
+    long[] sortedKeys(){
+        long[] result = new long[size];
+        int n = 0;
+        for(int i = 0; i < values.length; i++){
+            if(values[i] != null){
+                result[n++] = keys[i];
+            }
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * method used to remove all the entries
+     */
+    void clear(){
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * method to compute the home slot of a key
+     * @param key long representing the key
+     * @param mask int representing the number of slots minus 1
+     * @return the index of the first slot probed for the key
+     */
+    private static int slot(long key, int mask){
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    /**
+     * method used to create empty tables with the given number of slots
+     * @param capacity int representing the number of slots, a power of two
+     */
+    private void allocate(int capacity){
+        keys = new long[capacity];
+        values = new Object[capacity];
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    /**
+     * method used to double the number of slots, re-inserting all the entries
+     */
+    @SuppressWarnings("unchecked")
+    private void grow(){
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(keys.length * 2);
+        size = 0;
+        for(int i = 0; i < oldValues.length; i++){
+            if(oldValues[i] != null){
+                put(oldKeys[i], (V) oldValues[i]);
+            }
+        }
+    }
+}
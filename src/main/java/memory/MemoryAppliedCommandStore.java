@@ -0,0 +1,33 @@
+package memory;
+
+import model.AppliedCommand;
+
+/**
+ * In-memory AppliedCommand table, keyed by the position of the first command of each range
+ */
+
+class MemoryAppliedCommandStore extends MemoryStore<AppliedCommand> {
+
+    /**
+     * constructor creating an empty table
+     * @param storage the MemoryStorage containing the table
+     */
+    MemoryAppliedCommandStore(MemoryStorage storage){
+        super(storage);
+    }
+
+    @Override
+    long key(AppliedCommand a){
+        return a.getFirstPosition();
+    }
+
+    @Override
+    AppliedCommand copy(AppliedCommand a){
+        return new AppliedCommand(a.getFirstPosition(), a.getLastPosition());
+    }
+
+    @Override
+    int readId(AppliedCommand a){
+        return a.getFirstPosition();
+    }
+}
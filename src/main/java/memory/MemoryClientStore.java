@@ -0,0 +1,91 @@
+package memory;
+
+import model.Client;
+import storage.ClientStore;
+import storage.Transaction;
+
+import java.util.List;
+
+/**
+ * In-memory Client table
+ */
+
+class MemoryClientStore extends NamedMemoryStore<Client> implements ClientStore {
+
+    /**
+     * constructor creating an empty table
+     * @param storage the MemoryStorage containing the table
+     */
+    MemoryClientStore(MemoryStorage storage){
+        super(storage);
+    }
+
+    @Override
+    long key(Client c){
+        return c.getIdClient();
+    }
+
+    @Override
+    Client copy(Client c){
+        return new Client(c.getIdClient(), c.getName(), c.getAddress(), c.getDeleted());
+    }
+
+    @Override
+    int readId(Client c){
+        return c.getIdClient();
+    }
+
+    @Override
+    boolean needsGeneratedId(Client c){
+        return c.getIdClient() == 0;
+    }
+
+    @Override
+    void assignId(Client c, int id){
+        c.setIdClient(id);
+    }
+
+    @Override
+    String name(Client c){
+        return c.getName();
+    }
+
+    @Override
+    public Client findById(int id){
+        storage.lock();
+        try{
+            Client c = row(id);
+            return c == null ? null : copy(c);
+        }finally{
+            storage.unlock();
+        }
+    }
+
+    @Override
+    public Client findByName(String name){
+        return findRowByName(name);
+    }
+
+    @Override
+    public List<Client> findAllByIds(List<Integer> ids){
+        return findRows(ids);
+    }
+
+    @Override
+    public List<Client> findAllByNames(List<String> names){
+        return findRowsByName(names);
+    }
+
+    @Override
+    public int markDeleted(Transaction transaction, int id){
+        MemoryTransaction tx = storage.transaction(transaction);
+        Client c = row(id);
+        if(c == null){
+            return 0;
+        }
+        Client flagged = copy(c);
+        flagged.setDeleted(1);
+        store(flagged, tx);
+        return 1;
+    }
+}
@@ -0,0 +1,33 @@
+package memory;
+
+import model.FailedOrder;
+
+/**
+ * In-memory FailedOrder table, keyed by the position of the order in the input
+ */
+
+class MemoryFailedOrderStore extends MemoryStore<FailedOrder> {
+
+    /**
+     * constructor creating an empty table
+     * @param storage the MemoryStorage containing the table
+     */
+    MemoryFailedOrderStore(MemoryStorage storage){
+        super(storage);
+    }
+
+    @Override
+    long key(FailedOrder f){
+        return f.getPosition();
+    }
+
+    @Override
+    FailedOrder copy(FailedOrder f){
+        return new FailedOrder(f.getPosition(), f.getClient(), f.getProduct(), f.getQuantity());
+    }
+
+    @Override
+    int readId(FailedOrder f){
+        return f.getPosition();
+    }
+}
@@ -0,0 +1,214 @@
+package memory;
+
+import model.Client;
+import model.Order;
+import model.OrderItem;
+import model.Product;
+import storage.OrderItemStore;
+import storage.OrderReportHandler;
+import storage.Transaction;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * In-memory OrderItem table, keyed by (idOrder, idProduct), with hash indexes on the id of the order and on the id of the product
+ */
+
+class MemoryOrderItemStore extends MemoryStore<OrderItem> implements OrderItemStore {
+
+    /**
+     * the items of each order, keyed by the id of the order and then by the primary key
+     */
+    private final LongMap<LongMap<OrderItem>> byOrder = new LongMap<>();
+    /**
+     * the items of each product, keyed by the id of the product and then by the primary key
+     */
+    private final LongMap<LongMap<OrderItem>> byProduct = new LongMap<>();
+
+    /**
+     * constructor creating an empty table
+     * @param storage the MemoryStorage containing the table
+     */
+    MemoryOrderItemStore(MemoryStorage storage){
+        super(storage);
+    }
+
+    /**
+     * method to combine the ids of an order and a product into the primary key of an item
+     * @param idOrder int representing the id of the order
+     * @param idProduct int representing the id of the product
+     * @return a long whose high half is the id of the order and whose low half is the id of the product
+     */
+    private static long key(int idOrder, int idProduct){
+        return ((long) idOrder << 32) | (idProduct & 0xFFFFFFFFL);
+    }
+
+    @Override
+    long key(OrderItem oi){
+        return key(oi.getIdOrder(), oi.getIdProduct());
+    }
+
+    @Override
+    OrderItem copy(OrderItem oi){
+        return new OrderItem(oi.getIdOrder(), oi.getIdProduct(), oi.getQuantity(), oi.getDeleted());
+    }
+
+    @Override
+    int readId(OrderItem oi){
+        return oi.getIdOrder();
+    }
+
+    @Override
+    void indexAdd(OrderItem oi){
+        add(byOrder, oi.getIdOrder(), oi);
+        add(byProduct, oi.getIdProduct(), oi);
+    }
+
+    @Override
+    void indexRemove(OrderItem oi){
+        remove(byOrder, oi.getIdOrder(), oi);
+        remove(byProduct, oi.getIdProduct(), oi);
+    }
+
+    /**
+     * method used to add an item to a secondary index
+     * @param index the index
+     * @param id int representing the indexed id
+     * @param oi the item
+     */
+    private void add(LongMap<LongMap<OrderItem>> index, int id, OrderItem oi){
+        LongMap<OrderItem> items = index.get(id);
+        if(items == null){
+            items = new LongMap<>();
+            index.put(id, items);
+        }
+        items.put(key(oi), oi);
+    }
+
+    /**
+     * method used to remove an item from a secondary index
+     * @param index the index
+     * @param id int representing the indexed id
+     * @param oi the item
+     */
+    private void remove(LongMap<LongMap<OrderItem>> index, int id, OrderItem oi){
+        LongMap<OrderItem> items = index.get(id);
+        if(items != null){
+            items.remove(key(oi));
+            if(items.size() == 0){
+                index.remove(id);
+            }
+        }
+    }
+
+    /**
+     * method to retrieve a copy of the items found under an id in a secondary index, in primary key order
+     * @param index the index
+     * @param id int representing the indexed id
+     * @return a list of OrderItem objects; empty if there are none
+     */
+    private List<OrderItem> find(LongMap<LongMap<OrderItem>> index, int id){
+        storage.lock();
+        try{
+            LongMap<OrderItem> items = index.get(id);
+            return items == null ? new ArrayList<>() : copies(items.sortedKeys());
+        }finally{
+            storage.unlock();
+        }
+    }
+
+    @Override
+    public List<OrderItem> findPage(int afterId, int limit){
+        throw new UnsupportedOperationException("OrderItem has a composite key");
+    }
+
+    @Override
+    public List<OrderItem> findAllByIdOrder(int idOrder){
+        return find(byOrder, idOrder);
+    }
+
+    @Override
+    public List<OrderItem> findAllByIdProduct(int idProduct){
+        return find(byProduct, idProduct);
+    }
+
+    /**
+     * the keys of the items are read at once, but each report row is built under the lock only when its turn comes and handed to the
+     * handler outside of it, so that the report rows are never collected whole
+     */
+    @Override
+    public void forEachReportRow(OrderReportHandler handler){
+        for(long key : lockedKeys()){
+            int idOrder;
+            String name;
+            String productName;
+            int quantity;
+            storage.lock();
+            try{
+                OrderItem oi = row(key);
+                if(oi == null){
+                    continue;
+                }
+                Order o = storage.orderStore().row(oi.getIdOrder());
+                if(o == null){
+                    continue;
+                }
+                Client c = storage.clientStore().row(o.getIdClient());
+                Product p = storage.productStore().row(oi.getIdProduct());
+                if(c == null || p == null || c.getDeleted() != 0 || p.getDeleted() != 0){
+                    continue;
+                }
+                idOrder = oi.getIdOrder();
+                name = c.getName();
+                productName = p.getName();
+                quantity = oi.getQuantity();
+            }finally{
+                storage.unlock();
+            }
+            handler.row(idOrder, name, productName, quantity);
+        }
+    }
+
+    @Override
+    public void addQuantity(Transaction transaction, int idOrder, int idProduct, int quantity){
+        MemoryTransaction tx = storage.transaction(transaction);
+        OrderItem existing = row(key(idOrder, idProduct));
+        if(existing == null){
+            insert(new OrderItem(idOrder, idProduct, quantity, 0), tx);
+            return;
+        }
+        OrderItem updated = copy(existing);
+        updated.setQuantity(existing.getQuantity() + quantity);
+        store(updated, tx);
+    }
+
+    @Override
+    public int markDeletedByOrder(Transaction transaction, int idOrder){
+        return markDeleted(storage.transaction(transaction), byOrder.get(idOrder));
+    }
+
+    @Override
+    public int markDeletedByProduct(Transaction transaction, int idProduct){
+        return markDeleted(storage.transaction(transaction), byProduct.get(idProduct));
+    }
+
+    /**
+     * method used to set the "deleted" flag of a group of items
+     * @param tx the MemoryTransaction recording the changes
+     * @param items the items, taken from a secondary index, or null if there are none
+     * @return an int representing the number of flagged items
+     */
+    private int markDeleted(MemoryTransaction tx, LongMap<OrderItem> items){
+        if(items == null){
+            return 0;
+        }
+        long[] keys = items.sortedKeys();
+        for(long key : keys){
+            OrderItem flagged = copy(row(key));
+            flagged.setDeleted(1);
+            store(flagged, tx);
+        }
+        return keys.length;
+    }
+}
@@ -0,0 +1,134 @@
+package memory;
+
+import model.Order;
+import model.Product;
+import storage.OrderStore;
+import storage.Transaction;
+
+import java.util.logging.Level;
+
+/**
+ * In-memory Order table, with a unique hash index on the id of the client
+ */
+
+class MemoryOrderStore extends MemoryStore<Order> implements OrderStore {
+
+    /**
+     * the orders, by the id of their client
+     */
+    private final LongMap<Order> byClient = new LongMap<>();
+
+    /**
+     * constructor creating an empty table
+     * @param storage the MemoryStorage containing the table
+     */
+    MemoryOrderStore(MemoryStorage storage){
+        super(storage);
+    }
+
+    @Override
+    long key(Order o){
+        return o.getIdOrder();
+    }
+
+    @Override
+    Order copy(Order o){
+        return new Order(o.getIdOrder(), o.getIdClient(), o.getTotal(), o.getDeleted());
+    }
+
+    @Override
+    int readId(Order o){
+        return o.getIdOrder();
+    }
+
+    @Override
+    boolean needsGeneratedId(Order o){
+        return o.getIdOrder() == 0;
+    }
+
+    @Override
+    void assignId(Order o, int id){
+        o.setIdOrder(id);
+    }
+
+    @Override
+    void indexAdd(Order o){
+        byClient.put(o.getIdClient(), o);
+    }
+
+    @Override
+    void indexRemove(Order o){
+        if(byClient.get(o.getIdClient()) == o){
+            byClient.remove(o.getIdClient());
+        }
+    }
+
+    @Override
+    int insert(Order o, MemoryTransaction transaction){
+        if(byClient.get(o.getIdClient()) != null){
+            LOGGER.log(Level.WARNING, "MemoryOrderStore:insert duplicate client " + o.getIdClient());
+            return -1;
+        }
+        return super.insert(o, transaction);
+    }
+
+    @Override
+    public Order findById(int id){
+        storage.lock();
+        try{
+            Order o = row(id);
+            return o == null ? null : copy(o);
+        }finally{
+            storage.unlock();
+        }
+    }
+
+    @Override
+    public Order findByIdClient(int idClient){
+        storage.lock();
+        try{
+            Order o = byClient.get(idClient);
+            return o == null ? null : copy(o);
+        }finally{
+            storage.unlock();
+        }
+    }
+
+    @Override
+    public int addToTotal(Transaction transaction, int idClient, int idProduct, int quantity){
+        MemoryTransaction tx = storage.transaction(transaction);
+        Product product = tx.getStorage().productStore().row(idProduct);
+        if(product == null){
+            return -1;
+        }
+        float price = product.getPrice() * quantity;
+        Order existing = byClient.get(idClient);
+        if(existing == null){
+            return insert(new Order(idClient, price, 0), tx);
+        }
+        Order updated = copy(existing);
+        updated.setTotal(existing.getTotal() + price);
+        store(updated, tx);
+        return updated.getIdOrder();
+    }
+
+    @Override
+    public int markDeleted(Transaction transaction, int id){
+        MemoryTransaction tx = storage.transaction(transaction);
+        Order o = row(id);
+        if(o == null){
+            return 0;
+        }
+        Order flagged = copy(o);
+        flagged.setDeleted(1);
+        store(flagged, tx);
+        return 1;
+    }
+
+    @Override
+    public int markDeletedByClient(Transaction transaction, int idClient){
+        storage.transaction(transaction);
+        Order o = byClient.get(idClient);
+        return o == null ? 0 : markDeleted(transaction, o.getIdOrder());
+    }
+}
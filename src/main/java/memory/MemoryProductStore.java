@@ -0,0 +1,117 @@
+package memory;
+
+import model.Product;
+import storage.ProductStore;
+import storage.Transaction;
+
+import java.util.List;
+
+/**
+ * In-memory Product table
+ */
+
+class MemoryProductStore extends NamedMemoryStore<Product> implements ProductStore {
+
+    /**
+     * constructor creating an empty table
+     * @param storage the MemoryStorage containing the table
+     */
+    MemoryProductStore(MemoryStorage storage){
+        super(storage);
+    }
+
+    @Override
+    long key(Product p){
+        return p.getIdProduct();
+    }
+
+    @Override
+    Product copy(Product p){
+        return new Product(p.getIdProduct(), p.getName(), p.getPrice(), p.getQuantity(), p.getDeleted());
+    }
+
+    @Override
+    int readId(Product p){
+        return p.getIdProduct();
+    }
+
+    @Override
+    boolean needsGeneratedId(Product p){
+        return p.getIdProduct() == 0;
+    }
+
+    @Override
+    void assignId(Product p, int id){
+        p.setIdProduct(id);
+    }
+
+    @Override
+    String name(Product p){
+        return p.getName();
+    }
+
+    @Override
+    public Product findById(int id){
+        storage.lock();
+        try{
+            Product p = row(id);
+            return p == null ? null : copy(p);
+        }finally{
+            storage.unlock();
+        }
+    }
+
+    @Override
+    public Product findByName(String name){
+        return findRowByName(name);
+    }
+
+    @Override
+    public List<Product> findAllByIds(List<Integer> ids){
+        return findRows(ids);
+    }
+
+    @Override
+    public List<Product> findAllByNames(List<String> names){
+        return findRowsByName(names);
+    }
+
+    @Override
+    public boolean decrementStock(Transaction transaction, int id, int quantity){
+        MemoryTransaction tx = storage.transaction(transaction);
+        Product p = row(id);
+        if(p == null || p.getQuantity() < quantity){
+            return false;
+        }
+        Product updated = copy(p);
+        updated.setQuantity(p.getQuantity() - quantity);
+        store(updated, tx);
+        return true;
+    }
+
+    @Override
+    public void subtractStock(Transaction transaction, int[] ids, int[] quantities){
+        MemoryTransaction tx = storage.transaction(transaction);
+        for(int i = 0; i < ids.length; i++){
+            Product p = row(ids[i]);
+            if(p != null){
+                Product updated = copy(p);
+                updated.setQuantity(p.getQuantity() - quantities[i]);
+                store(updated, tx);
+            }
+        }
+    }
+
+    @Override
+    public int markDeleted(Transaction transaction, int id){
+        MemoryTransaction tx = storage.transaction(transaction);
+        Product p = row(id);
+        if(p == null){
+            return 0;
+        }
+        Product flagged = copy(p);
+        flagged.setDeleted(1);
+        store(flagged, tx);
+        return 1;
+    }
+}
@@ -0,0 +1,43 @@
+package memory;
+
+import model.StockDelta;
+
+/**
+ * In-memory StockDelta table, keyed by the generated id of each delta
+ */
+
+class MemoryStockDeltaStore extends MemoryStore<StockDelta> {
+
+    /**
+     * constructor creating an empty table
+     * @param storage the MemoryStorage containing the table
+     */
+    MemoryStockDeltaStore(MemoryStorage storage){
+        super(storage);
+    }
+
+    @Override
+    long key(StockDelta d){
+        return d.getIdStockDelta();
+    }
+
+    @Override
+    StockDelta copy(StockDelta d){
+        return new StockDelta(d.getIdStockDelta(), d.getIdProduct(), d.getQuantity());
+    }
+
+    @Override
+    int readId(StockDelta d){
+        return d.getIdStockDelta();
+    }
+
+    @Override
+    boolean needsGeneratedId(StockDelta d){
+        return d.getIdStockDelta() == 0;
+    }
+
+    @Override
+    void assignId(StockDelta d, int id){
+        d.setIdStockDelta(id);
+    }
+}
@@ -0,0 +1,168 @@
+package memory;
+
+import model.AppliedCommand;
+import model.FailedOrder;
+import model.StockDelta;
+import storage.ClientStore;
+import storage.EntityStore;
+import storage.OrderItemStore;
+import storage.OrderStore;
+import storage.ProductStore;
+import storage.Storage;
+import storage.Transaction;
+
+import java.nio.file.Path;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Storage keeping all the tables in memory, used for simulation runs, fast test suites and as a reference for the JDBC storage
+ * the tables are LongMaps keyed by the primary key, with hash indexes for the lookups made by the BLL classes (names, client of an order,
+ * items of an order / product); one lock guards all of them, and a transaction holds it until it is closed
+ * the data is lost when the program ends
+ */
+
+public class MemoryStorage implements Storage {
+
+    /**
+     * the lock guarding all the tables
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+    /**
+     * the Client table
+     */
+    private final MemoryClientStore clients = new MemoryClientStore(this);
+    /**
+     * the Product table
+     */
+    private final MemoryProductStore products = new MemoryProductStore(this);
+    /**
+     * the Order table
+     */
+    private final MemoryOrderStore orders = new MemoryOrderStore(this);
+    /**
+     * the OrderItem table
+     */
+    private final MemoryOrderItemStore orderItems = new MemoryOrderItemStore(this);
+    /**
+     * the AppliedCommand table
+     */
+    private final MemoryAppliedCommandStore appliedCommands = new MemoryAppliedCommandStore(this);
+    /**
+     * the FailedOrder table
+     */
+    private final MemoryFailedOrderStore failedOrders = new MemoryFailedOrderStore(this);
+    /**
+     * the StockDelta table
+     */
+    private final MemoryStockDeltaStore stockDeltas = new MemoryStockDeltaStore(this);
+
+    @Override
+    public ClientStore clients(){
+        return clients;
+    }
+
+    @Override
+    public ProductStore products(){
+        return products;
+    }
+
+    @Override
+    public OrderStore orders(){
+        return orders;
+    }
+
+    @Override
+    public OrderItemStore orderItems(){
+        return orderItems;
+    }
+
+    @Override
+    public EntityStore<AppliedCommand> appliedCommands(){
+        return appliedCommands;
+    }
+
+    @Override
+    public EntityStore<FailedOrder> failedOrders(){
+        return failedOrders;
+    }
+
+    @Override
+    public EntityStore<StockDelta> stockDeltas(){
+        return stockDeltas;
+    }
+
+    /**
+     * method used to start a transaction; it waits until the transactions of the other threads are closed
+     * @return the started Transaction, which has to be closed
+     */
+    @Override
+    public Transaction begin(){
+        return new MemoryTransaction(this);
+    }
+
+    /**
+     * SQL scripts cannot be executed on the in-memory storage
+     * @param snapshot Path of the SQL script
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public void restore(Path snapshot){
+        throw new UnsupportedOperationException("The in-memory storage cannot execute " + snapshot);
+    }
+
+    @Override
+    public void shutdown(){
+    }
+
+    /**
+     * method used to check that a transaction was started in this storage, by the calling thread
+     * @param transaction the Transaction to be checked
+     * @return the transaction, as a MemoryTransaction
+     * @throws IllegalArgumentException if the transaction was not started in this storage
+     * @throws IllegalStateException if the transaction is not held by the calling thread
+     */
+    MemoryTransaction transaction(Transaction transaction){
+        if(!(transaction instanceof MemoryTransaction) || ((MemoryTransaction) transaction).getStorage() != this){
+            throw new IllegalArgumentException("Not a transaction of this storage: " + transaction);
+        }
+        if(!lock.isHeldByCurrentThread()){
+            throw new IllegalStateException("The transaction is closed or used by another thread");
+        }
+        return (MemoryTransaction) transaction;
+    }
+
+    /**
+     * method used to acquire the lock guarding all the tables
+     */
+    void lock(){
+        lock.lock();
+    }
+
+    /**
+     * method used to release the lock guarding all the tables
+     */
+    void unlock(){
+        lock.unlock();
+    }
+
+    /**
+     * @return the Client table
+     */
+    MemoryClientStore clientStore(){
+        return clients;
+    }
+
+    /**
+     * @return the Product table
+     */
+    MemoryProductStore productStore(){
+        return products;
+    }
+
+    /**
+     * @return the Order table
+     */
+    MemoryOrderStore orderStore(){
+        return orders;
+    }
+}
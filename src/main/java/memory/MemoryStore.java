@@ -0,0 +1,403 @@
+package memory;
+
+import storage.EntityStore;
+import storage.Transaction;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * In-memory table of a MemoryStorage: the rows are kept in a LongMap keyed by their primary key
+ * the stored rows are never handed out or changed in place: readers get copies and every change stores a new object,
+ * so that a transaction can restore the previous object on rollback
+ * every operation holds the lock of the storage
+ * @param <T> the model class of the rows
+ */
+
+abstract class MemoryStore<T> implements EntityStore<T> {
+
+    /**
+     * used to generate the log message in case of a warning
+     */
+    protected static final Logger LOGGER = Logger.getLogger(MemoryStore.class.getName());
+
+    /**
+     * the storage containing the table
+     */
+    protected final MemoryStorage storage;
+    /**
+     * the rows, keyed by their primary key
+     */
+    private final LongMap<T> rows = new LongMap<>();
+    /**
+     * the next generated id, like the AUTO_INCREMENT counter of a table: it only grows
+     */
+    private int nextId = 1;
+
+    /**
+     * constructor creating an empty table
+     * @param storage the MemoryStorage containing the table
+     */
+    MemoryStore(MemoryStorage storage){
+        this.storage = storage;
+    }
+
+    /**
+     * method to compute the primary key of a row
+     * @param t the row
+     * @return a long representing the primary key
+     */
+    abstract long key(T t);
+
+    /**
+     * method to copy a row
+     * @param t the row to be copied
+     * @return a new object with the same fields
+     */
+    abstract T copy(T t);
+
+    /**
+     * method to read the id of a row, as returned by insert()
+     * @param t the row
+     * @return an int representing the id
+     */
+    abstract int readId(T t);
+
+    /**
+     * method used to set a generated id on a row; only called if the table has a generated id
+     * @param t the row
+     * @param id int representing the generated id
+     */
+    void assignId(T t, int id){
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * method to check if the id of a row has to be generated, i.e. it is 0 and the table has a single-column key
+     * @param t the row
+     * @return true if the id has to be generated
+     */
+    boolean needsGeneratedId(T t){
+        return false;
+    }
+
+    /**
+     * method called after a row was stored, so that the secondary indexes can be updated
+     * @param t the stored row
+     */
+    void indexAdd(T t){
+    }
+
+    /**
+     * method called after a row was removed, so that the secondary indexes can be updated
+     * @param t the removed row
+     */
+    void indexRemove(T t){
+    }
+
+    /**
+     * method called after a row was replaced by a row with the same key, so that the secondary indexes can be updated
+     * @param old the replaced row
+     * @param t the new row
+     */
+    void indexReplace(T old, T t){
+        indexRemove(old);
+        indexAdd(t);
+    }
+
+    /**
+     * method to retrieve the primary keys of all the rows; the caller holds the lock
+     * @return a new array containing the keys, in ascending order
+     */
+    long[] keys(){
+        return rows.sortedKeys();
+    }
+
+    /**
+     * method to retrieve a stored row, without copying it; the caller holds the lock
+     * @param key long representing the primary key
+     * @return the stored row or null, if there is none
+     */
+    T row(long key){
+        return rows.get(key);
+    }
+
+    /**
+     * method to retrieve copies of the rows with given ids
+     * @param ids the ids of the rows
+     * @return a list containing a copy of each row which was found
+     */
+    List<T> findRows(List<Integer> ids){
+        storage.lock();
+        try{
+            List<T> found = new ArrayList<>();
+            for(int id : ids){
+                T t = rows.get(id);
+                if(t != null){
+                    found.add(copy(t));
+                }
+            }
+            return found;
+        }finally{
+            storage.unlock();
+        }
+    }
+
+    /**
+     * method used to store a row, replacing the row with the same key; the caller holds the lock
+     * @param t the new row, which must not be changed afterwards
+     * @param transaction the MemoryTransaction recording the change or null, if the change is not part of a transaction
+     */
+    void store(T t, MemoryTransaction transaction){
+        long key = key(t);
+        T old = rows.put(key, t);
+        if(old != null){
+            indexReplace(old, t);
+        }
+        else{
+            indexAdd(t);
+        }
+        if(transaction != null){
+            transaction.onRollback(() -> {
+                if(old != null){
+                    store(old, null);
+                }
+                else{
+                    discard(key, null);
+                }
+            });
+        }
+    }
+
+    /**
+     * method used to remove a row; the caller holds the lock
+     * @param key long representing the primary key
+     * @param transaction the MemoryTransaction recording the change or null, if the change is not part of a transaction
+     * @return the removed row or null, if there was none
+     */
+    T discard(long key, MemoryTransaction transaction){
+        T old = rows.remove(key);
+        if(old != null){
+            indexRemove(old);
+            if(transaction != null){
+                transaction.onRollback(() -> store(old, null));
+            }
+        }
+        return old;
+    }
+
+    /**
+     * method to retrieve a copy of the rows with the given keys, in the order of the keys; the caller holds the lock
+     * @param keys the primary keys
+     * @return a list of copied rows
+     */
+    List<T> copies(long[] keys){
+        List<T> list = new ArrayList<>(keys.length);
+        for(long key : keys){
+            list.add(copy(rows.get(key)));
+        }
+        return list;
+    }
+
+    @Override
+    public List<T> findAll(){
+        storage.lock();
+        try{
+            return copies(rows.sortedKeys());
+        }finally{
+            storage.unlock();
+        }
+    }
+
+    /**
+     * method to retrieve a copy of a stored row, under the lock
+     * @param key long representing the primary key
+     * @return a copy of the row or null, if there is none
+     */
+    T findRow(long key){
+        storage.lock();
+        try{
+            T t = rows.get(key);
+            return t == null ? null : copy(t);
+        }finally{
+            storage.unlock();
+        }
+    }
+
+    /**
+     * method used to retrieve the primary keys of all the rows, under the lock
+     * @return a new array containing the keys, in ascending order
+     */
+    long[] lockedKeys(){
+        storage.lock();
+        try{
+            return rows.sortedKeys();
+        }finally{
+            storage.unlock();
+        }
+    }
+
+    /**
+     * the keys are read at once, but each row is copied only when the stream reaches it, so that the table is never copied whole;
+     * the rows removed in the meantime are skipped
+     */
+    @Override
+    public Stream<T> stream(){
+        return Arrays.stream(lockedKeys()).mapToObj(this::findRow).filter(Objects::nonNull);
+    }
+
+    /**
+     * the keys are read at once, but each row is copied only when its turn comes, so that the table is never copied whole;
+     * the rows removed in the meantime are skipped
+     */
+    @Override
+    public void forEach(Consumer<T> action){
+        for(long key : lockedKeys()){
+            T t = findRow(key);
+            if(t != null){
+                action.accept(t);
+            }
+        }
+    }
+
+    @Override
+    public List<T> findPage(int afterId, int limit){
+        storage.lock();
+        try{
+            long[] keys = rows.sortedKeys();
+            List<T> page = new ArrayList<>();
+            for(int i = 0; i < keys.length && page.size() < limit; i++){
+                if(keys[i] > afterId){
+                    page.add(copy(rows.get(keys[i])));
+                }
+            }
+            return page;
+        }finally{
+            storage.unlock();
+        }
+    }
+
+    @Override
+    public int insert(T t){
+        storage.lock();
+        try{
+            return insert(t, null);
+        }finally{
+            storage.unlock();
+        }
+    }
+
+    /**
+     * method to insert a row; the caller holds the lock
+     * @param t the row to be inserted; a generated id is set on it
+     * @param transaction the MemoryTransaction recording the change or null, if the change is not part of a transaction
+     * @return an int representing the id of the row or -1, if a row with the same key exists
+     */
+    int insert(T t, MemoryTransaction transaction){
+        if(needsGeneratedId(t)){
+            assignId(t, nextId++);
+        }
+        else if(rows.get(key(t)) != null){
+            LOGGER.log(Level.WARNING, getClass().getSimpleName() + ":insert duplicate key " + key(t));
+            return -1;
+        }
+        else{
+            nextId = Math.max(nextId, readId(t) + 1);
+        }
+        store(copy(t), transaction);
+        return readId(t);
+    }
+
+    @Override
+    public int insert(Transaction transaction, T t) throws SQLException {
+        MemoryTransaction tx = storage.transaction(transaction);
+        int id = insert(t, tx);
+        if(id == -1){
+            throw new SQLException("Duplicate key " + key(t) + " in " + getClass().getSimpleName());
+        }
+        return id;
+    }
+
+    @Override
+    public void insertAll(List<T> list){
+        storage.lock();
+        try{
+            for(T t : list){
+                insert(t, null);
+            }
+        }finally{
+            storage.unlock();
+        }
+    }
+
+    @Override
+    public void insertAll(Transaction transaction, List<T> list) throws SQLException {
+        for(T t : list){
+            insert(transaction, t);
+        }
+    }
+
+    @Override
+    public void update(T t){
+        storage.lock();
+        try{
+            if(rows.get(key(t)) != null){
+                store(copy(t), null);
+            }
+        }finally{
+            storage.unlock();
+        }
+    }
+
+    @Override
+    public void updateAll(List<T> list){
+        for(T t : list){
+            update(t);
+        }
+    }
+
+    @Override
+    public void updateAll(Transaction transaction, List<T> list){
+        MemoryTransaction tx = storage.transaction(transaction);
+        for(T t : list){
+            if(rows.get(key(t)) != null){
+                store(copy(t), tx);
+            }
+        }
+    }
+
+    @Override
+    public void delete(T t){
+        storage.lock();
+        try{
+            discard(key(t), null);
+        }finally{
+            storage.unlock();
+        }
+    }
+
+    @Override
+    public void deleteAll(Transaction transaction, List<T> list){
+        MemoryTransaction tx = storage.transaction(transaction);
+        for(T t : list){
+            discard(key(t), tx);
+        }
+    }
+
+    @Override
+    public int deleteAll(Transaction transaction){
+        MemoryTransaction tx = storage.transaction(transaction);
+        long[] keys = rows.sortedKeys();
+        for(long key : keys){
+            discard(key, tx);
+        }
+        return keys.length;
+    }
+}
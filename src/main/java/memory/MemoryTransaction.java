@@ -0,0 +1,71 @@
+package memory;
+
+import storage.Transaction;
+
+import java.util.ArrayDeque;
+
+/**
+ * Transaction of the in-memory storage
+ * it holds the lock of the storage from begin() to close(), so transactions are serialized, and keeps an undo log of its changes
+ */
+
+class MemoryTransaction implements Transaction {
+
+    /**
+     * the storage in which the transaction was started
+     */
+    private final MemoryStorage storage;
+    /**
+     * the actions undoing the changes of the transaction, the most recent first
+     */
+    private final ArrayDeque<Runnable> undo = new ArrayDeque<>();
+    /**
+     * true once the transaction was closed
+     */
+    private boolean closed = false;
+
+    /**
+     * constructor acquiring the lock of the storage
+     * @param storage the MemoryStorage in which the transaction is started
+     */
+    MemoryTransaction(MemoryStorage storage){
+        this.storage = storage;
+        storage.lock();
+    }
+
+    /**
+     * @return the storage in which the transaction was started
+     */
+    MemoryStorage getStorage(){
+        return storage;
+    }
+
+    /**
+     * method used to record the action undoing a change made in the transaction
+     * @param action Runnable restoring the previous state
+     */
+    void onRollback(Runnable action){
+        undo.push(action);
+    }
+
+    @Override
+    public void commit(){
+        undo.clear();
+    }
+
+    @Override
+    public void rollback(){
+        while(!undo.isEmpty()){
+            undo.pop().run();
+        }
+    }
+
+    @Override
+    public void close(){
+        if(!closed){
+            closed = true;
+            rollback();
+            storage.unlock();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package memory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * In-memory table whose rows have a name, with a hash index from the lower-case name to the primary key
+ * like the name index of the database, the lookup is case-insensitive; if several rows have the same name, the one with the smallest key is found
+ * @param <T> the model class of the rows
+ */
+
+abstract class NamedMemoryStore<T> extends MemoryStore<T> {
+
+    /**
+     * the primary keys, by the lower-case name of the rows
+     */
+    private final HashMap<String, Long> names = new HashMap<>();
+
+    /**
+     * constructor creating an empty table
+     * @param storage the MemoryStorage containing the table
+     */
+    NamedMemoryStore(MemoryStorage storage){
+        super(storage);
+    }
+
+    /**
+     * method to read the name of a row
+     * @param t the row
+     * @return a String representing the name
+     */
+    abstract String name(T t);
+
+    /**
+     * method to retrieve a copy of the row with a given name
+     * @param name String representing the name; the comparison is case-insensitive
+     * @return a copy of the row or null, if there is none
+     */
+    T findRowByName(String name){
+        storage.lock();
+        try{
+            Long key = names.get(normalize(name));
+            return key == null ? null : copy(row(key));
+        }finally{
+            storage.unlock();
+        }
+    }
+
+    /**
+     * method to retrieve copies of the rows with given names
+     * @param names the names of the rows; the comparison is case-insensitive
+     * @return a list containing a copy of the row found for each name
+     */
+    List<T> findRowsByName(List<String> names){
+        storage.lock();
+        try{
+            List<T> found = new ArrayList<>();
+            for(String name : names){
+                Long key = this.names.get(normalize(name));
+                if(key != null){
+                    found.add(copy(row(key)));
+                }
+            }
+            return found;
+        }finally{
+            storage.unlock();
+        }
+    }
+
+    @Override
+    void indexAdd(T t){
+        names.merge(normalize(name(t)), key(t), Math::min);
+    }
+
+    @Override
+    void indexRemove(T t){
+        String name = normalize(name(t));
+        Long key = names.get(name);
+        if(key == null || key != key(t)){
+            return;
+        }
+        names.remove(name);
+        // another row may have the same name; it takes over the index entry
+        for(long other : keys()){
+            if(name.equals(normalize(name(row(other))))){
+                names.put(name, other);
+                break;
+            }
+        }
+    }
+
+    @Override
+    void indexReplace(T old, T t){
+        if(!normalize(name(old)).equals(normalize(name(t)))){
+            super.indexReplace(old, t);
+        }
+    }
+
+    /**
+     * method used to normalize a name, so that the lookups are case-insensitive
+     * @param name String representing the name
+     * @return the lower-case name
+     */
+    private static String normalize(String name){
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,49 @@
+package metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monotonic counter of events, e.g. the rows read from a table or the failed statements
+ * a LongAdder is used, so that the threads placing orders in parallel do not contend on a single value
+ */
+
+public class Counter {
+
+    /**
+     * the number of counted events
+     */
+    private final LongAdder count = new LongAdder();
+
+    /**
+     * constructor used by the Metrics registry
+     */
+    Counter(){
+    }
+
+    /**
+     * method used to count one event
+     */
+    public void increment(){
+        count.increment();
+    }
+
+    /**
+     * method used to count several events at once
+     * @param n long representing the number of events
+     */
+    public void add(long n){
+        count.add(n);
+    }
+
+    /**
+     * @return the number of events counted so far
+     */
+    public long getCount(){
+        return count.sum();
+    }
+
+    @Override
+    public String toString(){
+        return "Counter[" + getCount() + "]";
+    }
+}
@@ -0,0 +1,150 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of latencies in nanoseconds, with the log-linear buckets of an HDR histogram
+ * every power of two is split into SUB_BUCKETS linear buckets, so any recorded value is reported with a relative error below 1 / SUB_BUCKETS (about 3%),
+ * from one nanosecond up to Long.MAX_VALUE, in a fixed array of counters
+ * recording a value is one array increment, so the histogram can be shared by all the threads; the percentiles are computed from a copy of the counters
+ */
+
+public class LatencyHistogram {
+
+    /**
+     * the number of bits of a value kept exactly inside its power of two
+     */
+    private static final int SUB_BUCKET_BITS = 5;
+    /**
+     * the number of linear buckets per power of two
+     */
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    /**
+     * the total number of buckets: the values below SUB_BUCKETS are exact, every larger power of two has SUB_BUCKETS buckets
+     */
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    /**
+     * the number of values recorded in each bucket
+     */
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    /**
+     * constructor creating an empty histogram
+     */
+    public LatencyHistogram(){
+    }
+
+    /**
+     * method used to record a value
+     * @param nanos long representing the recorded latency, in nanoseconds; negative values are recorded as 0
+     */
+    public void record(long nanos){
+        counts.incrementAndGet(index(Math.max(0, nanos)));
+    }
+
+    /**
+     * method used to read all the counters at once, e.g. before computing several percentiles
+     * @return a Snapshot of the histogram; values recorded while it is taken may be partly included
+     */
+    public Snapshot snapshot(){
+        long[] copy = new long[BUCKETS];
+        long total = 0;
+        for(int i = 0; i < BUCKETS; i++){
+            copy[i] = counts.get(i);
+            total += copy[i];
+        }
+        return new Snapshot(copy, total);
+    }
+
+    /**
+     * method used to find the bucket of a value
+     * @param value long representing a non-negative value
+     * @return an int representing the index of the bucket holding the value
+     */
+    static int index(long value){
+        if(value < SUB_BUCKETS){
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) - SUB_BUCKETS);
+    }
+
+    /**
+     * method used to find the largest value held by a bucket
+     * @param index int representing the index of the bucket
+     * @return a long representing the largest value recorded in the bucket
+     */
+    static long highestValue(int index){
+        if(index < SUB_BUCKETS){
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long mantissa = SUB_BUCKETS + index % SUB_BUCKETS;
+        return ((mantissa + 1) << shift) - 1;
+    }
+
+    /**
+     * Copy of the counters of a histogram, taken at one moment, from which its percentiles are computed
+     */
+    public static class Snapshot {
+
+        /**
+         * the number of values in each bucket
+         */
+        private final long[] counts;
+        /**
+         * the number of values in all the buckets
+         */
+        private final long total;
+
+        /**
+         * constructor containing all the fields
+         * @param counts the copied counters
+         * @param total long representing the sum of the counters
+         */
+        private Snapshot(long[] counts, long total){
+            this.counts = counts;
+            this.total = total;
+        }
+
+        /**
+         * @return the number of recorded values
+         */
+        public long getCount(){
+            return total;
+        }
+
+        /**
+         * method used to find the value below which a given percentage of the recorded values are
+         * @param percentile double representing the percentage, between 0 and 100
+         * @return a long representing the highest value of the bucket reaching the percentile, in nanoseconds; 0 if nothing was recorded
+         */
+        public long getValueAtPercentile(double percentile){
+            if(total == 0){
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+            long seen = 0;
+            for(int i = 0; i < counts.length; i++){
+                seen += counts[i];
+                if(seen >= rank){
+                    return highestValue(i);
+                }
+            }
+            return getMaxValue();
+        }
+
+        /**
+         * @return the highest value of the last non-empty bucket, in nanoseconds; 0 if nothing was recorded
+         */
+        public long getMaxValue(){
+            for(int i = counts.length - 1; i >= 0; i--){
+                if(counts[i] > 0){
+                    return highestValue(i);
+                }
+            }
+            return 0;
+        }
+    }
+}
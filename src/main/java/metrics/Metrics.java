@@ -0,0 +1,255 @@
+package metrics;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Registry of the counters, timers and gauges of the application, named like "dao.client.findById" or "pool.acquire"
+ * the metrics are created on first use and kept for the whole run; the callers look them up once and keep the returned object
+ * the registry is written in the Prometheus text format, either to a file (-Dmanagement.metrics.file, also every -Dmanagement.metrics.dumpMillis
+ * during the run) or to a local HTTP endpoint, http://127.0.0.1:port/metrics (-Dmanagement.metrics.port)
+ */
+
+public class Metrics {
+
+    /**
+     * false if the timers should not read the clock; can be changed with -Dmanagement.metrics.enabled
+     */
+    static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("management.metrics.enabled", "true"));
+    /**
+     * the file to which the metrics are written, or null if they are not written to a file; can be changed with -Dmanagement.metrics.file
+     */
+    private static final String FILE = System.getProperty("management.metrics.file");
+    /**
+     * the interval, in milliseconds, at which the metrics file is rewritten during the run, or 0 to write it only at the end;
+     * can be changed with -Dmanagement.metrics.dumpMillis
+     */
+    private static final long DUMP_MILLIS = Long.getLong("management.metrics.dumpMillis", 0L);
+    /**
+     * the local port on which the metrics are served, or 0 if they are not served; can be changed with -Dmanagement.metrics.port
+     */
+    private static final int PORT = Integer.getInteger("management.metrics.port", 0);
+    /**
+     * the prefix of the names of the exported metrics
+     */
+    private static final String PREFIX = "management_";
+
+    /**
+     * used to generate the log message in case of a warning
+     */
+    private static final Logger LOGGER = Logger.getLogger(Metrics.class.getName());
+
+    /**
+     * the counters, by name
+     */
+    private static final ConcurrentHashMap<String, Counter> COUNTERS = new ConcurrentHashMap<>();
+    /**
+     * the timers, by name
+     */
+    private static final ConcurrentHashMap<String, Timer> TIMERS = new ConcurrentHashMap<>();
+    /**
+     * the gauges, by name: values read when the metrics are written, e.g. the number of active pooled connections
+     */
+    private static final ConcurrentHashMap<String, LongSupplier> GAUGES = new ConcurrentHashMap<>();
+
+    /**
+     * the endpoint serving the metrics or null, if it is not started
+     */
+    private static HttpServer server = null;
+    /**
+     * the thread rewriting the metrics file during the run or null, if it is not started
+     */
+    private static ScheduledExecutorService dumper = null;
+
+    /**
+     * private constructor, the class only contains static methods
+     */
+    private Metrics(){
+    }
+
+    /**
+     * method used to retrieve the counter with a given name, creating it on first use
+     * @param name String representing the name of the counter, e.g. "dao.client.rows"
+     * @return the Counter with the given name
+     */
+    public static Counter counter(String name){
+        Counter counter = COUNTERS.get(name);
+        return counter != null ? counter : COUNTERS.computeIfAbsent(name, k -> new Counter());
+    }
+
+    /**
+     * method used to retrieve the timer with a given name, creating it on first use
+     * @param name String representing the name of the timer, e.g. "dao.client.findById"
+     * @return the Timer with the given name
+     */
+    public static Timer timer(String name){
+        Timer timer = TIMERS.get(name);
+        return timer != null ? timer : TIMERS.computeIfAbsent(name, k -> new Timer());
+    }
+
+    /**
+     * method used to register a value which is read whenever the metrics are written; a gauge with the same name is replaced
+     * @param name String representing the name of the gauge, e.g. "pool.active"
+     * @param value the function reading the current value
+     */
+    public static void gauge(String name, LongSupplier value){
+        GAUGES.put(name, value);
+    }
+
+    /**
+     * method used to start the reporting configured through the system properties: the local endpoint and the periodic file dump
+     * does nothing for the options which are not set
+     */
+    public static synchronized void start(){
+        if(PORT > 0 && server == null){
+            try{
+                server = serve(PORT);
+                LOGGER.log(Level.INFO, "Metrics:start serving the metrics on http://127.0.0.1:" + server.getAddress().getPort() + "/metrics");
+            }catch(IOException e){
+                LOGGER.log(Level.WARNING, "Metrics:start " + e.getMessage());
+            }
+        }
+        if(FILE != null && DUMP_MILLIS > 0 && dumper == null){
+            dumper = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "metrics-dump");
+                thread.setDaemon(true);
+                return thread;
+            });
+            dumper.scheduleAtFixedRate(Metrics::dump, DUMP_MILLIS, DUMP_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * method used to stop the reporting at the end of the run, writing the metrics file a last time if one is configured
+     */
+    public static synchronized void stop(){
+        if(dumper != null){
+            dumper.shutdownNow();
+            dumper = null;
+        }
+        dump();
+        if(server != null){
+            server.stop(0);
+            server = null;
+        }
+    }
+
+    /**
+     * method used to write the metrics to the file given by -Dmanagement.metrics.file, if it is set
+     */
+    private static void dump(){
+        if(FILE != null){
+            try{
+                dump(Paths.get(FILE));
+            }catch(IOException e){
+                LOGGER.log(Level.WARNING, "Metrics:dump " + FILE + " " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * method used to write the metrics to a file, replacing it; the file is written next to it first, so a reader never sees it half written
+     * @param file Path of the written file
+     * @throws IOException if the file cannot be written
+     */
+    public static void dump(Path file) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(temp, format().getBytes(StandardCharsets.UTF_8));
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * method used to start an HTTP endpoint serving the metrics on the loopback interface, at /metrics, from a daemon thread
+     * @param port int representing the port; 0 lets the system choose a free one
+     * @return the started HttpServer; stopping it closes the endpoint
+     * @throws IOException if the port cannot be bound
+     */
+    public static HttpServer serve(int port) throws IOException {
+        HttpServer http = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        http.createContext("/metrics", exchange -> {
+            byte[] body = format().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try(OutputStream out = exchange.getResponseBody()){
+                out.write(body);
+            }
+        });
+        http.setExecutor(Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "metrics-http");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        http.start();
+        return http;
+    }
+
+    /**
+     * method used to write all the metrics in the Prometheus text format, sorted by name
+     * a counter becomes name_total, a gauge keeps its name and a timer becomes a summary in seconds, with the 0.5, 0.9, 0.99 and 0.999 quantiles,
+     * the count, the sum and the max; the dots of the names are replaced with underscores
+     * @return a String containing all the metrics
+     */
+    public static String format(){
+        StringBuilder out = new StringBuilder();
+        for(Map.Entry<String, Counter> e : new TreeMap<>(COUNTERS).entrySet()){
+            String name = PREFIX + sanitize(e.getKey()) + "_total";
+            out.append("# TYPE ").append(name).append(" counter\n");
+            out.append(name).append(' ').append(e.getValue().getCount()).append('\n');
+        }
+        for(Map.Entry<String, LongSupplier> e : new TreeMap<>(GAUGES).entrySet()){
+            String name = PREFIX + sanitize(e.getKey());
+            out.append("# TYPE ").append(name).append(" gauge\n");
+            out.append(name).append(' ').append(e.getValue().getAsLong()).append('\n');
+        }
+        for(Map.Entry<String, Timer> e : new TreeMap<>(TIMERS).entrySet()){
+            String name = PREFIX + sanitize(e.getKey()) + "_seconds";
+            Timer timer = e.getValue();
+            LatencyHistogram.Snapshot snapshot = timer.snapshot();
+            out.append("# TYPE ").append(name).append(" summary\n");
+            for(double quantile : new double[]{0.5, 0.9, 0.99, 0.999}){
+                out.append(name).append("{quantile=\"").append(quantile).append("\"} ")
+                        .append(seconds(Math.min(snapshot.getValueAtPercentile(quantile * 100), timer.getMaxNanos()))).append('\n');
+            }
+            out.append(name).append("_count ").append(timer.getCount()).append('\n');
+            out.append(name).append("_sum ").append(seconds(timer.getTotalNanos())).append('\n');
+            out.append(name).append("_max ").append(seconds(timer.getMaxNanos())).append('\n');
+        }
+        return out.toString();
+    }
+
+    /**
+     * method used to turn a metric name into a valid Prometheus name
+     * @param name String representing the name of the metric
+     * @return the name, with any character other than letters, digits and underscores replaced with an underscore
+     */
+    private static String sanitize(String name){
+        return name.replaceAll("[^a-zA-Z0-9_]", "_");
+    }
+
+    /**
+     * @param nanos long representing a duration in nanoseconds
+     * @return a String representing the duration in seconds
+     */
+    private static String seconds(long nanos){
+        return String.format(Locale.ROOT, "%.9f", nanos / 1e9);
+    }
+}
@@ -0,0 +1,102 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Timer of an operation, e.g. one DAO query or one command: it counts the calls and records their latencies in a LatencyHistogram
+ * an operation is timed with long start = timer.start(); ... timer.stop(start); stop() is usually called from the finally block of the operation
+ * if the metrics are disabled (-Dmanagement.metrics.enabled=false), start() returns 0 and stop() records nothing, so the timers cost no clock reads
+ */
+
+public class Timer {
+
+    /**
+     * the latencies of the timed operations
+     */
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    /**
+     * the number of timed operations
+     */
+    private final LongAdder count = new LongAdder();
+    /**
+     * the sum of the latencies, in nanoseconds
+     */
+    private final LongAdder total = new LongAdder();
+    /**
+     * the highest latency, in nanoseconds
+     */
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * constructor used by the Metrics registry
+     */
+    Timer(){
+    }
+
+    /**
+     * method used to mark the start of a timed operation
+     * @return a long representing the start time, to be passed to stop(); 0 if the metrics are disabled
+     */
+    public long start(){
+        return Metrics.ENABLED ? System.nanoTime() : 0;
+    }
+
+    /**
+     * method used to mark the end of a timed operation and record its latency
+     * @param start long representing the value returned by start()
+     */
+    public void stop(long start){
+        if(start != 0){
+            record(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * method used to record the latency of an operation measured elsewhere
+     * @param nanos long representing the latency, in nanoseconds
+     */
+    public void record(long nanos){
+        histogram.record(nanos);
+        count.increment();
+        total.add(nanos);
+        if(nanos > max.get()){
+            max.accumulateAndGet(nanos, Math::max);
+        }
+    }
+
+    /**
+     * @return the number of timed operations
+     */
+    public long getCount(){
+        return count.sum();
+    }
+
+    /**
+     * @return the sum of the latencies of the timed operations, in nanoseconds
+     */
+    public long getTotalNanos(){
+        return total.sum();
+    }
+
+    /**
+     * @return the exact highest latency, in nanoseconds
+     */
+    public long getMaxNanos(){
+        return max.get();
+    }
+
+    /**
+     * @return a Snapshot of the latency histogram, from which the percentiles are computed
+     */
+    public LatencyHistogram.Snapshot snapshot(){
+        return histogram.snapshot();
+    }
+
+    @Override
+    public String toString(){
+        LatencyHistogram.Snapshot s = snapshot();
+        return "Timer[count=" + getCount() + ", p50=" + s.getValueAtPercentile(50) / 1000 + "us, p99=" + s.getValueAtPercentile(99) / 1000
+                + "us, max=" + getMaxNanos() / 1000 + "us]";
+    }
+}
@@ -0,0 +1,75 @@
+package model;
+
+import annotations.Column;
+import annotations.Id;
+import annotations.Table;
+
+/**
+ * Model class for the AppliedCommand table in the database, used to store the positions in the input of the commands whose changes were committed
+ * a row is written in the transaction of the commands it covers, so that an interrupted run can be resumed after the last applied command
+ */
+
+@Table("appliedcommand")
+public class AppliedCommand {
+
+    /**
+     * position of the first command of the range; acts as primary key
+     */
+    @Id
+    @Column("firstposition")
+    private int firstPosition;
+    /**
+     * position of the last command of the range
+     */
+    @Column("lastposition")
+    private int lastPosition;
+
+    /**
+     * basic constructor
+     */
+    public AppliedCommand(){
+    }
+
+    /**
+     * constructor containing all the necessary fields
+     * @param firstPosition position of the first command of the range
+     * @param lastPosition position of the last command of the range
+     */
+    public AppliedCommand(int firstPosition, int lastPosition){
+        this.firstPosition = firstPosition;
+        this.lastPosition = lastPosition;
+    }
+
+    /**
+     * method to set / change the position of the first command of the range
+     * @param firstPosition int representing the position of the first command
+     */
+    public void setFirstPosition(int firstPosition){
+        this.firstPosition = firstPosition;
+    }
+
+    /**
+     * method to set / change the position of the last command of the range
+     * @param lastPosition int representing the position of the last command
+     */
+    public void setLastPosition(int lastPosition){
+        this.lastPosition = lastPosition;
+    }
+
+    /**
+     * method to retrieve the position of the first command of the range from the object
+     * @return an int representing the position of the first command
+     */
+    public int getFirstPosition(){
+        return firstPosition;
+    }
+
+    /**
+     * method to retrieve the position of the last command of the range from the object
+     * @return an int representing the position of the last command
+     */
+    public int getLastPosition(){
+        return lastPosition;
+    }
+
+}
@@ -1,27 +1,37 @@
 package model;
 
+import annotations.Column;
+import annotations.Id;
+import annotations.Table;
+
 /**
  * Model class for the Client table in the database, used to store information about a client
  */
 
+@Table("client")
 public class Client {
 
     /**
      * ID of the client; acts as primary key
      */
+    @Id
+    @Column("idclient")
     private int idClient;
     /**
      * name of the client; also unique
      */
+    @Column("name")
     private String name;
     /**
      * address of the client
      */
+    @Column("address")
     private String address;
     /**
      * deleted flag, used to check if the client is considered to be deleted in the database
      * 0 if false, 1 if true
      */
+    @Column("deleted")
     private int deleted;
 
     /**
@@ -0,0 +1,129 @@
+package model;
+
+import annotations.Column;
+import annotations.Id;
+import annotations.Table;
+
+/**
+ * Model class for the FailedOrder table in the database, used to store the orders which could not be placed because of insufficient stock,
+ * so that they are still written in the bills after an interrupted run is resumed
+ */
+
+@Table("failedorder")
+public class FailedOrder {
+
+    /**
+     * position of the order in the input; acts as primary key
+     */
+    @Id
+    @Column("position")
+    private int position;
+    /**
+     * name of the client who placed the order
+     */
+    @Column("client")
+    private String client;
+    /**
+     * name of the ordered product
+     */
+    @Column("product")
+    private String product;
+    /**
+     * ordered quantity
+     */
+    @Column("quantity")
+    private int quantity;
+
+    /**
+     * basic constructor
+     */
+    public FailedOrder(){
+    }
+
+    /**
+     * constructor containing all the necessary fields
+     * @param position position of the order in the input
+     * @param client name of the client
+     * @param product name of the product
+     * @param quantity ordered quantity
+     */
+    public FailedOrder(int position, String client, String product, int quantity){
+        this.position = position;
+        this.client = client;
+        this.product = product;
+        this.quantity = quantity;
+    }
+
+    /**
+     * method to set / change the position of the order in the input
+     * @param position int representing the position of the order
+     */
+    public void setPosition(int position){
+        this.position = position;
+    }
+
+    /**
+     * method to set / change the name of the client
+     * @param client String representing the name of the client
+     */
+    public void setClient(String client){
+        this.client = client;
+    }
+
+    /**
+     * method to set / change the name of the product
+     * @param product String representing the name of the product
+     */
+    public void setProduct(String product){
+        this.product = product;
+    }
+
+    /**
+     * method to set / change the ordered quantity
+     * @param quantity int representing the ordered quantity
+     */
+    public void setQuantity(int quantity){
+        this.quantity = quantity;
+    }
+
+    /**
+     * method to retrieve the position of the order in the input from the object
+     * @return an int representing the position of the order
+     */
+    public int getPosition(){
+        return position;
+    }
+
+    /**
+     * method to retrieve the name of the client from the object
+     * @return a String representing the name of the client
+     */
+    public String getClient(){
+        return client;
+    }
+
+    /**
+     * method to retrieve the name of the product from the object
+     * @return a String representing the name of the product
+     */
+    public String getProduct(){
+        return product;
+    }
+
+    /**
+     * method to retrieve the ordered quantity from the object
+     * @return an int representing the ordered quantity
+     */
+    public int getQuantity(){
+        return quantity;
+    }
+
+    /**
+     * method to retrieve the notification of the order, in the format used by the bills
+     * @return String[] containing the client, the product and the quantity of the order
+     */
+    public String[] toNotification(){
+        return new String[]{client, product, String.valueOf(quantity)};
+    }
+
+}
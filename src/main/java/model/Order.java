@@ -1,27 +1,37 @@
 package model;
 
+import annotations.Column;
+import annotations.Id;
+import annotations.Table;
+
 /**
  * Model class for the Order table in the database, used to store information about an order
  */
 
+@Table("order")
 public class Order {
 
     /**
      * ID of the order; acts as primary key
      */
+    @Id
+    @Column("idorder")
     private int idOrder;
     /**
      * ID of the client; also unique in this case; acts as foreign key
      */
+    @Column("idclient")
     private int idClient;
     /**
      * total price from all the orders placed by the client idClient
      */
+    @Column("total")
     private float total;
     /**
      * deleted flag, used to check if the client is considered to be deleted in the database
      * 0 if false, 1 if true
      */
+    @Column("deleted")
     private int deleted;
 
     /**
@@ -53,7 +63,7 @@ public class Order {
      */
     public Order(int clientId, float total, int deleted){
         super();
-        this.idClient = idClient;
+        this.idClient = clientId;
         this.total = total;
         this.deleted = deleted;
     }
@@ -1,27 +1,38 @@
 package model;
 
+import annotations.Column;
+import annotations.Id;
+import annotations.Table;
+
 /**
  * Model class for the OrderItem table in the database, used to store information about the items contained in all the orders
  */
 
+@Table("orderitem")
 public class OrderItem {
 
     /**
-     * ID of the order; acts as foreign key
+     * ID of the order; acts as foreign key and, together with the id of the product, as primary key
      */
+    @Id
+    @Column("idorder")
     private int idOrder;
     /**
-     * ID of the product; acts as foreign key
+     * ID of the product; acts as foreign key and, together with the id of the order, as primary key
      */
+    @Id
+    @Column("idproduct")
     private int idProduct;
     /**
      * ordered quantity of the product
      */
+    @Column("quantity")
     private int quantity;
     /**
      * deleted flag, used to check if the orderItem is considered to be deleted in the database
      * 0 if false, 1 if true
      */
+    @Column("deleted")
     private int deleted;
 
     /**
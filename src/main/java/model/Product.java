@@ -1,31 +1,42 @@
 package model;
 
+import annotations.Column;
+import annotations.Id;
+import annotations.Table;
+
 /**
  * Model class for the Product table in the database, used to store information about a product
  */
 
+@Table("product")
 public class Product {
 
     /**
      * ID of the product; acts as primary key
      */
+    @Id
+    @Column("idproduct")
     private int idProduct;
     /**
      * name of the product; also unique
      */
+    @Column("name")
     private String name;
     /**
      * price of the product
      */
+    @Column("price")
     private float price;
     /**
      * quantity available in stock
      */
+    @Column("quantity")
     private int quantity;
     /**
      * deleted flag, used to check if the client is considered to be deleted in the database
      * 0 if false, 1 if true
      */
+    @Column("deleted")
     private int deleted;
 
     /**
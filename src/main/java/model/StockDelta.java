@@ -0,0 +1,108 @@
+package model;
+
+import annotations.Column;
+import annotations.Id;
+import annotations.Table;
+
+/**
+ * Model class for the StockDelta table in the database, used to store the quantity taken by an order admitted by the stock ledger
+ * a row is written in the transaction of the order and deleted in the transaction subtracting its quantity from the Product table,
+ * so that the stock of the orders not yet written to the Product table survives a crash
+ */
+
+@Table("stockdelta")
+public class StockDelta {
+
+    /**
+     * ID of the delta; acts as primary key
+     */
+    @Id
+    @Column("idstockdelta")
+    private int idStockDelta;
+    /**
+     * ID of the ordered product
+     */
+    @Column("idproduct")
+    private int idProduct;
+    /**
+     * quantity taken out of stock by the order
+     */
+    @Column("quantity")
+    private int quantity;
+
+    /**
+     * basic constructor
+     */
+    public StockDelta(){
+    }
+
+    /**
+     * constructor containing all the fields
+     * @param idStockDelta id of the delta
+     * @param idProduct id of the ordered product
+     * @param quantity quantity taken out of stock
+     */
+    public StockDelta(int idStockDelta, int idProduct, int quantity){
+        this.idStockDelta = idStockDelta;
+        this.idProduct = idProduct;
+        this.quantity = quantity;
+    }
+
+    /**
+     * constructor containing all the necessary fields; the id is generated when the delta is inserted
+     * @param idProduct id of the ordered product
+     * @param quantity quantity taken out of stock
+     */
+    public StockDelta(int idProduct, int quantity){
+        this(0, idProduct, quantity);
+    }
+
+    /**
+     * method to set / change the id of the delta
+     * @param idStockDelta int representing the id of the delta
+     */
+    public void setIdStockDelta(int idStockDelta){
+        this.idStockDelta = idStockDelta;
+    }
+
+    /**
+     * method to set / change the id of the ordered product
+     * @param idProduct int representing the id of the product
+     */
+    public void setIdProduct(int idProduct){
+        this.idProduct = idProduct;
+    }
+
+    /**
+     * method to set / change the quantity taken out of stock
+     * @param quantity int representing the quantity
+     */
+    public void setQuantity(int quantity){
+        this.quantity = quantity;
+    }
+
+    /**
+     * method to retrieve the id of the delta from the object
+     * @return an int representing the id of the delta
+     */
+    public int getIdStockDelta(){
+        return idStockDelta;
+    }
+
+    /**
+     * method to retrieve the id of the ordered product from the object
+     * @return an int representing the id of the product
+     */
+    public int getIdProduct(){
+        return idProduct;
+    }
+
+    /**
+     * method to retrieve the quantity taken out of stock from the object
+     * @return an int representing the quantity
+     */
+    public int getQuantity(){
+        return quantity;
+    }
+
+}
@@ -0,0 +1,128 @@
+package presentation;
+
+import utils.CommandText;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Iterator over the commands of an input file, which reads the file on a separate thread while the commands are executed
+ * the reader thread blocks when the queue is full, so the memory used does not depend on the size of the file
+ * if the file cannot be read or a line cannot be parsed, the commands read before it are returned and the failure is then rethrown
+ * by hasNext() / next() on the thread executing the commands, so a failed read is never mistaken for the end of the file
+ */
+
+public class CommandStream implements Iterator<CommandText> {
+
+    /**
+     * the maximum number of parsed commands waiting to be executed; can be changed with -Dmanagement.reader.queueSize
+     */
+    private static final int QUEUE_SIZE = Integer.getInteger("management.reader.queueSize", 4096);
+    /**
+     * the size, in chars, of the buffer used to read the input file
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+    /**
+     * marker put in the queue after the last command of the file
+     */
+    private static final CommandText END = new CommandText();
+
+    /**
+     * the commands parsed by the reader thread and not yet executed
+     */
+    private final BlockingQueue<CommandText> queue = new ArrayBlockingQueue<>(QUEUE_SIZE);
+    /**
+     * the next command to be returned or null, if it has not been taken from the queue yet
+     */
+    private CommandText next = null;
+    /**
+     * the exception which stopped the reader thread or null, if the file was read completely; it is set before END is put in the queue
+     */
+    private volatile RuntimeException failure = null;
+
+    /**
+     * constructor starting the thread which reads and parses the input file
+     * @param fileName String representing the path of the input file
+     * @param view the View used to parse each line
+     */
+    CommandStream(String fileName, View view){
+        Thread reader = new Thread(() -> read(fileName, view), "command-reader");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    /**
+     * method run by the reader thread, parsing the input file line by line into the queue
+     * @param fileName String representing the path of the input file
+     * @param view the View used to parse each line
+     */
+    private void read(String fileName, View view){
+        int lineNumber = 0;
+        try(BufferedReader reader = new BufferedReader(Files.newBufferedReader(Paths.get(fileName), Charset.defaultCharset()), BUFFER_SIZE)){
+            String line;
+            while((line = reader.readLine()) != null){
+                lineNumber++;
+                CommandText command = view.parseLine(line);
+                if(command != null){
+                    queue.put(command);
+                }
+            }
+        }catch(IOException e){
+            failure = new UncheckedIOException("CommandStream: cannot read " + fileName + " after line " + lineNumber, e);
+        }catch(RuntimeException e){
+            failure = new IllegalStateException("CommandStream: cannot parse line " + lineNumber + " of " + fileName, e);
+        }catch(InterruptedException e){
+            Thread.currentThread().interrupt();
+        }finally{
+            try{
+                queue.put(END);
+            }catch(InterruptedException e){
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * method to check if the file contains more commands; waits for the reader thread if necessary
+     * @return true if there is another command, false if the whole file was read
+     * @throws UncheckedIOException if the file could not be read after the last returned command
+     * @throws IllegalStateException if the line following the last returned command could not be parsed
+     */
+    @Override
+    public boolean hasNext(){
+        if(next == null){
+            try{
+                next = queue.take();
+            }catch(InterruptedException e){
+                Thread.currentThread().interrupt();
+                next = END;
+            }
+        }
+        if(next == END && failure != null){
+            throw failure;
+        }
+        return next != END;
+    }
+
+    /**
+     * method to retrieve the next command from the file
+     * @return the next CommandText
+     */
+    @Override
+    public CommandText next(){
+        if(!hasNext()){
+            throw new NoSuchElementException();
+        }
+        CommandText command = next;
+        next = null;
+        return command;
+    }
+}
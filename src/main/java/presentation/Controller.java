@@ -5,8 +5,9 @@ import bll.OrderBLL;
 import bll.OrderItemBLL;
 import bll.ProductBLL;
 import com.itextpdf.text.*;
-import com.itextpdf.text.pdf.PdfPTable;
 import com.itextpdf.text.pdf.PdfWriter;
+import metrics.Metrics;
+import metrics.Timer;
 import model.Client;
 import model.Order;
 import model.OrderItem;
@@ -14,7 +15,18 @@ import model.Product;
 
 import java.io.FileOutputStream;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Presentation class used to generate the requested PDFs
@@ -39,21 +51,51 @@ public class Controller {
      */
     private ProductBLL pBLL = new ProductBLL();
 
+    /**
+     * used to log the throughput of the bill generation
+     */
+    private static final Logger LOGGER = Logger.getLogger(Controller.class.getName());
+    /**
+     * the number of bills written at the same time; can be changed with -Dmanagement.bill.parallelism
+     */
+    private static final int BILL_PARALLELISM = Integer.getInteger("management.bill.parallelism", Runtime.getRuntime().availableProcessors());
+    /**
+     * the maximum number of bills submitted to the workers and not yet written, bounding the memory used by the pending tasks
+     */
+    private static final int BILL_QUEUE_SIZE = 64 * BILL_PARALLELISM;
+
+    /**
+     * the time taken to render the client report, including the reading of the table
+     */
+    private static final Timer CLIENT_REPORT_TIMER = Metrics.timer("report.client");
+    /**
+     * the time taken to render the order report, including the joined query
+     */
+    private static final Timer ORDER_REPORT_TIMER = Metrics.timer("report.order");
+    /**
+     * the time taken to render the product report, including the reading of the table
+     */
+    private static final Timer PRODUCT_REPORT_TIMER = Metrics.timer("report.product");
+    /**
+     * the time taken to render the bill of one order, by one worker
+     */
+    private static final Timer BILL_TIMER = Metrics.timer("report.bill");
+    /**
+     * the time taken to generate all the bills, at the end of the run
+     */
+    private static final Timer BILLS_TIMER = Metrics.timer("report.bills");
+
     /**
      * method to retrieve the clients from the Client table and write them in the generated table from the PDF
-     * @param table the table from the PDF file in which the data from the database will be written
+     * the clients are streamed from the table, so only the rows not yet written to the file are kept in memory
+     * @param report the ReportWriter of the PDF file in which the data from the database will be written
      */
-    private void writeClients(PdfPTable table){
-        List<Client> clients = cBLL.findAllClients();
-        if(clients != null){
-            for(Client c : clients){
-                if(c.getDeleted() == 0){
-                    table.addCell(Integer.toString(c.getIdClient()));
-                    table.addCell(c.getName());
-                    table.addCell(c.getAddress());
-                }
+    private void writeClients(ReportWriter report){
+        cBLL.forEachClient(c -> {
+            if(c.getDeleted() == 0){
+                report.row(Integer.toString(c.getIdClient()), c.getName(), c.getAddress());
             }
-        }
+        });
     }
 
     /**
@@ -61,41 +103,24 @@ public class Controller {
      * @param id int representing the current time stamp
      */
     public void generateClientReport(int id){
-        try{
-            Document document = new Document();
-            PdfWriter.getInstance(document, new FileOutputStream("Client Report Time" + id + ".pdf"));
-            document.open();
-            PdfPTable table = new PdfPTable(3);
-            table.addCell("ID");
-            table.addCell("NAME");
-            table.addCell("ADDRESS");
-            writeClients(table);
-            document.add(table);
-            document.close();
+        long started = CLIENT_REPORT_TIMER.start();
+        try(ReportWriter report = new ReportWriter("Client Report Time" + id + ".pdf", "ID", "NAME", "ADDRESS")){
+            writeClients(report);
         }catch(Exception e){
             e.printStackTrace();
+        }finally{
+            CLIENT_REPORT_TIMER.stop(started);
         }
     }
 
     /**
      * method to retrieve the orders from the Order table and write them in the generated table from the PDF
-     * @param table the table from the PDF file in which the data from the database will be written
+     * the items, their clients and products are read with a single joined query, streamed row by row
+     * @param report the ReportWriter of the PDF file in which the data from the database will be written
      */
-    private void writeOrders(PdfPTable table){
-        List<OrderItem> orders = oiBLL.findAllOrderItems();
-        if(orders != null){
-            for(OrderItem oi : orders){
-                Order o = oBLL.findOrderById(oi.getIdOrder());
-                Client c = cBLL.findClientById(o.getIdClient());
-                Product p = pBLL.findProductById(oi.getIdProduct());
-                if(c.getDeleted() == 0 && p.getDeleted() == 0){
-                    table.addCell(Integer.toString(oi.getIdOrder()));
-                    table.addCell(c.getName());
-                    table.addCell(p.getName());
-                    table.addCell(Integer.toString(oi.getQuantity()));
-                }
-            }
-        }
+    private void writeOrders(ReportWriter report){
+        oiBLL.forEachOrderReportRow((idOrder, client, product, quantity) ->
+                report.row(Integer.toString(idOrder), client, product, Integer.toString(quantity)));
     }
 
     /**
@@ -103,39 +128,27 @@ public class Controller {
      * @param id int representing the current timestamp
      */
     public void generateOrderReport(int id){
-        try{
-            Document document = new Document();
-            PdfWriter.getInstance(document, new FileOutputStream("Order Report Time" + id + ".pdf"));
-            document.open();
-            PdfPTable table = new PdfPTable(4);
-            table.addCell("ID");
-            table.addCell("CLIENT");
-            table.addCell("PRODUCT");
-            table.addCell("QUANTITY");
-            writeOrders(table);
-            document.add(table);
-            document.close();
+        long started = ORDER_REPORT_TIMER.start();
+        try(ReportWriter report = new ReportWriter("Order Report Time" + id + ".pdf", "ID", "CLIENT", "PRODUCT", "QUANTITY")){
+            writeOrders(report);
         }catch(Exception e){
             e.printStackTrace();
+        }finally{
+            ORDER_REPORT_TIMER.stop(started);
         }
     }
 
     /**
      * method to retrieve the products from the Product table and write them in the generated table from the PDF
-     * @param table the table from the PDF file in which the data from the database will be written
+     * the products are streamed from the table, so only the rows not yet written to the file are kept in memory
+     * @param report the ReportWriter of the PDF file in which the data from the database will be written
      */
-    private void writeProducts(PdfPTable table){
-        List<Product> products = pBLL.findAllProducts();
-        if(products != null){
-            for(Product p : products){
-                if(p.getDeleted() == 0){
-                    table.addCell(Integer.toString(p.getIdProduct()));
-                    table.addCell(p.getName());
-                    table.addCell(Float.toString(p.getPrice()));
-                    table.addCell(Integer.toString(p.getQuantity()));
-                }
+    private void writeProducts(ReportWriter report){
+        pBLL.forEachProduct(p -> {
+            if(p.getDeleted() == 0){
+                report.row(Integer.toString(p.getIdProduct()), p.getName(), Float.toString(p.getPrice()), Integer.toString(p.getQuantity()));
             }
-        }
+        });
     }
 
     /**
@@ -143,20 +156,13 @@ public class Controller {
      * @param id int representing the current time stamp
      */
     public void generateProductReport(int id){
-        try{
-            Document document = new Document();
-            PdfWriter.getInstance(document, new FileOutputStream("Product Report Time" + id + ".pdf"));
-            document.open();
-            PdfPTable table = new PdfPTable(4);
-            table.addCell("ID");
-            table.addCell("NAME");
-            table.addCell("PRICE");
-            table.addCell("QUANTITY");
-            writeProducts(table);
-            document.add(table);
-            document.close();
+        long started = PRODUCT_REPORT_TIMER.start();
+        try(ReportWriter report = new ReportWriter("Product Report Time" + id + ".pdf", "ID", "NAME", "PRICE", "QUANTITY")){
+            writeProducts(report);
         }catch(Exception e){
             e.printStackTrace();
+        }finally{
+            PRODUCT_REPORT_TIMER.stop(started);
         }
     }
 
@@ -180,25 +186,23 @@ public class Controller {
 
     /**
      * method to write any type of notification about an order, i.e. whether it was successful or there were some errors
+     * the failed orders of the client are removed from the notifications, so they do not get a separate bill
      * @param doc Document in which the notification will be written
-     * @param notifs list of String[] representing all the failed orders
+     * @param notifs map from the lower-case name of each client to the String[] of its failed orders
      * @param name String representing the name of the client whose bill is generated
      */
-    private void writeNotifs(Document doc, List<String[]> notifs, String name){
+    private void writeNotifs(Document doc, Map<String, List<String[]>> notifs, String name){
         try{
-            List<Integer> indexes = new ArrayList<>();
-            boolean exists = false;
-            for(String[] n : notifs){
-                if(n[0].compareToIgnoreCase(name) == 0){
+            List<String[]> failed;
+            synchronized(notifs){
+                failed = notifs.remove(name.toLowerCase(Locale.ROOT));
+            }
+            if(failed != null){
+                for(String[] n : failed){
                     writeFailed(doc, n);
-                    indexes.add(notifs.indexOf(n));
-                    exists = true;
                 }
             }
-            for(Integer i : indexes){
-                notifs.remove(i);
-            }
-            if(exists == false){
+            else{
                 Paragraph np = new Paragraph("All orders have been processed successfully.");
                 doc.add(np);
             }
@@ -211,18 +215,21 @@ public class Controller {
      * method to write the bills for all the orders which were processed successfully
      * @param doc Document in which the bill will be printed
      * @param o an Order object representing the order whose information will be printed
+     * @param client the Client who placed the order
+     * @param items list of OrderItem objects contained in the order
+     * @param products map from the id of each product to the prefetched Product object
      */
-    private void writeBill(Document doc, Order o){
+    private void writeBill(Document doc, Order o, Client client, List<OrderItem> items, Map<Integer, Product> products){
         try{
             Font font = FontFactory.getFont(FontFactory.TIMES, 16, BaseColor.BLACK);
             Paragraph p = new Paragraph("Bill", font);
             doc.add(p);
             font.setSize(14);
-            Paragraph cp = new Paragraph(cBLL.findClientById(o.getIdClient()).getName(), font);
+            Paragraph cp = new Paragraph(client.getName(), font);
             doc.add(cp);
             font.setSize(11);
-            for(OrderItem oi : oiBLL.findAllOrdersByOrderId(o.getIdOrder())){
-                Product product = pBLL.findProductById(oi.getIdProduct());
+            for(OrderItem oi : items){
+                Product product = products.get(oi.getIdProduct());
                 Paragraph oip = new Paragraph(product.getName() + "         " + oi.getQuantity() + "        " + product.getPrice());
                 doc.add(oip);
             }
@@ -237,35 +244,114 @@ public class Controller {
         }
     }
 
+    /**
+     * method to write the PDF file containing the bill of one order, together with the notifications of its client
+     * @param o the Order whose bill is generated
+     * @param client the Client who placed the order
+     * @param items list of OrderItem objects contained in the order
+     * @param products map from the id of each product to the prefetched Product object
+     * @param notifs map from the lower-case name of each client to the String[] notifications of its failed orders
+     * @param id an int representing the current time stamp
+     */
+    private void generateOrderBill(Order o, Client client, List<OrderItem> items, Map<Integer, Product> products, Map<String, List<String[]>> notifs, int id){
+        long started = BILL_TIMER.start();
+        try(FileOutputStream out = new FileOutputStream("Client " + client.getName() + " Bill Time" + id + ".pdf")){
+            Document doc = new Document();
+            PdfWriter.getInstance(doc, out);
+            doc.open();
+            writeBill(doc, o, client, items, products);
+            writeNotifs(doc, notifs, client.getName());
+            doc.close();
+        }catch(Exception e){
+            e.printStackTrace();
+        }finally{
+            BILL_TIMER.stop(started);
+        }
+    }
+
     /**
      * method to generate the bills for all the clients / orders
-     * @param notifs list of String[] notifications containing information about the orders which could not be processed
+     * the clients, products and order items are read once, then the bills are written by BILL_PARALLELISM worker threads, one file per order
+     * the clients left in the notifications after that, i.e. without any processed order, get a bill listing only their failed orders
+     * @param notifs map from the lower-case name of each client to the String[] notifications of its failed orders, in input order
      * @param id an int representing the current time stamp
      */
-    public void generateBill(List<String[]> notifs, int id){
+    public void generateBill(Map<String, List<String[]>> notifs, int id){
+        long started = BILLS_TIMER.start();
         try {
-            if(oBLL.findAllOrders() != null){
-                for(Order o : oBLL.findAllOrders()){
-                    Document doc1 = new Document();
-                    PdfWriter.getInstance(doc1, new FileOutputStream("Client " + cBLL.findClientById(o.getIdClient()).getName() + " Bill Time" + id + ".pdf"));
-                    doc1.open();
-                    writeBill(doc1, o);
-                    writeNotifs(doc1, notifs, cBLL.findClientById(o.getIdClient()).getName());
-                    doc1.close();
+            long start = System.nanoTime();
+            int bills = 0;
+            List<Order> orders = oBLL.findAllOrders();
+            if(!orders.isEmpty()){
+                Map<Integer, Client> clients = new HashMap<>();
+                cBLL.forEachClient(c -> clients.put(c.getIdClient(), c));
+                Map<Integer, Product> products = new HashMap<>();
+                pBLL.forEachProduct(p -> products.put(p.getIdProduct(), p));
+                Map<Integer, List<OrderItem>> items = new HashMap<>();
+                oiBLL.forEachOrderItem(oi -> items.computeIfAbsent(oi.getIdOrder(), k -> new ArrayList<>()).add(oi));
+                ExecutorService workers = billWorkers();
+                try{
+                    List<Future<?>> results = new ArrayList<>(Math.min(orders.size(), BILL_QUEUE_SIZE));
+                    for(Order o : orders){
+                        Client client = clients.get(o.getIdClient());
+                        if(client == null){
+                            LOGGER.log(Level.WARNING, "Controller:generateBill no client with id " + o.getIdClient() + " for order " + o.getIdOrder());
+                            continue;
+                        }
+                        List<OrderItem> orderItems = items.getOrDefault(o.getIdOrder(), Collections.emptyList());
+                        results.add(workers.submit(() -> generateOrderBill(o, client, orderItems, products, notifs, id)));
+                        bills++;
+                        if(results.size() >= BILL_QUEUE_SIZE){
+                            await(results);
+                        }
+                    }
+                    await(results);
+                }finally{
+                    workers.shutdown();
                 }
             }
-            if(!notifs.isEmpty()){
-                for(String[] n : notifs){
-                    Document doc2 = new Document();
-                    PdfWriter.getInstance(doc2, new FileOutputStream("Client " + n[0] + " Bill Time" + id + ".pdf"));
-                    doc2.open();
+            for(List<String[]> failed : notifs.values()){
+                Document doc2 = new Document();
+                PdfWriter.getInstance(doc2, new FileOutputStream("Client " + failed.get(0)[0] + " Bill Time" + id + ".pdf"));
+                doc2.open();
+                for(String[] n : failed){
                     writeFailed(doc2, n);
-                    doc2.close();
                 }
+                doc2.close();
             }
+            long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+            LOGGER.log(Level.INFO, "Controller:generateBill " + bills + " bills in " + millis + " ms (" + (bills * 1000L / millis) + " bills/s, " + BILL_PARALLELISM + " workers)");
         }catch(Exception e){
             e.printStackTrace();
+        }finally{
+            BILLS_TIMER.stop(started);
+        }
+    }
+
+    /**
+     * method to create the worker threads writing the bills
+     * @return an ExecutorService with BILL_PARALLELISM daemon threads
+     */
+    private static ExecutorService billWorkers(){
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newFixedThreadPool(BILL_PARALLELISM, r -> {
+            Thread thread = new Thread(r, "bill-worker-" + count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * method to wait until the submitted bills are written
+     * @param results list of Future objects of the submitted bills; it is emptied
+     * @throws InterruptedException if the thread is interrupted while waiting
+     * @throws ExecutionException if writing a bill failed
+     */
+    private static void await(List<Future<?>> results) throws InterruptedException, ExecutionException {
+        for(Future<?> result : results){
+            result.get();
         }
+        results.clear();
     }
 
 }
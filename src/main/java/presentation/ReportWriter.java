@@ -0,0 +1,86 @@
+package presentation;
+
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.ExceptionConverter;
+import com.itextpdf.text.pdf.PdfPTable;
+import com.itextpdf.text.pdf.PdfWriter;
+
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+
+/**
+ * Class used to write a report table in a PDF file while its rows are still being read
+ * the table is marked as incomplete, so every FLUSH_ROWS rows the finished rows are written to the file and released from memory
+ */
+
+class ReportWriter implements AutoCloseable {
+
+    /**
+     * the number of rows kept in memory before they are written to the file; can be changed with -Dmanagement.report.flushRows
+     */
+    private static final int FLUSH_ROWS = Integer.getInteger("management.report.flushRows", 100);
+
+    /**
+     * the PDF document being written
+     */
+    private final Document document;
+    /**
+     * the table holding the rows which were not written yet
+     */
+    private final PdfPTable table;
+    /**
+     * the number of rows added since the last flush
+     */
+    private int rows = 0;
+
+    /**
+     * constructor creating the PDF file and writing the header of the table
+     * @param fileName String representing the name of the generated PDF
+     * @param headers the titles of the columns
+     * @throws FileNotFoundException if the file cannot be created
+     * @throws DocumentException if the PDF writer cannot be created
+     */
+    ReportWriter(String fileName, String... headers) throws FileNotFoundException, DocumentException {
+        document = new Document();
+        PdfWriter.getInstance(document, new FileOutputStream(fileName));
+        document.open();
+        table = new PdfPTable(headers.length);
+        table.setComplete(false);
+        row(headers);
+    }
+
+    /**
+     * method to add a row to the table, writing the pending rows to the file once there are FLUSH_ROWS of them
+     * @param cells the values of the row, one for each column
+     * @throws ExceptionConverter wrapping the DocumentException thrown if the rows cannot be written
+     */
+    void row(String... cells){
+        for(String cell : cells){
+            table.addCell(cell);
+        }
+        rows++;
+        if(rows >= FLUSH_ROWS){
+            try{
+                document.add(table);
+            }catch(DocumentException e){
+                throw new ExceptionConverter(e);
+            }
+            rows = 0;
+        }
+    }
+
+    /**
+     * method to write the remaining rows and close the document
+     * @throws DocumentException if the rows cannot be written
+     */
+    @Override
+    public void close() throws DocumentException {
+        try{
+            table.setComplete(true);
+            document.add(table);
+        }finally{
+            document.close();
+        }
+    }
+}
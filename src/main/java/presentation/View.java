@@ -2,12 +2,10 @@ package presentation;
 
 import utils.CommandText;
 
-import java.io.File;
-import java.io.FileNotFoundException;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Scanner;
-import utils.Command;
+import utils.CommandParser;
 
 /**
  * Presentation class used to efficiently read the commands from the input file
@@ -26,32 +24,29 @@ public class View {
      * @return a list of CommandText objects represnting the list of commands to be processed
      */
     public List<CommandText> readFile(String fileName) {
-        String[] line, aux;
-        try {
-            Scanner sc = new Scanner(new File(fileName));
-            while (sc.hasNext()) {
-                line = sc.nextLine().split(": ");
-                aux = line[0].toLowerCase().split(" ");
-                switch(aux[0]){
-                    case "insert":
-                        commands.add(new CommandText(Command.INSERT, aux[1], line[1]));
-                        break;
-                    case "order":
-                        commands.add(new CommandText(Command.ORDER, "order", line[1]));
-                        break;
-                    case "delete":
-                        commands.add(new CommandText(Command.DELETE, aux[1], line[1]));
-                        break;
-                    case "report":
-                        commands.add(new CommandText(Command.REPORT, aux[1]));
-                        break;
-                    default:
-                        System.out.println("No such command " + aux[0]);
-                }
-            }
-        } catch (FileNotFoundException e) {
-            e.printStackTrace();
+        Iterator<CommandText> stream = streamFile(fileName);
+        while (stream.hasNext()) {
+            commands.add(stream.next());
         }
         return commands;
     }
+
+    /**
+     * method used to interpret the commands given in the input file while they are being executed
+     * the file is read on a separate thread, which stays at most a bounded number of commands ahead of the caller
+     * @param fileName String representing the path of the input file
+     * @return an Iterator over the CommandText objects representing the commands to be processed
+     */
+    public Iterator<CommandText> streamFile(String fileName) {
+        return new CommandStream(fileName, this);
+    }
+
+    /**
+     * method used to interpret a single line of the input file
+     * @param input String representing the line to be interpreted
+     * @return the typed CommandText corresponding to the line or null, if the line is empty, unknown or malformed
+     */
+    CommandText parseLine(String input) {
+        return CommandParser.parse(input);
+    }
 }
@@ -0,0 +1,161 @@
+package start;
+
+import bll.ProductBLL;
+import journal.JournalReader;
+import journal.JournalRecord;
+import metrics.Metrics;
+import storage.StorageFactory;
+import utils.Command;
+import utils.CommandText;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Tool rebuilding the database from a command journal, by executing again all the commands it records, in order
+ * the reports are not generated again and the refused orders are recomputed, since the same commands fail in the same way
+ */
+
+public class JournalReplay {
+
+    /**
+     * used to log the number of replayed commands
+     */
+    private static final Logger LOGGER = Logger.getLogger(JournalReplay.class.getName());
+
+    /**
+     * main method of the tool
+     * resets the database if the "reset" or "reset=snapshot" option is specified, then executes the commands of the journal while it is being read;
+     * consecutive inserts are batched and, with the "parallel[=N]" option, consecutive orders are placed in parallel, as in Start
+     * the metrics are served and written as in Start, so the timers of a replay can be compared with those of the recorded run
+     * @param args String of command line arguments: the journal file, followed by the optional "reset[=snapshot]" and "parallel[=N]" options
+     */
+    public static void main(String[] args){
+        boolean reset = false;
+        String snapshot = null;
+        int parallelism = 1;
+        for(int i = 1; i < args.length; i++){
+            if(args[i].compareToIgnoreCase("reset") == 0){
+                reset = true;
+            }
+            else if(args[i].toLowerCase().startsWith("reset=")){
+                reset = true;
+                snapshot = args[i].substring("reset=".length());
+            }
+            else if(args[i].toLowerCase().startsWith("parallel")){
+                parallelism = parallelism(args[i]);
+            }
+        }
+        Metrics.start();
+        Logic logic = new Logic(parallelism);
+        if(reset && snapshot != null){
+            logic.resetDB(snapshot);
+        }
+        else if(reset){
+            logic.resetDB();
+        }
+        long start = System.nanoTime();
+        try(JournalReader reader = new JournalReader(Paths.get(args[0]))){
+            ReplayIterator commands = new ReplayIterator(reader);
+            logic.executeCommand(commands);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            LOGGER.log(Level.INFO, "Replayed " + commands.count + " commands in " + String.format("%.2f", seconds) + " s ("
+                    + String.format("%.0f", commands.count / Math.max(seconds, 1e-9)) + " commands/s)");
+        }catch(IOException | UncheckedIOException e){
+            LOGGER.log(Level.SEVERE, "JournalReplay: the journal " + args[0] + " cannot be read " + e.getMessage());
+        }finally{
+            if(ProductBLL.getLedger() != null){
+                ProductBLL.getLedger().shutdown();
+            }
+            Metrics.stop();
+            StorageFactory.getStorage().shutdown();
+        }
+    }
+
+    /**
+     * method used to read the number of threads of the "parallel[=N]" option
+     * @param option String representing the option
+     * @return the number of threads: N, the number of processors if N is not given, or 1 (sequential execution) if N is not a positive number
+     */
+    private static int parallelism(String option){
+        int index = option.indexOf('=');
+        if(index == -1){
+            return Runtime.getRuntime().availableProcessors();
+        }
+        try{
+            int parallelism = Integer.parseInt(option.substring(index + 1).trim());
+            if(parallelism > 0){
+                return parallelism;
+            }
+        }catch(NumberFormatException e){
+            // logged below
+        }
+        LOGGER.log(Level.WARNING, "JournalReplay:parallelism invalid option " + option + ", the orders are placed sequentially");
+        return 1;
+    }
+
+    /**
+     * Iterator over the commands recorded in a journal, without the reports
+     */
+    private static class ReplayIterator implements Iterator<CommandText> {
+
+        /**
+         * the reader of the journal
+         */
+        private final JournalReader reader;
+        /**
+         * the next command to be returned or null, if it was not read yet
+         */
+        private CommandText next = null;
+        /**
+         * true once the last valid record was read
+         */
+        private boolean finished = false;
+        /**
+         * the number of commands returned so far
+         */
+        private long count = 0;
+
+        /**
+         * constructor containing all the fields
+         * @param reader the JournalReader of the replayed journal
+         */
+        private ReplayIterator(JournalReader reader){
+            this.reader = reader;
+        }
+
+        @Override
+        public boolean hasNext(){
+            try{
+                while(next == null && !finished){
+                    JournalRecord record = reader.next();
+                    if(record == null){
+                        finished = true;
+                    }
+                    else if(record.getCommand().getCommand() != Command.REPORT){
+                        next = record.getCommand();
+                    }
+                }
+            }catch(IOException e){
+                throw new UncheckedIOException(e);
+            }
+            return next != null;
+        }
+
+        @Override
+        public CommandText next(){
+            if(!hasNext()){
+                throw new NoSuchElementException();
+            }
+            CommandText command = next;
+            next = null;
+            count++;
+            return command;
+        }
+    }
+}
@@ -1,18 +1,44 @@
 package start;
 
 import bll.ClientBLL;
+import bll.CommandLogBLL;
+import bll.DatabaseBLL;
 import bll.OrderBLL;
 import bll.OrderItemBLL;
+import bll.PositionSet;
 import bll.ProductBLL;
+import journal.CommandJournal;
+import journal.JournalReader;
+import journal.JournalRecord;
+import metrics.Metrics;
+import metrics.Timer;
 import model.Client;
-import model.Order;
-import model.OrderItem;
+import model.FailedOrder;
 import model.Product;
 import presentation.Controller;
+import storage.Checkpoint;
+import utils.Command;
+import utils.CommandParser;
 import utils.CommandText;
+import utils.DeleteClient;
+import utils.DeleteProduct;
+import utils.InsertClient;
+import utils.InsertProduct;
+import utils.PlaceOrder;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Class used to process the instructions read from the input file by calling the appropriate method from the BLL class and the respective query
@@ -43,92 +69,486 @@ public class Logic {
     private int currentTime = 0;
 
     /**
-     * list of orders which could not be processed
+     * orders which could not be processed, grouped by the lower-case name of the client, in input order
      */
-    private List<String[]> notifs = new ArrayList<>();
+    private Map<String, List<String[]>> notifs = new LinkedHashMap<>();
 
     /**
-     * method to reset the database, by emptying all its tables
+     * the maximum number of consecutive insert commands grouped in one batch; can be changed with -Dmanagement.batch.size
+     */
+    private static final int BATCH_SIZE = Integer.getInteger("management.batch.size", 500);
+    /**
+     * the table of the insert commands currently grouped in a batch or null, if there is no pending batch
+     */
+    private String batchTable = null;
+    /**
+     * the insert commands currently grouped in a batch
+     */
+    private List<CommandText> batch = new ArrayList<>();
+    /**
+     * the positions in the input of the insert commands grouped in the batch
+     */
+    private List<Integer> batchPositions = new ArrayList<>();
+
+    /**
+     * dispatcher placing the orders in parallel or null, if the orders are placed sequentially
+     */
+    private OrderDispatcher dispatcher = null;
+    /**
+     * the positions in the input of the orders submitted to the dispatcher and not drained yet, in input order
+     */
+    private List<Integer> orderPositions = new ArrayList<>();
+
+    /**
+     * journal of the executed commands or null, if the commands are not journaled
+     */
+    private CommandJournal journal = null;
+    /**
+     * the command log of the database, recording the position of every command applied while a journal is open; null if there is no journal
+     */
+    private CommandLogBLL commandLog = null;
+    /**
+     * the position in the input of the last command read, counting the typed commands from 1
+     */
+    private int position = 0;
+    /**
+     * the positions of the commands applied by an interrupted run, as recorded by the command log; these commands are skipped
+     */
+    private PositionSet resumed = new PositionSet();
+    /**
+     * the positions of the commands of the interrupted run which are already in the journal
+     */
+    private PositionSet journaled = new PositionSet();
+    /**
+     * the notifications of the orders refused by the interrupted run, by their position in the input
+     */
+    private Map<Integer, String[]> refusedOrders = new HashMap<>();
+    /**
+     * the number of commands after which the command log is compacted; can be changed with -Dmanagement.journal.compactInterval
+     */
+    private static final int COMPACT_INTERVAL = Integer.getInteger("management.journal.compactInterval", 10000);
+    /**
+     * the number of commands executed since the command log was last compacted
+     */
+    private int sinceCompact = 0;
+
+    /**
+     * the timers of the commands, by command type and table, named like "command.insert.client" in the Metrics registry
+     */
+    private final Map<Command, Map<String, Timer>> commandTimers = new EnumMap<>(Command.class);
+    /**
+     * the time taken to execute a batch of insert commands
+     */
+    private final Timer batchTimer = Metrics.timer("command.batch");
+    /**
+     * the time spent waiting for the orders placed in parallel
+     */
+    private final Timer drainTimer = Metrics.timer("command.drain");
+
+    /**
+     * used to log the commands which could not be executed
+     */
+    private static final Logger LOGGER = Logger.getLogger(Logic.class.getName());
+
+    /**
+     * basic constructor; the orders are placed sequentially
+     */
+    public Logic(){
+    }
+
+    /**
+     * constructor choosing how many orders can be placed at the same time
+     * @param parallelism int representing the number of worker threads placing orders; 1 places them sequentially on the calling thread
+     */
+    public Logic(int parallelism){
+        if(parallelism > 1){
+            dispatcher = new OrderDispatcher(parallelism);
+        }
+    }
+
+    /**
+     * method to reset the database, by emptying all its tables with one bulk delete per table, in a single transaction
      */
     public void resetDB(){
-        if(oBLL.findAllOrders() != null){
-            for(Order o : oBLL.findAllOrders()){
-                oBLL.deleteOrder(o);
+        new DatabaseBLL().deleteAll();
+    }
+
+    /**
+     * method to reset the database by restoring a snapshot, e.g. SQLdumps/Dump_empty.sql, which recreates all its tables
+     * @param snapshot String representing the path of the SQL script to be executed
+     */
+    public void resetDB(String snapshot){
+        new DatabaseBLL().restore(snapshot);
+    }
+
+    /**
+     * method to journal the executed commands in a file, resuming the run recorded in it, if there is one
+     * every command executed while the journal is open records its position in the command log of the database, in the transaction of its changes;
+     * if the journal records a started run, the commands whose positions are in the command log are not executed again, the orders it refused
+     * are added back to the notifications and the report numbering continues after its reports
+     * the records of the journal which the database does not have are removed, and the applied commands missing from the journal are appended to it
+     * @param file Path of the journal; it is created if it does not exist
+     * @return a long representing the number of commands which will be skipped; 0 if the journal was empty
+     * @throws IOException if the journal cannot be read or opened, or if the command log cannot be emptied for a new run
+     */
+    public long openJournal(Path file) throws IOException {
+        commandLog = new CommandLogBLL();
+        resumed = commandLog.findApplied();
+        long end = 0;
+        boolean started = false;
+        if(Files.exists(file)){
+            try(JournalReader reader = new JournalReader(file)){
+                started = reader.hasHeader();
+                end = reader.getPosition();
+                JournalRecord record;
+                while((record = reader.next()) != null){
+                    if(!resumed.contains(record.getPosition())){
+                        LOGGER.log(Level.WARNING, "Logic:openJournal the command at position " + record.getPosition() + " of " + file
+                                + " is not recorded in the database, the journal is truncated before it");
+                        break;
+                    }
+                    journaled.add(record.getPosition());
+                    end = reader.getPosition();
+                }
             }
         }
-        if(cBLL.findAllClients() != null){
-            for(Client c : cBLL.findAllClients()){
-                cBLL.deleteClient(c);
+        if(started){
+            for(FailedOrder order : commandLog.findFailedOrders()){
+                refusedOrders.put(order.getPosition(), order.toNotification());
             }
+            commandLog.compact();
         }
-        if(pBLL.findAllProducts() != null){
-            for(Product p : pBLL.findAllProducts()){
-                pBLL.deleteProduct(p);
+        else{
+            if(!commandLog.deleteAll()){
+                throw new IOException("the command log of the database cannot be emptied");
             }
+            resumed = new PositionSet();
+        }
+        journal = CommandJournal.open(file, end);
+        return resumed.size();
+    }
+
+    /**
+     * method to commit the pending journal records and close the journal, if the commands are journaled
+     */
+    public void closeJournal(){
+        if(journal != null){
+            journal.close();
+            journal = null;
         }
     }
 
     /**
      * method to choose the corresponding command based on the Command field in CommandText
+     * consecutive insert commands on the same table are grouped and executed as one batch
+     * in parallel mode, consecutive orders are placed at the same time; any other command waits until they are all placed
+     * if a journal is open, every command records its position in the command log of the database in the transaction of its changes, and is journaled
+     * once that transaction is committed; a command which could not be stored is neither recorded nor journaled, so it is executed again on resume
+     * each command is timed by the timer of its type and table; the batched inserts and the parallel orders are timed when they are queued,
+     * their execution is timed by the "command.batch" and "command.drain" timers
      * @param commands a list of CommandText objects, representing the commands to be executed
      */
     public void executeCommand(List<CommandText> commands){
-        for(CommandText c : commands){
-            switch(c.getCommand()){
-                case INSERT:
-                    prepareInsert(c.getTable(), c.getText());
-                    break;
-                case ORDER:
-                    prepareInsert("order", c.getText());
-                    break;
-                case DELETE:
-                    prepareDelete(c.getTable(), c.getText());
-                    break;
-                case REPORT:
-                    prepareReport(c.getTable());
-                    break;
+        executeCommand(commands.iterator());
+    }
+
+    /**
+     * method to execute the commands in the order given by an iterator, e.g. while they are still being read from the input file
+     * behaves like executeCommand(List), without requiring all the commands to be in memory
+     * if the iterator fails, the commands executed before the failure are still written and journaled before the exception is rethrown
+     * @param commands an Iterator of CommandText objects, representing the commands to be executed
+     */
+    public void executeCommand(Iterator<CommandText> commands){
+        try{
+            while(commands.hasNext()){
+                CommandText c = typed(commands.next());
+                if(c == null){
+                    continue;
+                }
+                position++;
+                if(resumed.contains(position)){
+                    skip(position, c);
+                    continue;
+                }
+                if(c.getCommand() != Command.INSERT || !c.getTable().equals(batchTable)){
+                    flushBatch();
+                }
+                if(c.getCommand() != Command.ORDER){
+                    drainOrders();
+                }
+                Timer timer = commandTimer(c);
+                long started = timer.start();
+                switch(c.getCommand()){
+                    case INSERT:
+                        if(c instanceof PlaceOrder){
+                            prepareOrder(position, (PlaceOrder) c);
+                        }
+                        else{
+                            batchInsert(position, c);
+                        }
+                        break;
+                    case ORDER:
+                        prepareOrder(position, (PlaceOrder) c);
+                        break;
+                    case DELETE:
+                        prepareDelete(position, c);
+                        break;
+                    case REPORT:
+                        prepareReport(c.getTable());
+                        if(journal != null && commandLog.write(commandLog.applied(position))){
+                            journal.append(position, c);
+                        }
+                        break;
+                }
+                if(journal != null){
+                    journal.commitIfDue();
+                    if(++sinceCompact >= COMPACT_INTERVAL){
+                        commandLog.compact();
+                        sinceCompact = 0;
+                    }
+                }
+                timer.stop(started);
+            }
+        }finally{
+            flushBatch();
+            drainOrders();
+            if(journal != null){
+                journal.commit();
+            }
+        }
+    }
+
+    /**
+     * method to skip a command applied by the interrupted run: its refused order is added back to the notifications, a report advances
+     * the report numbering and the command is appended to the journal if it is not there yet, after the commands executed before it
+     * @param position int representing the position of the command in the input
+     * @param c the typed CommandText which is skipped
+     */
+    private void skip(int position, CommandText c){
+        String[] notif = refusedOrders.remove(position);
+        if(notif != null){
+            addNotif(notif);
+        }
+        if(c.getCommand() == Command.REPORT){
+            currentTime++;
+        }
+        if(!journaled.contains(position)){
+            flushBatch();
+            drainOrders();
+            journal.append(position, c);
+        }
+    }
+
+    /**
+     * method to create the checkpoint recording that the commands at some positions were applied, if the commands are journaled
+     * @param positions the positions of the commands in the input
+     * @return the Checkpoint of the command log, or Checkpoint.NONE if there is no journal
+     */
+    private Checkpoint applied(List<Integer> positions){
+        if(journal == null){
+            return Checkpoint.NONE;
+        }
+        PositionSet set = new PositionSet();
+        for(int p : positions){
+            set.add(p);
+        }
+        return commandLog.applied(set);
+    }
+
+    /**
+     * method to create the checkpoint recording that the command at a position was applied, if the commands are journaled
+     * @param position int representing the position of the command in the input
+     * @return the Checkpoint of the command log, or Checkpoint.NONE if there is no journal
+     */
+    private Checkpoint applied(int position){
+        return journal != null ? commandLog.applied(position) : Checkpoint.NONE;
+    }
+
+    /**
+     * method to create the checkpoint recording that an order was refused because of insufficient stock, if the commands are journaled
+     * @param position int representing the position of the order in the input
+     * @param order the refused PlaceOrder command
+     * @return the Checkpoint of the command log, or Checkpoint.NONE if there is no journal
+     */
+    private Checkpoint refused(int position, PlaceOrder order){
+        return journal != null ? commandLog.refused(position, order.getClient(), order.getProduct(), order.getQuantity()) : Checkpoint.NONE;
+    }
+
+    /**
+     * method to journal an applied command, if the commands are journaled
+     * @param position int representing the position of the command in the input
+     * @param c the typed CommandText which was applied
+     */
+    private void journal(int position, CommandText c){
+        if(journal != null){
+            journal.append(position, c);
+        }
+    }
+
+    /**
+     * method to turn a CommandText built from raw text (command, table and data) into the corresponding typed command
+     * @param c the CommandText to be converted
+     * @return the typed command, c itself if it is already typed or null, if its data is malformed
+     */
+    private CommandText typed(CommandText c){
+        if(c.getClass() != CommandText.class || c.getText() == null){
+            return c;
+        }
+        return CommandParser.parse(c.getCommand() + " " + c.getTable() + ": " + c.getText());
+    }
+
+    /**
+     * method to retrieve the timer of the type and table of a command, looking it up in the Metrics registry the first time
+     * @param c the CommandText to be timed
+     * @return the Timer of the commands with the same type and table
+     */
+    private Timer commandTimer(CommandText c){
+        Map<String, Timer> byTable = commandTimers.computeIfAbsent(c.getCommand(), k -> new HashMap<>());
+        Timer timer = byTable.get(c.getTable());
+        if(timer == null){
+            timer = Metrics.timer("command." + c.getCommand().name().toLowerCase(Locale.ROOT) + "." + c.getTable());
+            byTable.put(c.getTable(), timer);
+        }
+        return timer;
+    }
+
+    /**
+     * method to wait until the orders submitted in parallel mode are placed, to add the failed ones to the notification list
+     * and to journal the ones which were applied, in input order
+     */
+    private void drainOrders(){
+        if(dispatcher != null){
+            long started = drainTimer.start();
+            List<Integer> positions = orderPositions;
+            orderPositions = new ArrayList<>();
+            int i = 0;
+            for(OrderDispatcher.Outcome outcome : dispatcher.drain()){
+                int position = positions.get(i++);
+                if(orderDone(outcome.getOrder(), outcome.getResult())){
+                    journal(position, outcome.getOrder());
+                }
             }
+            drainTimer.stop(started);
         }
+    }
 
+    /**
+     * method to add an order which could not be processed to the notifications of its client
+     * @param notif String[] containing the client, the product and the quantity of the order
+     */
+    private void addNotif(String[] notif){
+        notifs.computeIfAbsent(notif[0].toLowerCase(Locale.ROOT), k -> new ArrayList<>()).add(notif);
     }
 
     /**
-     * method to choose the corresponding table on which the insert command will pe executed and to pass the data to be manipulated
-     * if an order cannot be processed, the notification is added to the notification list
-     * @param table String representing the table on which the operation will be performed
-     * @param obj String representing the data which will be manipulated
+     * method to add an insert command to the current batch; the batch is executed once it reaches BATCH_SIZE commands
+     * @param position int representing the position of the command in the input
+     * @param c the InsertClient / InsertProduct command to be added
      */
-    private void prepareInsert(String table, String obj){
-        String[] aux = obj.split(", ");
-        switch(table){
+    private void batchInsert(int position, CommandText c){
+        batchTable = c.getTable();
+        batch.add(c);
+        batchPositions.add(position);
+        if(batch.size() >= BATCH_SIZE){
+            flushBatch();
+        }
+    }
+
+    /**
+     * method to execute the insert commands grouped in the current batch, by calling the batch insert of the corresponding table
+     * the batch and its positions are written in one transaction; its commands are journaled once it is committed
+     */
+    private void flushBatch(){
+        if(batch.isEmpty()){
+            batchTable = null;
+            return;
+        }
+        long started = batchTimer.start();
+        boolean written = false;
+        switch(batchTable){
             case "client":
-                cBLL.insertClient(aux[0], aux[1]);
+                List<Client> clients = new ArrayList<>(batch.size());
+                for(CommandText c : batch){
+                    InsertClient insert = (InsertClient) c;
+                    clients.add(new Client(insert.getName(), insert.getAddress(), 0));
+                }
+                written = cBLL.insertClients(clients, applied(batchPositions));
                 break;
             case "product":
-                pBLL.insertProduct(aux[0], Integer.parseInt(aux[1]), Float.parseFloat(aux[2]));
-                break;
-            case "order":
-                if(oBLL.insertOrder(aux[0], aux[1], Integer.parseInt(aux[2])) == -1) {
-                    notifs.add(aux);
+                List<Product> products = new ArrayList<>(batch.size());
+                for(CommandText c : batch){
+                    InsertProduct insert = (InsertProduct) c;
+                    products.add(new Product(insert.getName(), insert.getPrice(), insert.getQuantity(), 0));
                 }
+                written = pBLL.insertProducts(products, applied(batchPositions));
                 break;
         }
+        if(written){
+            for(int i = 0; i < batch.size(); i++){
+                journal(batchPositions.get(i), batch.get(i));
+            }
+        }
+        else{
+            LOGGER.log(Level.WARNING, "Logic:flushBatch the batch of " + batch.size() + " " + batchTable + " inserts could not be stored");
+        }
+        batch = new ArrayList<>();
+        batchPositions = new ArrayList<>();
+        batchTable = null;
+        batchTimer.stop(started);
+    }
+
+    /**
+     * method to place an order, directly or through the dispatcher in parallel mode
+     * if an order cannot be processed, the notification is added to the notification list; a placed or refused order is journaled
+     * @param position int representing the position of the order in the input
+     * @param order the PlaceOrder command to be executed
+     */
+    private void prepareOrder(int position, PlaceOrder order){
+        if(dispatcher != null){
+            dispatcher.submit(order, applied(position), refused(position, order));
+            orderPositions.add(position);
+            return;
+        }
+        if(orderDone(order, oBLL.insertOrder(order.getClient(), order.getProduct(), order.getQuantity(), applied(position), refused(position, order)))){
+            journal(position, order);
+        }
+    }
+
+    /**
+     * method to handle the value returned by OrderBLL.insertOrder() for an order
+     * an order refused because of insufficient stock is added to the notification list; an order which could not be stored is logged
+     * @param order the PlaceOrder command which was executed
+     * @param result int representing the value returned by OrderBLL.insertOrder()
+     * @return true if the order was applied (placed or refused), false if it could not be stored and must not be journaled
+     */
+    private boolean orderDone(PlaceOrder order, int result){
+        if(result == -2){
+            LOGGER.log(Level.WARNING, "Logic:placeOrder the order of " + order.getQuantity() + " " + order.getProduct() + " for "
+                    + order.getClient() + " could not be stored");
+            return false;
+        }
+        if(result == -1){
+            addNotif(order.toNotification());
+        }
+        return true;
     }
 
     /**
      * method to choose the corresponding table on which the delete command will pe executed and to pass the data to be manipulated
-     * @param table String representing the table on which the operation will be performed
-     * @param obj String representing the data which will be manipulated
+     * the command is journaled once its transaction is committed
+     * @param position int representing the position of the command in the input
+     * @param c the DeleteClient / DeleteProduct command to be executed
      */
-    private void prepareDelete(String table, String obj){
-        String[] aux = obj.split(", ");
-        switch(table){
-            case "client":
-                cBLL.deleteClientByFlag(aux[0]);
-                break;
-            case "product":
-                pBLL.deleteProductByFlag(aux[0]);
-                break;
+    private void prepareDelete(int position, CommandText c){
+        boolean deleted = false;
+        if(c instanceof DeleteClient){
+            deleted = cBLL.deleteClientByFlag(((DeleteClient) c).getName(), applied(position));
+        }
+        else if(c instanceof DeleteProduct){
+            deleted = pBLL.deleteProductByFlag(((DeleteProduct) c).getName(), applied(position));
+        }
+        if(deleted){
+            journal(position, c);
         }
     }
 
@@ -156,8 +576,12 @@ public class Logic {
 
     /**
      * method to generate the bills for all the orders at the end of the execution
+     * the worker threads placing orders in parallel are stopped first, since no more orders follow
      */
     public void generateBill(){
+        if(dispatcher != null){
+            dispatcher.shutdown();
+        }
         Controller controller = new Controller();
         controller.generateBill(notifs, currentTime);
         currentTime++;
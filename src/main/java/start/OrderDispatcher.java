@@ -0,0 +1,182 @@
+package start;
+
+import bll.OrderBLL;
+import storage.Checkpoint;
+import utils.PlaceOrder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Class used to place orders in parallel
+ * every product is assigned to one worker thread (lane), so the orders for the same product are placed one after another, in input order,
+ * while the orders for different products are placed at the same time
+ */
+
+public class OrderDispatcher {
+
+    /**
+     * the single-threaded executors, one per lane
+     */
+    private final ExecutorService[] lanes;
+    /**
+     * the OrderBLL instance used by each lane
+     */
+    private final OrderBLL[] orderBLLs;
+    /**
+     * the orders submitted since the last call of drain(), in input order
+     */
+    private List<PendingOrder> pending = new ArrayList<>();
+
+    /**
+     * constructor creating the given number of lanes
+     * @param parallelism int representing the number of orders which can be placed at the same time
+     */
+    public OrderDispatcher(int parallelism){
+        this(parallelism, OrderBLL::new);
+    }
+
+    /**
+     * constructor creating the given number of lanes, each placing the orders with an OrderBLL instance of its own
+     * @param parallelism int representing the number of orders which can be placed at the same time
+     * @param orderBLL the Supplier of the OrderBLL instance used by each lane
+     */
+    OrderDispatcher(int parallelism, Supplier<OrderBLL> orderBLL){
+        lanes = new ExecutorService[parallelism];
+        orderBLLs = new OrderBLL[parallelism];
+        for(int i = 0; i < parallelism; i++){
+            final int lane = i;
+            lanes[i] = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "order-lane-" + lane);
+                thread.setDaemon(true);
+                return thread;
+            });
+            orderBLLs[i] = orderBLL.get();
+        }
+    }
+
+    /**
+     * method used to submit an order to the lane of its product
+     * @param order the PlaceOrder command to be executed
+     */
+    public void submit(PlaceOrder order){
+        submit(order, Checkpoint.NONE, Checkpoint.NONE);
+    }
+
+    /**
+     * method used to submit an order to the lane of its product, together with the checkpoints written in its transaction
+     * @param order the PlaceOrder command to be executed
+     * @param placed the Checkpoint written if the order is placed
+     * @param refused the Checkpoint written if the order is refused because of insufficient stock
+     */
+    public void submit(PlaceOrder order, Checkpoint placed, Checkpoint refused){
+        int lane = Math.floorMod(order.getProduct().toLowerCase(Locale.ROOT).hashCode(), lanes.length);
+        OrderBLL oBLL = orderBLLs[lane];
+        Future<Integer> result = lanes[lane].submit(() -> oBLL.insertOrder(order.getClient(), order.getProduct(), order.getQuantity(), placed, refused));
+        pending.add(new PendingOrder(order, result));
+    }
+
+    /**
+     * method used to wait until all the submitted orders are placed
+     * exceptions thrown while placing an order are rethrown, as in sequential execution
+     * @return the Outcome of each submitted order, in input order
+     */
+    public List<Outcome> drain(){
+        List<Outcome> outcomes = new ArrayList<>(pending.size());
+        List<PendingOrder> orders = pending;
+        pending = new ArrayList<>();
+        for(PendingOrder order : orders){
+            try{
+                outcomes.add(new Outcome(order.order, order.result.get()));
+            }catch(InterruptedException e){
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the orders to be placed", e);
+            }catch(ExecutionException e){
+                if(e.getCause() instanceof RuntimeException){
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        return outcomes;
+    }
+
+    /**
+     * method used to stop the worker threads, after the submitted orders are placed
+     */
+    public void shutdown(){
+        for(ExecutorService lane : lanes){
+            lane.shutdown();
+        }
+    }
+
+    /**
+     * A placed order, together with the value returned by OrderBLL.insertOrder()
+     */
+    public static class Outcome {
+
+        /**
+         * the submitted order
+         */
+        private final PlaceOrder order;
+        /**
+         * the value returned by OrderBLL.insertOrder()
+         */
+        private final int result;
+
+        /**
+         * constructor containing all the fields
+         * @param order the submitted order
+         * @param result int representing the value returned by OrderBLL.insertOrder()
+         */
+        private Outcome(PlaceOrder order, int result){
+            this.order = order;
+            this.result = result;
+        }
+
+        /**
+         * @return the submitted order
+         */
+        public PlaceOrder getOrder(){
+            return order;
+        }
+
+        /**
+         * @return 0 if the order was placed, -1 if there were not enough products in stock, -2 if the order could not be stored
+         */
+        public int getResult(){
+            return result;
+        }
+    }
+
+    /**
+     * An order submitted to a lane, together with its future result
+     */
+    private static class PendingOrder {
+
+        /**
+         * the submitted order
+         */
+        private final PlaceOrder order;
+        /**
+         * the value returned by OrderBLL.insertOrder(), once the order is placed
+         */
+        private final Future<Integer> result;
+
+        /**
+         * constructor containing all the fields
+         * @param order the submitted order
+         * @param result the future value returned by OrderBLL.insertOrder()
+         */
+        private PendingOrder(PlaceOrder order, Future<Integer> result){
+            this.order = order;
+            this.result = result;
+        }
+    }
+}
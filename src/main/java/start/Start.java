@@ -1,10 +1,18 @@
 package start;
 
+import bll.ClientBLL;
+import bll.ProductBLL;
+import metrics.Metrics;
 import presentation.Controller;
 import presentation.View;
+import storage.StorageFactory;
 import utils.CommandText;
 
-import java.util.List;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Main class, containing only the main() method
@@ -17,24 +25,102 @@ public class Start {
      */
     private static View view = new View();
     /**
-     * an instance of the Logic class, for processing the inputs
+     * an instance of the Logic class, for processing the inputs; created once the command line arguments are known
      */
-    private static Logic logic = new Logic();
+    private static Logic logic;
+    /**
+     * the journal file used by the "journal" option when no path is given
+     */
+    private static final String DEFAULT_JOURNAL = "commands.journal";
+    /**
+     * used to log the statistics of the caches at the end of the execution
+     */
+    private static final Logger LOGGER = Logger.getLogger(Start.class.getName());
 
     /**
      * main method, executed when running the program
-     * resets the database by emptying all the tables if the "reset" command is specified, retrieves the data from the input file and calls a method from the Logic class to process the data and execute the commands
-     * @param args String of command line arguments
+     * resets the database by emptying all the tables if the "reset" command is specified, or by running a snapshot script if "reset=path" is specified, streams the data from the input file and calls a method from the Logic class to process the data and execute the commands while the file is being read
+     * the orders are placed in parallel if the "parallel" (one thread per processor) or "parallel=N" (N threads) option is specified
+     * the executed commands are journaled if the "journal" (in commands.journal) or "journal=path" option is specified; if the journal already
+     * records an interrupted run, that run is resumed: the database is not reset and the commands recorded in its command log are skipped
+     * the stock taken by the orders admitted by the stock ledger (-Dmanagement.stock.ledger=true) is written to the table before the statistics are logged
+     * the hit / miss / eviction counters of the client and product caches are logged and the idle pooled connections are closed at the end
+     * the metrics are served during the run if -Dmanagement.metrics.port is set and written to -Dmanagement.metrics.file at the end, if it is set
+     * @param args String of command line arguments: the input file, followed by the optional "reset[=snapshot]", "parallel[=N]" and "journal[=path]" options
      */
     public static void main(String[] args){
 
-        if(args.length == 2){
-            if(args[1].compareToIgnoreCase("reset") == 0){
-                logic.resetDB();
+        boolean reset = false;
+        String snapshot = null;
+        int parallelism = 1;
+        String journal = null;
+        for(int i = 1; i < args.length; i++){
+            if(args[i].compareToIgnoreCase("reset") == 0){
+                reset = true;
+            }
+            else if(args[i].toLowerCase().startsWith("reset=")){
+                reset = true;
+                snapshot = args[i].substring("reset=".length());
             }
+            else if(args[i].toLowerCase().startsWith("parallel")){
+                parallelism = parallelism(args[i]);
+            }
+            else if(args[i].toLowerCase().startsWith("journal")){
+                journal = args[i].contains("=") ? args[i].substring(args[i].indexOf('=') + 1) : DEFAULT_JOURNAL;
+            }
+        }
+        Metrics.start();
+        logic = new Logic(parallelism);
+        if(journal != null){
+            try{
+                long skipped = logic.openJournal(Paths.get(journal));
+                if(skipped > 0){
+                    LOGGER.log(Level.INFO, "Resuming from " + journal + ": skipping " + skipped + " executed commands");
+                    reset = false;
+                }
+            }catch(IOException e){
+                LOGGER.log(Level.SEVERE, "Start: the journal " + journal + " cannot be opened " + e.getMessage());
+                return;
+            }
+        }
+        if(reset && snapshot != null){
+            logic.resetDB(snapshot);
         }
-        List<CommandText> commands = view.readFile(args[0]);
+        else if(reset){
+            logic.resetDB();
+        }
+        Iterator<CommandText> commands = view.streamFile(args[0]);
         logic.executeCommand(commands);
+        logic.closeJournal();
         logic.generateBill();
+        if(ProductBLL.getLedger() != null){
+            ProductBLL.getLedger().shutdown();
+            LOGGER.log(Level.INFO, "Stock ledger: " + ProductBLL.getLedger());
+        }
+        LOGGER.log(Level.INFO, "Client cache: " + ClientBLL.getCache() + ", product cache: " + ProductBLL.getCache());
+        Metrics.stop();
+        StorageFactory.getStorage().shutdown();
+    }
+
+    /**
+     * method used to read the number of threads of the "parallel[=N]" option
+     * @param option String representing the option
+     * @return the number of threads: N, the number of processors if N is not given, or 1 (sequential execution) if N is not a positive number
+     */
+    private static int parallelism(String option){
+        int index = option.indexOf('=');
+        if(index == -1){
+            return Runtime.getRuntime().availableProcessors();
+        }
+        try{
+            int parallelism = Integer.parseInt(option.substring(index + 1).trim());
+            if(parallelism > 0){
+                return parallelism;
+            }
+        }catch(NumberFormatException e){
+            // logged below
+        }
+        LOGGER.log(Level.WARNING, "Start:parallelism invalid option " + option + ", the orders are placed sequentially");
+        return 1;
     }
 }
@@ -0,0 +1,24 @@
+package storage;
+
+import java.sql.SQLException;
+
+/**
+ * Write added by the caller of a BLL operation to the transaction of that operation, e.g. the position of the command being executed
+ * the operation and its checkpoint are committed together, so the checkpoint is in the database exactly when the operation is
+ */
+
+public interface Checkpoint {
+
+    /**
+     * checkpoint writing nothing, used when the operation is not recorded
+     */
+    Checkpoint NONE = transaction -> {
+    };
+
+    /**
+     * method used to write the checkpoint
+     * @param transaction the Transaction of the operation, which is committed afterwards
+     * @throws SQLException if the checkpoint cannot be written; the operation is then rolled back
+     */
+    void write(Transaction transaction) throws SQLException;
+}
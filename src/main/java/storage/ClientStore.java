@@ -0,0 +1,50 @@
+package storage;
+
+import model.Client;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Operations available on the Client table of a Storage
+ */
+
+public interface ClientStore extends EntityStore<Client> {
+
+    /**
+     * method to retrieve a client with a specified id
+     * @param id int representing the id of the client
+     * @return a Client object or null, in case it wasn't found
+     */
+    Client findById(int id);
+
+    /**
+     * method to retrieve a client with a specified name; the comparison is case-insensitive
+     * @param name String representing the name of the client
+     * @return a Client object or null, in case it wasn't found
+     */
+    Client findByName(String name);
+
+    /**
+     * method to retrieve the clients with given ids, in one lookup
+     * @param ids the ids of the clients
+     * @return a list of Client objects; the ids which were not found have no client in it
+     */
+    List<Client> findAllByIds(List<Integer> ids);
+
+    /**
+     * method to retrieve the clients with given names, in one lookup; the comparison is case-insensitive
+     * @param names the names of the clients
+     * @return a list of Client objects; the names which were not found have no client in it
+     */
+    List<Client> findAllByNames(List<String> names);
+
+    /**
+     * method to apparently delete a client, by setting its "deleted" flag, as part of a transaction
+     * @param transaction the Transaction in which the client is updated
+     * @param id int representing the id of the client
+     * @return an int representing the number of flagged rows
+     * @throws SQLException if the client cannot be updated
+     */
+    int markDeleted(Transaction transaction, int id) throws SQLException;
+}
@@ -0,0 +1,113 @@
+package storage;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Operations available on every table of a Storage
+ * @param <T> the model class of the rows of the table
+ */
+
+public interface EntityStore<T> {
+
+    /**
+     * method to retrieve all the rows of the table
+     * @return a list of objects T, in id order; empty if the table is empty
+     */
+    List<T> findAll();
+
+    /**
+     * method to stream all the rows of the table; the stream should be closed if it is abandoned early
+     * @return a sequential Stream of objects T, in id order
+     */
+    Stream<T> stream();
+
+    /**
+     * method to pass all the rows of the table to an action, one at a time
+     * @param action Consumer called for each object T, in id order
+     */
+    void forEach(Consumer<T> action);
+
+    /**
+     * method to retrieve the rows with an id greater than a given one, in id order (keyset pagination)
+     * @param afterId int representing the id after which the page starts; 0 for the first page
+     * @param limit int representing the maximum number of rows in the page
+     * @return a list of at most limit objects T
+     * @throws UnsupportedOperationException if the table has a composite key
+     */
+    List<T> findPage(int afterId, int limit);
+
+    /**
+     * method to insert a row; if its id is 0, the id is generated and set on the object
+     * @param t the object to be inserted
+     * @return an int representing the id of the inserted row or -1, in case the insert failed
+     */
+    int insert(T t);
+
+    /**
+     * method to insert a row as part of a transaction; if its id is 0, the id is generated and set on the object
+     * @param transaction the Transaction in which the row is inserted
+     * @param t the object to be inserted
+     * @return an int representing the id of the inserted row
+     * @throws SQLException if the row cannot be inserted
+     */
+    int insert(Transaction transaction, T t) throws SQLException;
+
+    /**
+     * method to insert several rows, with the same effect as calling insert() for each of them
+     * @param list the objects to be inserted
+     */
+    void insertAll(List<T> list);
+
+    /**
+     * method to insert several rows as part of a transaction, with the same effect as calling insert() for each of them
+     * @param transaction the Transaction in which the rows are inserted
+     * @param list the objects to be inserted
+     * @throws SQLException if the rows cannot be inserted
+     */
+    void insertAll(Transaction transaction, List<T> list) throws SQLException;
+
+    /**
+     * method to update the row with the key of the given object
+     * @param t the object containing the new values
+     */
+    void update(T t);
+
+    /**
+     * method to update several rows, with the same effect as calling update() for each of them
+     * @param list the objects containing the new values
+     */
+    void updateAll(List<T> list);
+
+    /**
+     * method to update several rows as part of a transaction, with the same effect as calling update() for each of them
+     * @param transaction the Transaction in which the rows are updated
+     * @param list the objects containing the new values
+     * @throws SQLException if the rows cannot be updated
+     */
+    void updateAll(Transaction transaction, List<T> list) throws SQLException;
+
+    /**
+     * method to delete the row with the key of the given object
+     * @param t the object to be deleted
+     */
+    void delete(T t);
+
+    /**
+     * method to delete the rows with the keys of the given objects, as part of a transaction
+     * @param transaction the Transaction in which the rows are deleted
+     * @param list the objects to be deleted
+     * @throws SQLException if the rows cannot be deleted
+     */
+    void deleteAll(Transaction transaction, List<T> list) throws SQLException;
+
+    /**
+     * method to delete all the rows of the table, as part of a transaction
+     * @param transaction the Transaction in which the rows are deleted
+     * @return an int representing the number of deleted rows
+     * @throws SQLException if the rows cannot be deleted
+     */
+    int deleteAll(Transaction transaction) throws SQLException;
+}
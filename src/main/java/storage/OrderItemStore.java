@@ -0,0 +1,62 @@
+package storage;
+
+import model.OrderItem;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Operations available on the OrderItem table of a Storage, whose key is (idOrder, idProduct)
+ */
+
+public interface OrderItemStore extends EntityStore<OrderItem> {
+
+    /**
+     * method to retrieve the items of an order
+     * @param idOrder int representing the id of the order
+     * @return a list of OrderItem objects; empty if the order has no items
+     */
+    List<OrderItem> findAllByIdOrder(int idOrder);
+
+    /**
+     * method to retrieve the items containing a product
+     * @param idProduct int representing the id of the product
+     * @return a list of OrderItem objects; empty if the product was not ordered
+     */
+    List<OrderItem> findAllByIdProduct(int idProduct);
+
+    /**
+     * method to pass every item of a client and a product which are not deleted to a handler, together with their names
+     * @param handler the OrderReportHandler receiving the rows
+     */
+    void forEachReportRow(OrderReportHandler handler);
+
+    /**
+     * method to add a quantity of a product to an order, creating its item if the order does not contain the product yet,
+     * as part of a transaction
+     * @param transaction the Transaction in which the item is created / updated
+     * @param idOrder int representing the id of the order
+     * @param idProduct int representing the id of the product
+     * @param quantity int representing the added quantity
+     * @throws SQLException if the item cannot be stored
+     */
+    void addQuantity(Transaction transaction, int idOrder, int idProduct, int quantity) throws SQLException;
+
+    /**
+     * method to apparently delete the items of an order, by setting their "deleted" flag, as part of a transaction
+     * @param transaction the Transaction in which the items are updated
+     * @param idOrder int representing the id of the order
+     * @return an int representing the number of flagged rows
+     * @throws SQLException if the items cannot be updated
+     */
+    int markDeletedByOrder(Transaction transaction, int idOrder) throws SQLException;
+
+    /**
+     * method to apparently delete the items containing a product, by setting their "deleted" flag, as part of a transaction
+     * @param transaction the Transaction in which the items are updated
+     * @param idProduct int representing the id of the product
+     * @return an int representing the number of flagged rows
+     * @throws SQLException if the items cannot be updated
+     */
+    int markDeletedByProduct(Transaction transaction, int idProduct) throws SQLException;
+}
@@ -0,0 +1,17 @@
+package storage;
+
+/**
+ * Receives the rows of the order report one at a time, while they are streamed from the storage
+ */
+
+public interface OrderReportHandler {
+
+    /**
+     * method called for every ordered item of a client and a product which are not deleted
+     * @param idOrder int representing the id of the order
+     * @param client String representing the name of the client who placed the order
+     * @param product String representing the name of the ordered product
+     * @param quantity int representing the ordered quantity
+     */
+    void row(int idOrder, String client, String product, int quantity);
+}
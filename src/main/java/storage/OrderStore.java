@@ -0,0 +1,56 @@
+package storage;
+
+import model.Order;
+
+import java.sql.SQLException;
+
+/**
+ * Operations available on the Order table of a Storage; each client has at most one order
+ */
+
+public interface OrderStore extends EntityStore<Order> {
+
+    /**
+     * method to retrieve an order with a specified id
+     * @param id int representing the id of the order
+     * @return an Order object or null, in case it wasn't found
+     */
+    Order findById(int id);
+
+    /**
+     * method to retrieve the order of a client
+     * @param idClient int representing the id of the client
+     * @return an Order object or null, in case the client has no order
+     */
+    Order findByIdClient(int idClient);
+
+    /**
+     * method to add the price of an ordered quantity of a product to the order of a client, creating the order if the client has none,
+     * as part of a transaction
+     * @param transaction the Transaction in which the order is created / updated
+     * @param idClient int representing the id of the client
+     * @param idProduct int representing the id of the ordered product
+     * @param quantity int representing the ordered quantity
+     * @return an int representing the id of the order or -1, if the product was not found
+     * @throws SQLException if the order cannot be stored
+     */
+    int addToTotal(Transaction transaction, int idClient, int idProduct, int quantity) throws SQLException;
+
+    /**
+     * method to apparently delete an order, by setting its "deleted" flag, as part of a transaction
+     * @param transaction the Transaction in which the order is updated
+     * @param id int representing the id of the order
+     * @return an int representing the number of flagged rows
+     * @throws SQLException if the order cannot be updated
+     */
+    int markDeleted(Transaction transaction, int id) throws SQLException;
+
+    /**
+     * method to apparently delete the order of a client, by setting its "deleted" flag, as part of a transaction
+     * @param transaction the Transaction in which the order is updated
+     * @param idClient int representing the id of the client
+     * @return an int representing the number of flagged rows
+     * @throws SQLException if the order cannot be updated
+     */
+    int markDeletedByClient(Transaction transaction, int idClient) throws SQLException;
+}
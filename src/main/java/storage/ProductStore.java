@@ -0,0 +1,70 @@
+package storage;
+
+import model.Product;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Operations available on the Product table of a Storage
+ */
+
+public interface ProductStore extends EntityStore<Product> {
+
+    /**
+     * method to retrieve a product with a specified id
+     * @param id int representing the id of the product
+     * @return a Product object or null, in case it wasn't found
+     */
+    Product findById(int id);
+
+    /**
+     * method to retrieve a product with a specified name; the comparison is case-insensitive
+     * @param name String representing the name of the product
+     * @return a Product object or null, in case it wasn't found
+     */
+    Product findByName(String name);
+
+    /**
+     * method to retrieve the products with given ids, in one lookup
+     * @param ids the ids of the products
+     * @return a list of Product objects; the ids which were not found have no product in it
+     */
+    List<Product> findAllByIds(List<Integer> ids);
+
+    /**
+     * method to retrieve the products with given names, in one lookup; the comparison is case-insensitive
+     * @param names the names of the products
+     * @return a list of Product objects; the names which were not found have no product in it
+     */
+    List<Product> findAllByNames(List<String> names);
+
+    /**
+     * method to take a quantity out of the stock of a product, only if enough items are available, as part of a transaction
+     * @param transaction the Transaction in which the stock is updated
+     * @param id int representing the id of the product
+     * @param quantity int representing the quantity taken out of stock
+     * @return true if the stock was decremented, false if there were not enough items in stock
+     * @throws SQLException if the stock cannot be updated
+     */
+    boolean decrementStock(Transaction transaction, int id, int quantity) throws SQLException;
+
+    /**
+     * method to take quantities out of the stock of several products, without checking the available stock, as part of a transaction
+     * used to write the orders admitted by the stock ledger, which already checked the stock
+     * @param transaction the Transaction in which the stock is updated
+     * @param ids the ids of the products
+     * @param quantities the quantities taken out of stock, one for each id
+     * @throws SQLException if the stock cannot be updated
+     */
+    void subtractStock(Transaction transaction, int[] ids, int[] quantities) throws SQLException;
+
+    /**
+     * method to apparently delete a product, by setting its "deleted" flag, as part of a transaction
+     * @param transaction the Transaction in which the product is updated
+     * @param id int representing the id of the product
+     * @return an int representing the number of flagged rows
+     * @throws SQLException if the product cannot be updated
+     */
+    int markDeleted(Transaction transaction, int id) throws SQLException;
+}
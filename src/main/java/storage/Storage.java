@@ -0,0 +1,73 @@
+package storage;
+
+import model.AppliedCommand;
+import model.FailedOrder;
+import model.StockDelta;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+
+/**
+ * Storage backend of the application: the tables and the transactions spanning them
+ * implemented by JdbcStorage (MySQL, through the DAO classes) and MemoryStorage (in-process, for simulations and tests)
+ */
+
+public interface Storage {
+
+    /**
+     * @return the store of the Client table
+     */
+    ClientStore clients();
+
+    /**
+     * @return the store of the Product table
+     */
+    ProductStore products();
+
+    /**
+     * @return the store of the Order table
+     */
+    OrderStore orders();
+
+    /**
+     * @return the store of the OrderItem table
+     */
+    OrderItemStore orderItems();
+
+    /**
+     * @return the store of the AppliedCommand table, holding the positions of the commands applied by a journaled run
+     */
+    EntityStore<AppliedCommand> appliedCommands();
+
+    /**
+     * @return the store of the FailedOrder table, holding the orders refused by a journaled run
+     */
+    EntityStore<FailedOrder> failedOrders();
+
+    /**
+     * @return the store of the StockDelta table, holding the stock taken by the orders of the stock ledger and not yet subtracted from the Product table
+     */
+    EntityStore<StockDelta> stockDeltas();
+
+    /**
+     * method used to start a transaction
+     * @return the started Transaction, which has to be closed
+     * @throws SQLException if the transaction cannot be started
+     */
+    Transaction begin() throws SQLException;
+
+    /**
+     * method used to restore the storage from a snapshot, e.g. SQLdumps/Dump_empty.sql
+     * @param snapshot Path of the SQL script recreating the tables
+     * @throws IOException if the script cannot be read
+     * @throws SQLException if the script cannot be executed
+     * @throws UnsupportedOperationException if the storage cannot execute SQL scripts
+     */
+    void restore(Path snapshot) throws IOException, SQLException;
+
+    /**
+     * method used to release the resources of the storage, e.g. the pooled connections, at the end of the execution
+     */
+    void shutdown();
+}
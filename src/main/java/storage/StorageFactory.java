@@ -0,0 +1,52 @@
+package storage;
+
+import dao.JdbcStorage;
+import memory.MemoryStorage;
+
+/**
+ * Class used to create the Storage of the application, chosen with -Dmanagement.storage: "jdbc" (MySQL, the default) or "memory"
+ */
+
+public class StorageFactory {
+
+    /**
+     * the name of the selected storage backend
+     */
+    private static final String BACKEND = System.getProperty("management.storage", "jdbc");
+
+    /**
+     * the single instance of the selected Storage
+     */
+    private static final Storage STORAGE = create(BACKEND);
+
+    /**
+     * private constructor, the class only contains static methods
+     */
+    private StorageFactory(){
+    }
+
+    /**
+     * method used to create a Storage by the name of its backend
+     * @param backend String representing the backend: "jdbc" or "memory"
+     * @return a new Storage
+     * @throws IllegalArgumentException if the backend is unknown
+     */
+    public static Storage create(String backend){
+        switch(backend.toLowerCase()){
+            case "jdbc":
+                return new JdbcStorage();
+            case "memory":
+                return new MemoryStorage();
+            default:
+                throw new IllegalArgumentException("Unknown storage backend " + backend);
+        }
+    }
+
+    /**
+     * method used to retrieve the Storage used by the application
+     * @return the Storage selected with -Dmanagement.storage
+     */
+    public static Storage getStorage(){
+        return STORAGE;
+    }
+}
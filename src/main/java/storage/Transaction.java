@@ -0,0 +1,28 @@
+package storage;
+
+import java.sql.SQLException;
+
+/**
+ * A unit of work of a Storage: the changes made through it become visible together on commit(), or not at all
+ * a Transaction is obtained from Storage.begin(), used by a single thread and closed when it is no longer needed
+ */
+
+public interface Transaction extends AutoCloseable {
+
+    /**
+     * method used to make the changes of the transaction permanent
+     * @throws SQLException if the changes cannot be committed
+     */
+    void commit() throws SQLException;
+
+    /**
+     * method used to undo the changes of the transaction, e.g. after one of its operations failed; errors are only logged
+     */
+    void rollback();
+
+    /**
+     * method used to release the transaction; uncommitted changes are rolled back
+     */
+    @Override
+    void close();
+}
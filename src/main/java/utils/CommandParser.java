@@ -0,0 +1,294 @@
+package utils;
+
+/**
+ * Hand-written parser turning a line of the input file into a typed command, without regular expressions or intermediate arrays
+ * accepted lines: "Insert client: name, address", "Insert product: name, quantity, price", "Order: client, product, quantity",
+ * "Delete client: name", "Delete product: name" and "Report client|order|product"; keywords are case-insensitive
+ */
+
+public class CommandParser {
+
+    /**
+     * powers of ten which are exactly representable as floats, used to parse prices without rounding errors
+     */
+    private static final float[] POWERS_OF_TEN = {1f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f};
+
+    /**
+     * private constructor, the class only contains static methods
+     */
+    private CommandParser(){
+    }
+
+    /**
+     * method used to interpret a single line of the input file
+     * @param line CharSequence representing the line to be interpreted
+     * @return the typed CommandText corresponding to the line or null, if the line is empty, unknown or malformed
+     */
+    public static CommandText parse(CharSequence line){
+        int start = 0;
+        int end = line.length();
+        while(start < end && Character.isWhitespace(line.charAt(start))){
+            start++;
+        }
+        while(end > start && Character.isWhitespace(line.charAt(end-1))){
+            end--;
+        }
+        if(start == end){
+            return null;
+        }
+        int colon = indexOf(line, ':', start, end);
+        int headerEnd = colon == -1 ? end : colon;
+        int keywordEnd = start;
+        while(keywordEnd < headerEnd && line.charAt(keywordEnd) != ' '){
+            keywordEnd++;
+        }
+        int tableStart = keywordEnd;
+        while(tableStart < headerEnd && line.charAt(tableStart) == ' '){
+            tableStart++;
+        }
+        int tableEnd = tableStart;
+        while(tableEnd < headerEnd && line.charAt(tableEnd) != ' '){
+            tableEnd++;
+        }
+        int data = colon == -1 ? end : colon + 1;
+        while(data < end && line.charAt(data) == ' '){
+            data++;
+        }
+        if(matches(line, start, keywordEnd, "insert")){
+            if(matches(line, tableStart, tableEnd, "client")){
+                return parseInsertClient(line, data, end);
+            }
+            if(matches(line, tableStart, tableEnd, "product")){
+                return parseInsertProduct(line, data, end);
+            }
+            if(matches(line, tableStart, tableEnd, "order")){
+                return parsePlaceOrder(line, data, end);
+            }
+            return null;
+        }
+        if(matches(line, start, keywordEnd, "order")){
+            return parsePlaceOrder(line, data, end);
+        }
+        if(matches(line, start, keywordEnd, "delete")){
+            int nameEnd = fieldEnd(line, data, end);
+            if(matches(line, tableStart, tableEnd, "client")){
+                return new DeleteClient(line.subSequence(data, nameEnd).toString());
+            }
+            if(matches(line, tableStart, tableEnd, "product")){
+                return new DeleteProduct(line.subSequence(data, nameEnd).toString());
+            }
+            return null;
+        }
+        if(matches(line, start, keywordEnd, "report")){
+            if(matches(line, tableStart, tableEnd, "client")){
+                return new CommandText(Command.REPORT, "client");
+            }
+            if(matches(line, tableStart, tableEnd, "order")){
+                return new CommandText(Command.REPORT, "order");
+            }
+            if(matches(line, tableStart, tableEnd, "product")){
+                return new CommandText(Command.REPORT, "product");
+            }
+            return null;
+        }
+        System.out.println("No such command " + line.subSequence(start, keywordEnd).toString().toLowerCase());
+        return null;
+    }
+
+    /**
+     * method used to interpret the data of an "Insert client" command
+     * @param line the line containing the command
+     * @param start the index of the first character of the data
+     * @param end the index after the last character of the line
+     * @return an InsertClient command or null, if a field is missing
+     */
+    private static CommandText parseInsertClient(CharSequence line, int start, int end){
+        int nameEnd = fieldEnd(line, start, end);
+        if(nameEnd == end){
+            return malformed(line);
+        }
+        int addressStart = nameEnd + 2;
+        int addressEnd = fieldEnd(line, addressStart, end);
+        return new InsertClient(line.subSequence(start, nameEnd).toString(), line.subSequence(addressStart, addressEnd).toString());
+    }
+
+    /**
+     * method used to interpret the data of an "Insert product" command
+     * @param line the line containing the command
+     * @param start the index of the first character of the data
+     * @param end the index after the last character of the line
+     * @return an InsertProduct command or null, if a field is missing or invalid
+     */
+    private static CommandText parseInsertProduct(CharSequence line, int start, int end){
+        int nameEnd = fieldEnd(line, start, end);
+        if(nameEnd == end){
+            return malformed(line);
+        }
+        int quantityStart = nameEnd + 2;
+        int quantityEnd = fieldEnd(line, quantityStart, end);
+        if(quantityEnd == end){
+            return malformed(line);
+        }
+        int priceStart = quantityEnd + 2;
+        int priceEnd = fieldEnd(line, priceStart, end);
+        try{
+            return new InsertProduct(line.subSequence(start, nameEnd).toString(), parseInt(line, quantityStart, quantityEnd), parseFloat(line, priceStart, priceEnd));
+        }catch(NumberFormatException e){
+            return malformed(line);
+        }
+    }
+
+    /**
+     * method used to interpret the data of an "Order" command
+     * @param line the line containing the command
+     * @param start the index of the first character of the data
+     * @param end the index after the last character of the line
+     * @return a PlaceOrder command or null, if a field is missing or invalid
+     */
+    private static CommandText parsePlaceOrder(CharSequence line, int start, int end){
+        int clientEnd = fieldEnd(line, start, end);
+        if(clientEnd == end){
+            return malformed(line);
+        }
+        int productStart = clientEnd + 2;
+        int productEnd = fieldEnd(line, productStart, end);
+        if(productEnd == end){
+            return malformed(line);
+        }
+        int quantityStart = productEnd + 2;
+        int quantityEnd = fieldEnd(line, quantityStart, end);
+        try{
+            return new PlaceOrder(line.subSequence(start, clientEnd).toString(), line.subSequence(productStart, productEnd).toString(), parseInt(line, quantityStart, quantityEnd));
+        }catch(NumberFormatException e){
+            return malformed(line);
+        }
+    }
+
+    /**
+     * method used to report a line whose fields are missing or are not valid numbers
+     * @param line the malformed line
+     * @return null
+     */
+    private static CommandText malformed(CharSequence line){
+        System.out.println("Missing data in command " + line);
+        return null;
+    }
+
+    /**
+     * method to find the end of a field, i.e. the next ", " separator
+     * @param line the line containing the field
+     * @param start the index of the first character of the field
+     * @param end the index after the last character of the line
+     * @return the index of the separator after the field or end, if the field is the last one
+     */
+    private static int fieldEnd(CharSequence line, int start, int end){
+        for(int i = start; i < end - 1; i++){
+            if(line.charAt(i) == ',' && line.charAt(i+1) == ' '){
+                return i;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * method to find the first occurrence of a character in a range of a line
+     * @param line the line to be searched
+     * @param c the character to be found
+     * @param start the index where the search starts
+     * @param end the index where the search ends
+     * @return the index of the character or -1, if the character was not found
+     */
+    private static int indexOf(CharSequence line, char c, int start, int end){
+        for(int i = start; i < end; i++){
+            if(line.charAt(i) == c){
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * method to check, ignoring the case, if a range of a line is equal to a lower-case word
+     * @param line the line containing the range
+     * @param start the index of the first character of the range
+     * @param end the index after the last character of the range
+     * @param word the lower-case word
+     * @return true if the range contains the word, false otherwise
+     */
+    private static boolean matches(CharSequence line, int start, int end, String word){
+        if(end - start != word.length()){
+            return false;
+        }
+        for(int i = 0; i < word.length(); i++){
+            if(Character.toLowerCase(line.charAt(start + i)) != word.charAt(i)){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * method to parse a decimal int from a range of a line, with the same result as Integer.parseInt()
+     * @param line the line containing the number
+     * @param start the index of the first character of the number
+     * @param end the index after the last character of the number
+     * @return the parsed int
+     * @throws NumberFormatException if the range is not a valid int
+     */
+    static int parseInt(CharSequence line, int start, int end){
+        if(end - start > 0 && end - start < 10){
+            int value = 0;
+            int i = start;
+            for(; i < end; i++){
+                char c = line.charAt(i);
+                if(c < '0' || c > '9'){
+                    break;
+                }
+                value = value * 10 + (c - '0');
+            }
+            if(i == end){
+                return value;
+            }
+        }
+        return Integer.parseInt(line.subSequence(start, end).toString());
+    }
+
+    /**
+     * method to parse a decimal float (digits, optionally followed by a point and more digits) from a range of a line
+     * the result is the same as Float.parseFloat(); other notations are delegated to Float.parseFloat()
+     * @param line the line containing the number
+     * @param start the index of the first character of the number
+     * @param end the index after the last character of the number
+     * @return the parsed float
+     * @throws NumberFormatException if the range is not a valid float
+     */
+    static float parseFloat(CharSequence line, int start, int end){
+        long mantissa = 0;
+        int decimals = -1;
+        int digits = 0;
+        int i = start;
+        for(; i < end; i++){
+            char c = line.charAt(i);
+            if(c == '.' && decimals == -1){
+                decimals = 0;
+                continue;
+            }
+            if(c < '0' || c > '9'){
+                break;
+            }
+            mantissa = mantissa * 10 + (c - '0');
+            digits++;
+            if(decimals != -1){
+                decimals++;
+            }
+            if(mantissa >= (1 << 24)){
+                break;
+            }
+        }
+        if(i == end && digits > 0 && decimals < POWERS_OF_TEN.length){
+            // both operands are exact floats, so the division is correctly rounded, like Float.parseFloat()
+            return decimals <= 0 ? (float) mantissa : (float) mantissa / POWERS_OF_TEN[decimals];
+        }
+        return Float.parseFloat(line.subSequence(start, end).toString());
+    }
+}
@@ -0,0 +1,30 @@
+package utils;
+
+/**
+ * Command deleting a client by its name: "Delete client: name[, address]"
+ */
+
+public class DeleteClient extends CommandText {
+
+    /**
+     * the name of the client
+     */
+    private final String name;
+
+    /**
+     * constructor containing all the fields
+     * @param name the name of the client
+     */
+    public DeleteClient(String name){
+        super(Command.DELETE, "client");
+        this.name = name;
+    }
+
+    /**
+     * method to retrieve the name of the client from the object
+     * @return a String representing the name of the client
+     */
+    public String getName(){
+        return name;
+    }
+}
@@ -0,0 +1,30 @@
+package utils;
+
+/**
+ * Command deleting a product by its name: "Delete product: name"
+ */
+
+public class DeleteProduct extends CommandText {
+
+    /**
+     * the name of the product
+     */
+    private final String name;
+
+    /**
+     * constructor containing all the fields
+     * @param name the name of the product
+     */
+    public DeleteProduct(String name){
+        super(Command.DELETE, "product");
+        this.name = name;
+    }
+
+    /**
+     * method to retrieve the name of the product from the object
+     * @return a String representing the name of the product
+     */
+    public String getName(){
+        return name;
+    }
+}
@@ -0,0 +1,44 @@
+package utils;
+
+/**
+ * Command inserting a client, or updating the address of an existing one: "Insert client: name, address"
+ */
+
+public class InsertClient extends CommandText {
+
+    /**
+     * the name of the client
+     */
+    private final String name;
+    /**
+     * the address of the client
+     */
+    private final String address;
+
+    /**
+     * constructor containing all the fields
+     * @param name the name of the client
+     * @param address the address of the client
+     */
+    public InsertClient(String name, String address){
+        super(Command.INSERT, "client");
+        this.name = name;
+        this.address = address;
+    }
+
+    /**
+     * method to retrieve the name of the client from the object
+     * @return a String representing the name of the client
+     */
+    public String getName(){
+        return name;
+    }
+
+    /**
+     * method to retrieve the address of the client from the object
+     * @return a String representing the address of the client
+     */
+    public String getAddress(){
+        return address;
+    }
+}
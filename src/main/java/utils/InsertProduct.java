@@ -0,0 +1,58 @@
+package utils;
+
+/**
+ * Command inserting a product, or restocking an existing one: "Insert product: name, quantity, price"
+ */
+
+public class InsertProduct extends CommandText {
+
+    /**
+     * the name of the product
+     */
+    private final String name;
+    /**
+     * the quantity added to the stock
+     */
+    private final int quantity;
+    /**
+     * the price of the product
+     */
+    private final float price;
+
+    /**
+     * constructor containing all the fields
+     * @param name the name of the product
+     * @param quantity the quantity added to the stock
+     * @param price the price of the product
+     */
+    public InsertProduct(String name, int quantity, float price){
+        super(Command.INSERT, "product");
+        this.name = name;
+        this.quantity = quantity;
+        this.price = price;
+    }
+
+    /**
+     * method to retrieve the name of the product from the object
+     * @return a String representing the name of the product
+     */
+    public String getName(){
+        return name;
+    }
+
+    /**
+     * method to retrieve the quantity added to the stock from the object
+     * @return an int representing the quantity
+     */
+    public int getQuantity(){
+        return quantity;
+    }
+
+    /**
+     * method to retrieve the price of the product from the object
+     * @return a float representing the price
+     */
+    public float getPrice(){
+        return price;
+    }
+}
@@ -0,0 +1,66 @@
+package utils;
+
+/**
+ * Command placing an order: "Order: client, product, quantity"
+ */
+
+public class PlaceOrder extends CommandText {
+
+    /**
+     * the name of the client who places the order
+     */
+    private final String client;
+    /**
+     * the name of the ordered product
+     */
+    private final String product;
+    /**
+     * the ordered quantity
+     */
+    private final int quantity;
+
+    /**
+     * constructor containing all the fields
+     * @param client the name of the client who places the order
+     * @param product the name of the ordered product
+     * @param quantity the ordered quantity
+     */
+    public PlaceOrder(String client, String product, int quantity){
+        super(Command.ORDER, "order");
+        this.client = client;
+        this.product = product;
+        this.quantity = quantity;
+    }
+
+    /**
+     * method to retrieve the name of the client from the object
+     * @return a String representing the name of the client
+     */
+    public String getClient(){
+        return client;
+    }
+
+    /**
+     * method to retrieve the name of the product from the object
+     * @return a String representing the name of the product
+     */
+    public String getProduct(){
+        return product;
+    }
+
+    /**
+     * method to retrieve the ordered quantity from the object
+     * @return an int representing the quantity
+     */
+    public int getQuantity(){
+        return quantity;
+    }
+
+    /**
+     * method to describe the order as a notification entry: the client, the product and the quantity
+     * @return a String[] containing the name of the client, the name of the product and the ordered quantity
+     */
+    public String[] toNotification(){
+        return new String[]{client, product, Integer.toString(quantity)};
+    }
+}
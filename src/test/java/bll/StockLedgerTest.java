@@ -0,0 +1,130 @@
+package bll;
+
+import memory.MemoryStorage;
+import model.Product;
+import model.StockDelta;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import storage.Transaction;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of the stock ledger on a storage of its own: the stock taken by the stored orders is written to the Product table through the
+ * StockDelta table, so that it reaches the table even if the run stops before a flush
+ */
+
+public class StockLedgerTest {
+
+    /**
+     * the storage of the ledger, created empty for every test
+     */
+    private MemoryStorage storage;
+    /**
+     * the id of the product "apple", with 10 pieces in stock
+     */
+    private int product;
+    /**
+     * the ledger under test or null, if the test did not create one
+     */
+    private StockLedger ledger;
+
+    /**
+     * method used to create a storage with one product
+     */
+    @Before
+    public void setUp(){
+        storage = new MemoryStorage();
+        product = storage.products().insert(new Product("apple", 1.5f, 10, 0));
+    }
+
+    /**
+     * method used to stop the flusher thread of the ledger
+     */
+    @After
+    public void tearDown(){
+        if(ledger != null){
+            ledger.shutdown();
+        }
+    }
+
+    /**
+     * method used to check that the deltas left by a run which stopped before flushing them are written when the next ledger is created
+     * @throws Exception if the delta cannot be stored
+     */
+    @Test
+    public void storedDeltasAreWrittenOnStartup() throws Exception {
+        store(3);
+        store(2);
+        ledger = new StockLedger(storage);
+        assertEquals(5, storage.products().findById(product).getQuantity());
+        assertTrue(storage.stockDeltas().findAll().isEmpty());
+        assertFalse(ledger.reserve(product, 6));
+        assertTrue(ledger.reserve(product, 5));
+    }
+
+    /**
+     * method used to check that the deltas are written to the table when the ledger is not enabled
+     * @throws Exception if the delta cannot be stored
+     */
+    @Test
+    public void storedDeltasAreWrittenWithoutLedger() throws Exception {
+        store(4);
+        assertTrue(StockLedger.applyStoredDeltas(storage));
+        assertEquals(6, storage.products().findById(product).getQuantity());
+        assertTrue(storage.stockDeltas().findAll().isEmpty());
+    }
+
+    /**
+     * method used to check that a flush writes the stock of the stored orders only, and keeps the stock of an order being stored pending
+     * @throws Exception if a delta cannot be stored
+     */
+    @Test
+    public void flushWritesTheStoredOrdersOnly() throws Exception {
+        ledger = new StockLedger(storage);
+        assertTrue(ledger.reserve(product, 4));
+        store(4);
+        assertTrue(ledger.reserve(product, 2));
+        assertTrue(ledger.flush());
+        assertEquals(6, storage.products().findById(product).getQuantity());
+        assertTrue(storage.stockDeltas().findAll().isEmpty());
+        ledger.release(product, 2);
+        assertFalse(ledger.reserve(product, 7));
+        assertTrue(ledger.reserve(product, 6));
+        store(6);
+        ledger.shutdown();
+        assertEquals(0, storage.products().findById(product).getQuantity());
+        assertTrue(storage.stockDeltas().findAll().isEmpty());
+    }
+
+    /**
+     * method used to check that the ids too large for the ledger are left to the table: they are not held, and the calls made for every
+     * changed product ignore them
+     */
+    @Test
+    public void largeIdsAreLeftToTheTable(){
+        ledger = new StockLedger(storage);
+        assertTrue(StockLedger.holds(product));
+        assertFalse(StockLedger.holds(1 << 27));
+        assertFalse(StockLedger.holds(Integer.MAX_VALUE));
+        ledger.release(1 << 27, 1);
+        ledger.beginWrite();
+        ledger.endWrite(product, 1 << 27);
+        assertTrue(ledger.reserve(product, 10));
+    }
+
+    /**
+     * method used to store a delta of the product, as the transaction of an order admitted by the ledger does
+     * @param quantity int representing the ordered quantity
+     * @throws Exception if the delta cannot be stored
+     */
+    private void store(int quantity) throws Exception {
+        try(Transaction tx = storage.begin()){
+            storage.stockDeltas().insert(tx, new StockDelta(product, quantity));
+            tx.commit();
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package memory;
+
+import model.Client;
+import model.OrderItem;
+import model.Product;
+import org.junit.Before;
+import org.junit.Test;
+import storage.Transaction;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests of the in-memory storage: the tables and their indexes, and the transactions (commit, rollback on close, lock)
+ */
+
+public class MemoryStorageTest {
+
+    /**
+     * the storage under test, created empty for every test
+     */
+    private MemoryStorage storage;
+    /**
+     * the id of the client "Ana"
+     */
+    private int client;
+    /**
+     * the id of the product "apple", with 10 pieces in stock
+     */
+    private int product;
+
+    /**
+     * method used to create an empty storage with one client and one product
+     */
+    @Before
+    public void setUp(){
+        storage = new MemoryStorage();
+        client = storage.clients().insert(new Client("Ana", "Cluj", 0));
+        product = storage.products().insert(new Product("apple", 1.5f, 10, 0));
+    }
+
+    /**
+     * method used to check the generated ids and the lookups by id and by name
+     */
+    @Test
+    public void insertAndFind(){
+        int other = storage.products().insert(new Product("pear", 2f, 5, 0));
+        assertTrue(other > product);
+        assertEquals("apple", storage.products().findById(product).getName());
+        assertEquals(other, storage.products().findByName("PEAR").getIdProduct());
+        assertEquals(client, storage.clients().findByName("ana").getIdClient());
+        assertNull(storage.products().findByName("plum"));
+        assertNull(storage.products().findById(other + 1));
+        assertEquals(Arrays.asList(product, other), ids(storage.products().findAll()));
+        assertEquals(Arrays.asList(other), ids(storage.products().findPage(product, 10)));
+    }
+
+    /**
+     * method used to check the lookups of several rows by their ids and by their names, which skip the missing ones
+     */
+    @Test
+    public void findAllByIdsAndNames(){
+        int other = storage.products().insert(new Product("pear", 2f, 5, 0));
+        assertEquals(Arrays.asList(other, product), ids(storage.products().findAllByIds(Arrays.asList(other, other + 1, product))));
+        assertEquals(Arrays.asList(product, other), ids(storage.products().findAllByNames(Arrays.asList("APPLE", "plum", "Pear"))));
+        assertEquals(client, storage.clients().findAllByNames(Arrays.asList("ana")).get(0).getIdClient());
+        assertTrue(storage.clients().findAllByIds(Arrays.asList(client + 1)).isEmpty());
+    }
+
+    /**
+     * method used to check that forEach() and stream() copy the rows one at a time: the rows removed or changed while the table is
+     * being walked are seen as they are when their turn comes
+     */
+    @Test
+    public void forEachCopiesEachRowWhenReached(){
+        int other = storage.products().insert(new Product("pear", 2f, 5, 0));
+        int last = storage.products().insert(new Product("plum", 3f, 7, 0));
+        List<String> seen = new ArrayList<>();
+        storage.products().forEach(p -> {
+            seen.add(p.getName() + " " + p.getQuantity());
+            if(p.getIdProduct() == product){
+                storage.products().delete(storage.products().findById(other));
+                Product changed = storage.products().findById(last);
+                changed.setQuantity(1);
+                storage.products().update(changed);
+            }
+        });
+        assertEquals(Arrays.asList("apple 10", "plum 1"), seen);
+        assertEquals(Arrays.asList(product, last), ids(storage.products().stream().collect(Collectors.toList())));
+    }
+
+    /**
+     * method used to check that the rows returned by the lookups are copies, which do not change the table
+     */
+    @Test
+    public void findReturnsCopies(){
+        storage.products().findById(product).setQuantity(0);
+        assertEquals(10, storage.products().findById(product).getQuantity());
+        Product p = storage.products().findById(product);
+        p.setQuantity(3);
+        storage.products().update(p);
+        assertEquals(3, storage.products().findById(product).getQuantity());
+    }
+
+    /**
+     * method used to check that the changes of a committed transaction are kept, with the indexes of the new rows
+     * @throws Exception if the transaction fails
+     */
+    @Test
+    public void commitKeepsChanges() throws Exception {
+        int order;
+        try(Transaction tx = storage.begin()){
+            assertTrue(storage.products().decrementStock(tx, product, 4));
+            order = storage.orders().addToTotal(tx, client, product, 4);
+            storage.orderItems().addQuantity(tx, order, product, 4);
+            tx.commit();
+        }
+        assertEquals(6, storage.products().findById(product).getQuantity());
+        assertEquals(6f, storage.orders().findByIdClient(client).getTotal(), 0.001f);
+        List<OrderItem> items = storage.orderItems().findAllByIdProduct(product);
+        assertEquals(1, items.size());
+        assertEquals(order, items.get(0).getIdOrder());
+        assertEquals(4, storage.orderItems().findAllByIdOrder(order).get(0).getQuantity());
+    }
+
+    /**
+     * method used to check that closing a transaction without committing it undoes its changes and restores the indexes
+     * @throws Exception if the transaction fails
+     */
+    @Test
+    public void closeRollsBack() throws Exception {
+        int order;
+        try(Transaction tx = storage.begin()){
+            assertTrue(storage.products().decrementStock(tx, product, 4));
+            order = storage.orders().addToTotal(tx, client, product, 4);
+            storage.orderItems().addQuantity(tx, order, product, 4);
+            storage.clients().markDeleted(tx, client);
+        }
+        assertEquals(10, storage.products().findById(product).getQuantity());
+        assertNull(storage.orders().findByIdClient(client));
+        assertNull(storage.orders().findById(order));
+        assertTrue(storage.orderItems().findAllByIdOrder(order).isEmpty());
+        assertTrue(storage.orderItems().findAllByIdProduct(product).isEmpty());
+        assertEquals(0, storage.clients().findById(client).getDeleted());
+    }
+
+    /**
+     * method used to check that rollback() undoes the changes made since the last commit only
+     * @throws Exception if the transaction fails
+     */
+    @Test
+    public void rollbackAfterCommit() throws Exception {
+        try(Transaction tx = storage.begin()){
+            storage.products().decrementStock(tx, product, 1);
+            tx.commit();
+            storage.products().decrementStock(tx, product, 2);
+            assertEquals(1, storage.products().deleteAll(tx));
+            assertTrue(storage.products().findAll().isEmpty());
+            tx.rollback();
+        }
+        assertEquals(9, storage.products().findById(product).getQuantity());
+        assertEquals(product, storage.products().findByName("apple").getIdProduct());
+    }
+
+    /**
+     * method used to check that the stock is only decremented when it is sufficient
+     * @throws Exception if the transaction fails
+     */
+    @Test
+    public void decrementStockRefusesInsufficientStock() throws Exception {
+        try(Transaction tx = storage.begin()){
+            assertFalse(storage.products().decrementStock(tx, product, 11));
+            assertFalse(storage.products().decrementStock(tx, product + 100, 1));
+            assertTrue(storage.products().decrementStock(tx, product, 10));
+            tx.commit();
+        }
+        assertEquals(0, storage.products().findById(product).getQuantity());
+    }
+
+    /**
+     * method used to check that a transaction cannot be used by another storage, or by another thread
+     * @throws Exception if the transaction fails
+     */
+    @Test
+    public void transactionIsBoundToStorageAndThread() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try(Transaction tx = storage.begin()){
+            MemoryStorage other = new MemoryStorage();
+            try{
+                other.products().decrementStock(tx, product, 1);
+                fail("a transaction of another storage was accepted");
+            }catch(IllegalArgumentException e){
+                // expected
+            }
+            Future<?> result = executor.submit(() -> storage.products().decrementStock(tx, product, 1));
+            try{
+                result.get();
+                fail("a transaction was used by another thread");
+            }catch(ExecutionException e){
+                assertTrue(e.getCause() instanceof IllegalStateException);
+            }
+        }finally{
+            executor.shutdown();
+        }
+        try{
+            Transaction closed = storage.begin();
+            closed.close();
+            storage.products().decrementStock(closed, product, 1);
+            fail("a closed transaction was accepted");
+        }catch(IllegalStateException e){
+            // expected
+        }
+    }
+
+    /**
+     * method used to check that a transaction waits until the transaction of another thread is closed
+     * @throws Exception if the transactions fail
+     */
+    @Test
+    public void transactionsAreSerialized() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch started = new CountDownLatch(1);
+        try{
+            Future<Integer> read;
+            try(Transaction tx = storage.begin()){
+                storage.products().decrementStock(tx, product, 4);
+                read = executor.submit(() -> {
+                    started.countDown();
+                    try(Transaction other = storage.begin()){
+                        int quantity = storage.products().findById(product).getQuantity();
+                        other.commit();
+                        return quantity;
+                    }
+                });
+                assertTrue(started.await(5, TimeUnit.SECONDS));
+                try{
+                    read.get(100, TimeUnit.MILLISECONDS);
+                    fail("a second transaction was started while the first was open");
+                }catch(TimeoutException e){
+                    // expected
+                }
+                tx.commit();
+            }
+            assertEquals(6, (int) read.get(5, TimeUnit.SECONDS));
+        }finally{
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * method used to check the rows of the order report: the items of deleted clients or products are left out
+     * @throws Exception if the transaction fails
+     */
+    @Test
+    public void reportRowsSkipDeletedRows() throws Exception {
+        int other = storage.products().insert(new Product("pear", 2f, 5, 0));
+        try(Transaction tx = storage.begin()){
+            int order = storage.orders().addToTotal(tx, client, product, 2);
+            storage.orderItems().addQuantity(tx, order, product, 2);
+            storage.orders().addToTotal(tx, client, other, 1);
+            storage.orderItems().addQuantity(tx, order, other, 1);
+            storage.products().markDeleted(tx, other);
+            tx.commit();
+        }
+        List<String> rows = new ArrayList<>();
+        storage.orderItems().forEachReportRow((idOrder, name, productName, quantity) -> rows.add(name + " " + productName + " " + quantity));
+        assertEquals(Arrays.asList("Ana apple 2"), rows);
+    }
+
+    /**
+     * method used to check that SQL snapshots are refused
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public void restoreIsUnsupported(){
+        storage.restore(Paths.get("snapshot.sql"));
+    }
+
+    /**
+     * @param products list of Product objects
+     * @return a list containing the ids of the products, in the same order
+     */
+    private static List<Integer> ids(List<Product> products){
+        List<Integer> ids = new ArrayList<>();
+        for(Product p : products){
+            ids.add(p.getIdProduct());
+        }
+        return ids;
+    }
+}
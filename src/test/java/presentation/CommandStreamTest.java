@@ -0,0 +1,93 @@
+package presentation;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import utils.CommandText;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Iterator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests of the CommandStream: the commands are returned in file order, and a failure of the reader thread reaches the caller
+ */
+
+public class CommandStreamTest {
+
+    /**
+     * the folder holding the input files
+     */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * method used to check that all the commands of a file are returned in order, without the empty and unknown lines
+     * @throws IOException if the input file cannot be written
+     */
+    @Test
+    public void readsAllCommands() throws IOException {
+        File input = write("Insert client: Ana, Cluj", "", "Unknown line", "Report client");
+        Iterator<CommandText> commands = new View().streamFile(input.getPath());
+        assertTrue(commands.hasNext());
+        assertEquals("client", commands.next().getTable());
+        assertEquals("client", commands.next().getTable());
+        assertFalse(commands.hasNext());
+    }
+
+    /**
+     * method used to check that a line which cannot be parsed stops the stream with an exception instead of ending it
+     * @throws IOException if the input file cannot be written
+     */
+    @Test
+    public void parseFailureIsRethrown() throws IOException {
+        File input = write("Insert client: Ana, Cluj", "Insert client: Bob, Iasi", "Report client");
+        View view = new View(){
+            @Override
+            CommandText parseLine(String input){
+                if(input.contains("Bob")){
+                    throw new IllegalArgumentException("cannot parse " + input);
+                }
+                return super.parseLine(input);
+            }
+        };
+        Iterator<CommandText> commands = view.streamFile(input.getPath());
+        assertEquals("client", commands.next().getTable());
+        try{
+            commands.hasNext();
+            fail("the stream ended without reporting the failed line");
+        }catch(IllegalStateException e){
+            assertTrue(e.getMessage().contains("line 2"));
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+    }
+
+    /**
+     * method used to check that a file which cannot be read is reported to the caller
+     */
+    @Test(expected = UncheckedIOException.class)
+    public void readFailureIsRethrown(){
+        new View().streamFile(new File(folder.getRoot(), "missing.txt").getPath()).hasNext();
+    }
+
+    /**
+     * method used to write an input file
+     * @param lines the lines of the file
+     * @return the written File
+     * @throws IOException if the file cannot be written
+     */
+    private File write(String... lines) throws IOException {
+        File file = folder.newFile();
+        Files.write(file.toPath(), Arrays.asList(lines), Charset.defaultCharset());
+        return file;
+    }
+}
@@ -0,0 +1,183 @@
+package start;
+
+import journal.JournalReader;
+import journal.JournalRecord;
+import model.Client;
+import model.FailedOrder;
+import model.Order;
+import model.Product;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import storage.Storage;
+import storage.StorageFactory;
+import utils.CommandText;
+import utils.DeleteClient;
+import utils.DeleteProduct;
+import utils.InsertClient;
+import utils.InsertProduct;
+import utils.PlaceOrder;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests of the resume of a journaled run, on the in-memory storage (-Dmanagement.storage=memory, set by the surefire configuration)
+ * the journal of an interrupted run is cut short, as after a crash before its last group commit, and the run is resumed: the database
+ * must end up as after a single uninterrupted run, since the commands are skipped by the positions recorded in the database
+ */
+
+public class LogicResumeTest {
+
+    /**
+     * the folder holding the journals
+     */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * the storage used by the BLL classes
+     */
+    private final Storage storage = StorageFactory.getStorage();
+
+    /**
+     * method used to check that the commands applied before a crash are not applied again, although the journal lost them
+     * @throws IOException if a journal cannot be written or read
+     */
+    @Test
+    public void resumeSkipsTheAppliedCommands() throws IOException {
+        List<CommandText> commands = commands();
+        String expected = run(commands, 1);
+        Path file = interrupted(commands.subList(0, 97), 1);
+        Logic logic = new Logic();
+        assertEquals(97, logic.openJournal(file));
+        logic.executeCommand(commands);
+        logic.closeJournal();
+        assertEquals(expected, state());
+        checkJournal(file, commands.size());
+    }
+
+    /**
+     * method used to check the resume of a run whose orders are placed in parallel
+     * @throws IOException if a journal cannot be written or read
+     */
+    @Test
+    public void parallelResumeSkipsTheAppliedCommands() throws IOException {
+        List<CommandText> commands = commands();
+        String expected = run(commands, 1);
+        Path file = interrupted(commands.subList(0, 150), 4);
+        Logic logic = new Logic(4);
+        assertEquals(150, logic.openJournal(file));
+        logic.executeCommand(commands);
+        logic.closeJournal();
+        assertEquals(expected, state());
+        checkJournal(file, commands.size());
+    }
+
+    /**
+     * method used to build the input: inserts, orders of which some are refused, and deletes
+     * @return a list of typed commands
+     */
+    private static List<CommandText> commands(){
+        List<CommandText> commands = new ArrayList<>();
+        for(int i = 0; i < 5; i++){
+            commands.add(new InsertClient("resume-client-" + i, "Address " + i));
+        }
+        for(int i = 0; i < 4; i++){
+            commands.add(new InsertProduct("resume-product-" + i, 40, 2.5f));
+        }
+        for(int i = 0; i < 200; i++){
+            commands.add(new PlaceOrder("resume-client-" + i % 5, "resume-product-" + i % 4, 1 + i % 3));
+            if(i % 50 == 49){
+                commands.add(new InsertProduct("resume-product-" + i % 4, 10, 3f));
+            }
+        }
+        commands.add(new DeleteClient("resume-client-4"));
+        commands.add(new DeleteProduct("resume-product-3"));
+        return commands;
+    }
+
+    /**
+     * method used to execute all the commands on an empty database, in one journaled run
+     * @param commands the commands to be executed
+     * @param parallelism int representing the number of orders placed at the same time
+     * @return the state of the database after the run
+     * @throws IOException if the journal cannot be written
+     */
+    private String run(List<CommandText> commands, int parallelism) throws IOException {
+        Logic logic = new Logic(parallelism);
+        assertEquals(0, logic.openJournal(folder.newFolder().toPath().resolve("reference.journal")));
+        logic.resetDB();
+        logic.executeCommand(commands);
+        logic.closeJournal();
+        return state();
+    }
+
+    /**
+     * method used to execute the first commands on an empty database in a journaled run, and to cut its journal in the middle of a record,
+     * so that it holds fewer commands than the database
+     * @param commands the commands executed before the interruption
+     * @param parallelism int representing the number of orders placed at the same time
+     * @return the Path of the journal of the interrupted run
+     * @throws IOException if the journal cannot be written
+     */
+    private Path interrupted(List<CommandText> commands, int parallelism) throws IOException {
+        Path file = folder.newFolder().toPath().resolve("commands.journal");
+        Logic logic = new Logic(parallelism);
+        assertEquals(0, logic.openJournal(file));
+        logic.resetDB();
+        logic.executeCommand(commands);
+        logic.closeJournal();
+        try(RandomAccessFile journal = new RandomAccessFile(file.toFile(), "rw")){
+            journal.setLength(journal.length() / 3);
+        }
+        return file;
+    }
+
+    /**
+     * method used to check that the journal holds every command exactly once, in input order
+     * @param file Path of the journal
+     * @param count int representing the number of commands of the input
+     * @throws IOException if the journal cannot be read
+     */
+    private static void checkJournal(Path file, int count) throws IOException {
+        List<Integer> positions = new ArrayList<>();
+        try(JournalReader reader = new JournalReader(file)){
+            JournalRecord record;
+            while((record = reader.next()) != null){
+                positions.add(record.getPosition());
+            }
+        }
+        List<Integer> expected = new ArrayList<>();
+        for(int i = 1; i <= count; i++){
+            expected.add(i);
+        }
+        assertEquals(expected, positions);
+    }
+
+    /**
+     * method used to describe the rows of the database which the commands change
+     * @return a String containing the products, the clients with their order totals and the refused orders
+     */
+    private String state(){
+        StringBuilder out = new StringBuilder();
+        for(Product p : storage.products().findAll()){
+            out.append(p.getName()).append(' ').append(p.getQuantity()).append(' ').append(p.getDeleted()).append('\n');
+        }
+        for(Client c : storage.clients().findAll()){
+            Order order = storage.orders().findByIdClient(c.getIdClient());
+            out.append(c.getName()).append(' ').append(c.getDeleted()).append(' ')
+                    .append(order == null ? "-" : String.format(Locale.ROOT, "%.2f", order.getTotal())).append('\n');
+        }
+        for(FailedOrder f : storage.failedOrders().findAll()){
+            out.append(f.getPosition()).append(' ').append(f.getClient()).append(' ').append(f.getProduct()).append(' ').append(f.getQuantity()).append('\n');
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,259 @@
+package start;
+
+import bll.ClientBLL;
+import bll.OrderBLL;
+import bll.ProductBLL;
+import model.OrderItem;
+import model.Product;
+import org.junit.Test;
+import storage.Checkpoint;
+import storage.Storage;
+import storage.StorageFactory;
+import utils.PlaceOrder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Stress test of the order placement, run on the in-memory storage (-Dmanagement.storage=memory, set by the surefire configuration)
+ * many orders are placed at the same time and the stock is checked afterwards: it never goes below 0, and the ordered quantities add up
+ * to the stock which was taken
+ * since the in-memory storage runs one transaction at a time, the lanes are also run over a stock which is checked and taken without any lock
+ */
+
+public class OrderDispatcherTest {
+
+    /**
+     * the number of clients placing the orders
+     */
+    private static final int CLIENTS = 20;
+    /**
+     * the initial stock of each product
+     */
+    private static final int STOCK = 500;
+
+    /**
+     * the storage used by the BLL classes
+     */
+    private final Storage storage = StorageFactory.getStorage();
+
+    /**
+     * method used to check that orders placed by many threads for the same products neither oversell the stock nor lose an order item
+     * @throws Exception if a thread fails
+     */
+    @Test
+    public void concurrentOrdersKeepTheStock() throws Exception {
+        List<Integer> products = insertData("race", 4);
+        int threads = 16;
+        int ordersPerThread = 400;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        for(int t = 0; t < threads; t++){
+            final int thread = t;
+            results.add(executor.submit(() -> {
+                OrderBLL oBLL = new OrderBLL();
+                start.await();
+                for(int i = 0; i < ordersPerThread; i++){
+                    int result = oBLL.insertOrder("race-client-" + (thread + i) % CLIENTS, "race-product-" + i % products.size(), 1 + i % 3);
+                    assertTrue(result == 0 || result == -1);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for(Future<?> result : results){
+            result.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        checkStock(products);
+    }
+
+    /**
+     * method used to check that the orders placed through the dispatcher lanes neither oversell the stock nor lose an order item,
+     * and that every refused order is reported
+     */
+    @Test
+    public void dispatchedOrdersKeepTheStock(){
+        List<Integer> products = insertData("lane", 8);
+        OrderDispatcher dispatcher = new OrderDispatcher(4);
+        int orders = 6000;
+        int placed = 0;
+        int refused = 0;
+        try{
+            for(int i = 0; i < orders; i++){
+                dispatcher.submit(new PlaceOrder("lane-client-" + i % CLIENTS, "lane-product-" + i % products.size(), 1 + i % 5));
+            }
+            List<OrderDispatcher.Outcome> outcomes = dispatcher.drain();
+            assertEquals(orders, outcomes.size());
+            for(OrderDispatcher.Outcome outcome : outcomes){
+                if(outcome.getResult() == 0){
+                    placed += outcome.getOrder().getQuantity();
+                }
+                else{
+                    assertEquals(-1, outcome.getResult());
+                    refused++;
+                }
+            }
+        }finally{
+            dispatcher.shutdown();
+        }
+        assertTrue(refused > 0);
+        assertEquals((long) products.size() * STOCK - placed, remainingStock(products));
+        checkStock(products);
+    }
+
+    /**
+     * method used to check that the lanes place the orders of different products at the same time, and the orders of the same product one
+     * after another, so that a stock which is checked and taken without any lock is neither oversold nor loses an order
+     */
+    @Test
+    public void lanesSerializeTheOrdersOfAProduct(){
+        int count = 8;
+        RacyOrderBLL oBLL = new RacyOrderBLL(count);
+        OrderDispatcher dispatcher = new OrderDispatcher(4, () -> oBLL);
+        int orders = 6000;
+        int placed = 0;
+        try{
+            for(int i = 0; i < orders; i++){
+                dispatcher.submit(new PlaceOrder("racy-client", "racy-product-" + i % count, 1 + i % 5));
+            }
+            for(OrderDispatcher.Outcome outcome : dispatcher.drain()){
+                if(outcome.getResult() == 0){
+                    placed += outcome.getOrder().getQuantity();
+                }
+            }
+        }finally{
+            dispatcher.shutdown();
+        }
+        assertEquals(0, oBLL.overlaps.get());
+        assertTrue("the lanes did not place orders at the same time", oBLL.concurrent.get() > 1);
+        long remaining = 0;
+        for(int[] stock : oBLL.stock.values()){
+            assertFalse(stock[0] < 0);
+            remaining += stock[0];
+        }
+        assertEquals((long) count * STOCK - placed, remaining);
+    }
+
+    /**
+     * method used to insert the clients and the products used by a test
+     * @param prefix String representing the prefix of the names, unique for each test
+     * @param count int representing the number of products
+     * @return a list containing the ids of the products
+     */
+    private List<Integer> insertData(String prefix, int count){
+        ClientBLL cBLL = new ClientBLL();
+        ProductBLL pBLL = new ProductBLL();
+        for(int i = 0; i < CLIENTS; i++){
+            cBLL.insertClient(prefix + "-client-" + i, "Address " + i);
+        }
+        List<Integer> ids = new ArrayList<>();
+        for(int i = 0; i < count; i++){
+            pBLL.insertProduct(prefix + "-product-" + i, STOCK, 1.5f);
+            ids.add(pBLL.findProductByName(prefix + "-product-" + i));
+        }
+        return ids;
+    }
+
+    /**
+     * method used to check, for every product, that the stock is not negative and that the ordered quantities add up to the stock which was taken
+     * @param products list containing the ids of the products
+     */
+    private void checkStock(List<Integer> products){
+        for(int id : products){
+            Product product = storage.products().findById(id);
+            assertFalse("negative stock for " + product.getName(), product.getQuantity() < 0);
+            long ordered = 0;
+            for(OrderItem item : storage.orderItems().findAllByIdProduct(id)){
+                ordered += item.getQuantity();
+            }
+            assertEquals("ordered quantity of " + product.getName(), STOCK - product.getQuantity(), ordered);
+        }
+    }
+
+    /**
+     * @param products list containing the ids of the products
+     * @return the sum of the stock of the products
+     */
+    private long remainingStock(List<Integer> products){
+        long remaining = 0;
+        for(int id : products){
+            remaining += storage.products().findById(id).getQuantity();
+        }
+        return remaining;
+    }
+
+    /**
+     * OrderBLL placing the orders on a stock held in memory, which is read, checked and written back without any lock, so that two orders
+     * of the same product placed at the same time could both take the last pieces; it counts the orders of a product which overlap
+     */
+    private static class RacyOrderBLL extends OrderBLL {
+
+        /**
+         * the stock of each product, by name; the map is filled by the constructor and only read afterwards
+         */
+        private final Map<String, int[]> stock = new HashMap<>();
+        /**
+         * the number of orders being placed for each product, by name
+         */
+        private final Map<String, AtomicInteger> placing = new HashMap<>();
+        /**
+         * the number of orders being placed
+         */
+        private final AtomicInteger active = new AtomicInteger();
+        /**
+         * the highest number of orders placed at the same time
+         */
+        private final AtomicInteger concurrent = new AtomicInteger();
+        /**
+         * the number of orders placed while another order of the same product was being placed
+         */
+        private final AtomicInteger overlaps = new AtomicInteger();
+
+        /**
+         * constructor creating the products "racy-product-0" .. "racy-product-(count - 1)", each with the initial stock
+         * @param count int representing the number of products
+         */
+        private RacyOrderBLL(int count){
+            for(int i = 0; i < count; i++){
+                stock.put("racy-product-" + i, new int[]{STOCK});
+                placing.put("racy-product-" + i, new AtomicInteger());
+            }
+        }
+
+        @Override
+        public int insertOrder(String name, String product, int quantity, Checkpoint placed, Checkpoint refused){
+            concurrent.accumulateAndGet(active.incrementAndGet(), Math::max);
+            if(placing.get(product).incrementAndGet() > 1){
+                overlaps.incrementAndGet();
+            }
+            try{
+                int[] available = stock.get(product);
+                int read = available[0];
+                Thread.yield();
+                if(read < quantity){
+                    return -1;
+                }
+                available[0] = read - quantity;
+                return 0;
+            }finally{
+                placing.get(product).decrementAndGet();
+                active.decrementAndGet();
+            }
+        }
+    }
+}
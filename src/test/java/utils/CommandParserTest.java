@@ -0,0 +1,59 @@
+package utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of the CommandParser: the typed commands built from valid lines, and the lines which are rejected
+ */
+
+public class CommandParserTest {
+
+    /**
+     * method used to check the fields of the parsed insert and order commands
+     */
+    @Test
+    public void parsesValidLines(){
+        CommandText product = CommandParser.parse("Insert product: apple, 20, 1.5");
+        assertTrue(product instanceof InsertProduct);
+        assertEquals("apple", ((InsertProduct) product).getName());
+        assertEquals(20, ((InsertProduct) product).getQuantity());
+        assertEquals(1.5f, ((InsertProduct) product).getPrice(), 0f);
+        CommandText order = CommandParser.parse("  order: Ana Pop, apple, 5  ");
+        assertTrue(order instanceof PlaceOrder);
+        assertEquals("Ana Pop", ((PlaceOrder) order).getClient());
+        assertEquals("apple", ((PlaceOrder) order).getProduct());
+        assertEquals(5, ((PlaceOrder) order).getQuantity());
+    }
+
+    /**
+     * method used to check that the numbers are parsed like Integer.parseInt() and Float.parseFloat()
+     */
+    @Test
+    public void parsesNumbersLikeTheJdk(){
+        for(String s : new String[]{"0", "7", "123456789", "2147483647", "-5", "+5"}){
+            assertEquals(Integer.parseInt(s), CommandParser.parseInt(s, 0, s.length()));
+        }
+        for(String s : new String[]{"0", "0.1", "1.5", "3.14159", "16777217", "1e3", "-2.5", ".5"}){
+            assertEquals(Float.parseFloat(s), CommandParser.parseFloat(s, 0, s.length()), 0f);
+        }
+    }
+
+    /**
+     * method used to check that lines with missing fields or invalid numbers are rejected instead of throwing
+     */
+    @Test
+    public void rejectsMalformedLines(){
+        assertNull(CommandParser.parse("Insert product: apple, 20"));
+        assertNull(CommandParser.parse("Insert product: apple, twenty, 1.5"));
+        assertNull(CommandParser.parse("Insert product: apple, 20, cheap"));
+        assertNull(CommandParser.parse("Insert product: apple, 99999999999, 1.5"));
+        assertNull(CommandParser.parse("Order: Ana, apple"));
+        assertNull(CommandParser.parse("Order: Ana, apple, 5.5"));
+        assertNull(CommandParser.parse("Insert order: Ana, apple, "));
+        assertNull(CommandParser.parse("   "));
+    }
+}